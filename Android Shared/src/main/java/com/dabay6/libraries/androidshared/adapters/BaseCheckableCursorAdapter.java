@@ -48,12 +48,14 @@ import java.util.Set;
  * @version 1.0
  */
 @SuppressWarnings("unused")
-public abstract class BaseCheckableCursorAdapter extends CursorAdapter implements Callback, CheckableAdapter {
+public abstract class BaseCheckableCursorAdapter extends CursorAdapter
+        implements Callback, CheckableAdapter, SwappableCursorAdapter {
     private final static String TAG = Logger.makeTag(BaseCheckableCursorAdapter.class);
     private final LayoutInflater inflater;
     private final int layoutResourceId;
     protected CheckableAdapterHelper helper = new CheckableAdapterHelper(this);
     private OnActionModeCallbackListener onActionModeCallbackListener;
+    private CursorProjection projection;
 
     /**
      * @param context
@@ -127,6 +129,27 @@ public abstract class BaseCheckableCursorAdapter extends CursorAdapter implement
         onActionModeCallbackListener = listener;
     }
 
+    /**
+     * @return The {@link CursorProjection} used to read the bound {@link Cursor}, or null if none has been set.
+     */
+    public CursorProjection getProjection() {
+        return projection;
+    }
+
+    /**
+     * Sets the {@link CursorProjection} used to read the bound {@link Cursor}. Its column indices are resolved against
+     * the current cursor and again whenever the cursor is swapped.
+     *
+     * @param projection The {@link CursorProjection}.
+     */
+    public void setProjection(final CursorProjection projection) {
+        this.projection = projection;
+
+        if (projection != null) {
+            projection.resolve(getCursor());
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -219,6 +242,29 @@ public abstract class BaseCheckableCursorAdapter extends CursorAdapter implement
         helper.setOnItemClickListener(onItemClickListener);
     }
 
+    /**
+     * Replaces the cursor, keeping the selection. The projection is resolved first, so a cursor missing one of its
+     * columns is rejected before anything changes.
+     *
+     * @param newCursor The new {@link Cursor}, or null to show no rows.
+     *
+     * @return The previous {@link Cursor}, or null if there was none.
+     */
+    @Override
+    public Cursor swapCursor(final Cursor newCursor) {
+        if (projection != null) {
+            projection.resolve(newCursor);
+        }
+
+        helper.onDataSetSwapping();
+
+        final Cursor oldCursor = super.swapCursor(newCursor);
+
+        helper.onDataSetSwapped();
+
+        return oldCursor;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -228,6 +274,9 @@ public abstract class BaseCheckableCursorAdapter extends CursorAdapter implement
     }
 
     /**
+     * Binds the row the {@link Cursor} is positioned on to the view. Implementations should read columns through
+     * {@link #getProjection()} rather than looking them up by name for every row.
+     *
      * @param context
      * @param view
      * @param cursor
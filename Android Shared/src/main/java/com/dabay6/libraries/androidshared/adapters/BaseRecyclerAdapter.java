@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v7.widget.RecyclerView;
+
+import com.dabay6.libraries.androidshared.util.CollectionUtils;
+import com.dabay6.libraries.androidshared.util.collections.PersistentList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * BaseRecyclerAdapter
+ * <p>
+ * A {@link RecyclerView.Adapter} over a {@link PersistentList}, for use with {@link
+ * com.dabay6.libraries.androidshared.ui.BaseRecyclerActivity}. Single item changes are announced with the matching
+ * item notification. {@link #setItems(Collection)} and {@link #sort(Comparator)} calculate a {@link ListDiff} on a
+ * background thread and dispatch only the rows that were inserted, removed, moved or changed.
+ * </p>
+ * <p>
+ * While a replacement is being calculated the other changes apply to the list it will show: they are made to the
+ * pending list and the difference from the shown items is calculated again, so <code>setItems(list);
+ * add(item)</code> ends with <code>list</code> followed by <code>item</code>. Positions passed to the changes refer
+ * to that pending list. {@link #clear()} cancels a pending replacement.
+ * </p>
+ * <p>
+ * Ids are stable: every row is given its own id when it is added, and keeps it while it is moved or replaced by an
+ * item with the same key, so an item that appears twice still has two ids. The adapter must be used on the main
+ * thread.
+ * </p>
+ *
+ * @param <T>  the type of the items.
+ * @param <VH> the type of the view holders.
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public abstract class BaseRecyclerAdapter<T, VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
+    private final static Object lock = new Object();
+    private static Executor differ;
+    private final ItemDiffCallback<? super T> callback;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private int generation;
+    private PersistentList<T> items;
+    private long nextId;
+    private PersistentList<T> pending;
+    private PersistentList<Long> rowIds;
+
+    /**
+     * @param callback Identifies and compares the items.
+     */
+    protected BaseRecyclerAdapter(final ItemDiffCallback<? super T> callback) {
+        this(callback, null);
+    }
+
+    /**
+     * @param callback Identifies and compares the items.
+     * @param items    The initial items, or null.
+     */
+    protected BaseRecyclerAdapter(final ItemDiffCallback<? super T> callback, final Collection<? extends T> items) {
+        if (callback == null) {
+            throw new IllegalArgumentException("callback cannot be null.");
+        }
+
+        this.callback = callback;
+        this.items = items == null ? PersistentList.<T>empty() : PersistentList.<T>of(items);
+        rowIds = PersistentList.of(newRowIds(this.items.size()));
+
+        setHasStableIds(true);
+    }
+
+    /**
+     * Adds the specified item at the end of the list.
+     *
+     * @param item The item to add.
+     */
+    public void add(final T item) {
+        if (pending != null) {
+            submit(pending.plus(item));
+
+            return;
+        }
+
+        items = items.plus(item);
+        rowIds = rowIds.plus(nextId++);
+
+        notifyItemInserted(items.size() - 1);
+    }
+
+    /**
+     * Adds the specified items at the end of the list.
+     *
+     * @param collection The items to add.
+     */
+    public void addAll(final Collection<? extends T> collection) {
+        if (pending != null) {
+            submit(pending.plusAll(collection));
+
+            return;
+        }
+
+        final int start = items.size();
+
+        items = items.plusAll(collection);
+        rowIds = rowIds.plusAll(newRowIds(items.size() - start));
+
+        notifyItemRangeInserted(start, items.size() - start);
+    }
+
+    /**
+     * Removes all items, including those of a replacement that has not been shown yet.
+     */
+    public void clear() {
+        final int count = items.size();
+
+        generation += 1;
+        pending = null;
+        items = PersistentList.empty();
+        rowIds = PersistentList.empty();
+
+        notifyItemRangeRemoved(0, count);
+    }
+
+    /**
+     * @param position The position of the item.
+     *
+     * @return The item at the position.
+     */
+    public T getItem(final int position) {
+        return items.get(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getItemId(final int position) {
+        return rowIds.get(position);
+    }
+
+    /**
+     * Returns the items shown by the adapter. The returned list never changes.
+     *
+     * @return The items shown by the adapter.
+     */
+    public PersistentList<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Inserts the specified item at the specified position.
+     *
+     * @param item  The item to insert.
+     * @param index The position at which the item is inserted.
+     */
+    public void insert(final T item, final int index) {
+        if (pending != null) {
+            submit(pending.insert(index, item));
+
+            return;
+        }
+
+        items = items.insert(index, item);
+        rowIds = rowIds.insert(index, nextId++);
+
+        notifyItemInserted(index);
+    }
+
+    /**
+     * Compares the items with what was last shown and dispatches the rows that changed. Use this after items were
+     * edited in place, with a callback that compares against what was shown rather than against the old item.
+     */
+    public void refresh() {
+        submit(target());
+    }
+
+    /**
+     * Removes the specified item.
+     *
+     * @param item The item to remove.
+     */
+    public void remove(final T item) {
+        final int index = target().indexOf(item);
+
+        if (index < 0) {
+            return;
+        }
+
+        if (pending != null) {
+            submit(pending.minus(index));
+
+            return;
+        }
+
+        items = items.minus(index);
+        rowIds = rowIds.minus(index);
+
+        notifyItemRemoved(index);
+    }
+
+    /**
+     * Replaces the item at the specified position. The row keeps its id.
+     *
+     * @param position The position of the item.
+     * @param item     The new item.
+     */
+    public void set(final int position, final T item) {
+        if (pending != null) {
+            submit(pending.with(position, item));
+
+            return;
+        }
+
+        items = items.with(position, item);
+
+        notifyItemChanged(position);
+    }
+
+    /**
+     * Replaces every item. The differences are calculated on a background thread and the new items are shown once
+     * they are known. A later call replaces a replacement that has not been shown yet.
+     *
+     * @param collection The new items.
+     */
+    public void setItems(final Collection<? extends T> collection) {
+        submit(PersistentList.<T>of(collection));
+    }
+
+    /**
+     * Sorts the items using the specified comparator. The rows are moved rather than rebound.
+     *
+     * @param comparator The comparator used to sort the items.
+     */
+    public void sort(final Comparator<? super T> comparator) {
+        submit(target().sorted(comparator));
+    }
+
+    /**
+     * Called after {@link #setItems(Collection)} has shown the new items and dispatched the changes.
+     *
+     * @param oldItems The items that were replaced.
+     * @param newItems The items now shown.
+     */
+    protected void onItemsChanged(final PersistentList<T> oldItems, final PersistentList<T> newItems) {
+    }
+
+    private List<Long> newRowIds(final int count) {
+        final List<Long> newIds = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            newIds.add(nextId++);
+        }
+
+        return newIds;
+    }
+
+    /**
+     * Gives each new row the id of the old row it took over, or a new id.
+     */
+    private PersistentList<Long> rowIdsFor(final int[] sources) {
+        final List<Long> newIds = new ArrayList<>(sources.length);
+
+        for (final int source : sources) {
+            newIds.add(source >= 0 ? rowIds.get(source) : nextId++);
+        }
+
+        return PersistentList.of(newIds);
+    }
+
+    /**
+     * Calculates the difference between the shown items and the given items in the background, and shows the new
+     * items unless they have been replaced in the meantime.
+     */
+    private void submit(final PersistentList<T> newItems) {
+        final int submitted = ++generation;
+        final PersistentList<T> oldItems = items;
+
+        pending = newItems;
+
+        getDiffer().execute(new Runnable() {
+            @Override
+            public void run() {
+                final ListDiff diff = ListDiff.calculate(oldItems, newItems, callback);
+                final int[] sources = pair(oldItems, newItems, callback);
+
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (submitted != generation) {
+                            return;
+                        }
+
+                        // nothing else changed the shown items since the submission, so the ids still line up
+                        items = newItems;
+                        rowIds = rowIdsFor(sources);
+                        pending = null;
+                        diff.dispatchTo(BaseRecyclerAdapter.this);
+                        onItemsChanged(oldItems, newItems);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return The list the next change applies to: the pending replacement if there is one, otherwise the shown
+     * items.
+     */
+    private PersistentList<T> target() {
+        return pending != null ? pending : items;
+    }
+
+    private static Executor getDiffer() {
+        synchronized (lock) {
+            if (differ == null) {
+                differ = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "BaseRecyclerAdapter-differ");
+
+                        thread.setDaemon(true);
+
+                        return thread;
+                    }
+                });
+            }
+
+            return differ;
+        }
+    }
+
+    /**
+     * Pairs each new item with the first unused old item that has the same key.
+     *
+     * @return For each new item, the position of the old item it takes over, or -1.
+     */
+    private static <T> int[] pair(final List<? extends T> oldItems, final List<? extends T> newItems,
+                                  final ItemDiffCallback<? super T> callback) {
+        final Map<Object, ArrayDeque<Integer>> positions = CollectionUtils.newHashMap();
+        final int[] sources = new int[newItems.size()];
+
+        for (int i = 0; i < oldItems.size(); i++) {
+            final Object key = callback.getItemKey(oldItems.get(i));
+            ArrayDeque<Integer> queue = positions.get(key);
+
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                positions.put(key, queue);
+            }
+
+            queue.add(i);
+        }
+
+        for (int i = 0; i < sources.length; i++) {
+            final ArrayDeque<Integer> queue = positions.get(callback.getItemKey(newItems.get(i)));
+
+            sources[i] = queue == null || queue.isEmpty() ? -1 : queue.poll();
+        }
+
+        return sources;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Bundle;
+import android.support.v4.app.LoaderManager;
+import android.support.v4.app.LoaderManager.LoaderCallbacks;
+import android.support.v4.content.CursorLoader;
+import android.support.v4.content.Loader;
+
+/**
+ * CursorDataSource
+ * <p>
+ * Feeds a {@link SwappableCursorAdapter} from a {@link CursorLoader}. The query, the row count and the first window
+ * fill run on the loader's thread, and each new result is swapped into the adapter in a single call on the main
+ * thread. Windows after the first are still filled on demand by the cursor, on the thread that moves it. The loader
+ * closes the cursors it replaces.
+ * </p>
+ * <pre>
+ * dataSource = new CursorDataSource(context, adapter, Items.CONTENT_URI, projection);
+ * dataSource.start(getLoaderManager(), LOADER_ITEMS);
+ * </pre>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class CursorDataSource implements LoaderCallbacks<Cursor> {
+    private final SwappableCursorAdapter adapter;
+    private final Context context;
+    private final CursorProjection projection;
+    private final Uri uri;
+    private String selection;
+    private String[] selectionArgs;
+    private String sortOrder;
+
+    /**
+     * @param context    The context.
+     * @param adapter    The adapter that will show the rows.
+     * @param uri        The URI of the content to retrieve.
+     * @param projection The columns to retrieve, or null for every column.
+     */
+    public CursorDataSource(final Context context, final SwappableCursorAdapter adapter, final Uri uri,
+                            final CursorProjection projection) {
+        if (adapter == null) {
+            throw new IllegalArgumentException("adapter cannot be null.");
+        }
+        if (uri == null) {
+            throw new IllegalArgumentException("uri cannot be null.");
+        }
+
+        this.adapter = adapter;
+        this.context = context.getApplicationContext();
+        this.projection = projection;
+        this.uri = uri;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Loader<Cursor> onCreateLoader(final int id, final Bundle args) {
+        final String[] columns = projection == null ? null : projection.getColumns();
+
+        return new CursorLoader(context, uri, columns, selection, selectionArgs, sortOrder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLoadFinished(final Loader<Cursor> loader, final Cursor data) {
+        adapter.swapCursor(data);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLoaderReset(final Loader<Cursor> loader) {
+        adapter.swapCursor(null);
+    }
+
+    /**
+     * Runs the query again, for example after the selection or sort order has changed. The adapter keeps showing the
+     * current rows until the new ones have loaded.
+     *
+     * @param loaderManager The {@link LoaderManager} that owns the loader.
+     * @param loaderId      The id of the loader.
+     */
+    public void restart(final LoaderManager loaderManager, final int loaderId) {
+        loaderManager.restartLoader(loaderId, null, this);
+    }
+
+    /**
+     * @param selection     The filter declaring which rows to return, or null for every row.
+     * @param selectionArgs The values replacing the ?s in the selection.
+     */
+    public void setSelection(final String selection, final String... selectionArgs) {
+        this.selection = selection;
+        this.selectionArgs = selectionArgs;
+    }
+
+    /**
+     * @param sortOrder How to order the rows, or null for the default order.
+     */
+    public void setSortOrder(final String sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+
+    /**
+     * Starts loading, or reconnects to the loader retained across a configuration change.
+     *
+     * @param loaderManager The {@link LoaderManager} that owns the loader.
+     * @param loaderId      The id of the loader.
+     */
+    public void start(final LoaderManager loaderManager, final int loaderId) {
+        loaderManager.initLoader(loaderId, null, this);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+import android.widget.TextView;
+
+import com.dabay6.libraries.androidshared.R;
+
+/**
+ * CursorProjection
+ * <p>
+ * Resolves the column indices of a fixed set of columns once per {@link Cursor} and exposes typed accessors keyed by
+ * the column's position in the projection. Adapters call the accessors from their bind methods instead of looking up
+ * each column by name for every row.
+ * </p>
+ * <pre>
+ * private final static int TITLE = 0;
+ * private final static int SUBTITLE = 1;
+ * private final CursorProjection projection = new CursorProjection(Columns.TITLE, Columns.SUBTITLE);
+ *
+ * projection.setText(cursor, TITLE, text1);
+ * </pre>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class CursorProjection {
+    private final static int DEFAULT_BUFFER_SIZE = 64;
+    private final CharArrayBuffer[] buffers;
+    private final String[] columns;
+    private final int[] indices;
+    private Cursor cursor;
+
+    /**
+     * @param columns The names of the columns in the projection.
+     */
+    public CursorProjection(final String... columns) {
+        if (columns == null || columns.length == 0) {
+            throw new IllegalArgumentException("At least one column is required.");
+        }
+
+        this.columns = columns.clone();
+        buffers = new CharArrayBuffer[columns.length];
+        indices = new int[columns.length];
+    }
+
+    /**
+     * @param cursor The {@link Cursor} positioned on the row to read.
+     * @param column The position of the column in the projection.
+     *
+     * @return The value of the column.
+     */
+    public byte[] getBlob(final Cursor cursor, final int column) {
+        return cursor.getBlob(getColumnIndex(cursor, column));
+    }
+
+    /**
+     * Copies the text of a column into a buffer owned by the projection. The contents are only valid until the next
+     * call for the same column.
+     *
+     * @param cursor The {@link Cursor} positioned on the row to read.
+     * @param column The position of the column in the projection.
+     *
+     * @return The {@link CharArrayBuffer} holding the text; {@link CharArrayBuffer#sizeCopied} is 0 for null values.
+     */
+    public CharArrayBuffer getBuffer(final Cursor cursor, final int column) {
+        CharArrayBuffer buffer = buffers[column];
+
+        if (buffer == null) {
+            buffer = new CharArrayBuffer(DEFAULT_BUFFER_SIZE);
+            buffers[column] = buffer;
+        }
+
+        return getBuffer(cursor, column, buffer);
+    }
+
+    /**
+     * Copies the text of a column into the passed in buffer, growing it as needed.
+     *
+     * @param cursor The {@link Cursor} positioned on the row to read.
+     * @param column The position of the column in the projection.
+     * @param buffer The {@link CharArrayBuffer} that will receive the text.
+     *
+     * @return The passed in {@link CharArrayBuffer}.
+     */
+    public CharArrayBuffer getBuffer(final Cursor cursor, final int column, final CharArrayBuffer buffer) {
+        cursor.copyStringToBuffer(getColumnIndex(cursor, column), buffer);
+
+        return buffer;
+    }
+
+    /**
+     * Gets the index of a column in the passed in {@link Cursor}, resolving every column of the projection if the
+     * cursor has changed since the last call.
+     *
+     * @param cursor The {@link Cursor} that will be read.
+     * @param column The position of the column in the projection.
+     *
+     * @return The index of the column in the {@link Cursor}.
+     */
+    public int getColumnIndex(final Cursor cursor, final int column) {
+        if (cursor != this.cursor) {
+            resolve(cursor);
+        }
+
+        return indices[column];
+    }
+
+    /**
+     * @return A copy of the column names, suitable for passing to a query as its projection.
+     */
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * @param cursor The {@link Cursor} positioned on the row to read.
+     * @param column The position of the column in the projection.
+     *
+     * @return The value of the column.
+     */
+    public double getDouble(final Cursor cursor, final int column) {
+        return cursor.getDouble(getColumnIndex(cursor, column));
+    }
+
+    /**
+     * @param cursor The {@link Cursor} positioned on the row to read.
+     * @param column The position of the column in the projection.
+     *
+     * @return The value of the column.
+     */
+    public float getFloat(final Cursor cursor, final int column) {
+        return cursor.getFloat(getColumnIndex(cursor, column));
+    }
+
+    /**
+     * @param cursor The {@link Cursor} positioned on the row to read.
+     * @param column The position of the column in the projection.
+     *
+     * @return The value of the column.
+     */
+    public int getInt(final Cursor cursor, final int column) {
+        return cursor.getInt(getColumnIndex(cursor, column));
+    }
+
+    /**
+     * @param cursor The {@link Cursor} positioned on the row to read.
+     * @param column The position of the column in the projection.
+     *
+     * @return The value of the column.
+     */
+    public long getLong(final Cursor cursor, final int column) {
+        return cursor.getLong(getColumnIndex(cursor, column));
+    }
+
+    /**
+     * @param cursor The {@link Cursor} positioned on the row to read.
+     * @param column The position of the column in the projection.
+     *
+     * @return The value of the column.
+     */
+    public String getString(final Cursor cursor, final int column) {
+        return cursor.getString(getColumnIndex(cursor, column));
+    }
+
+    /**
+     * @param cursor The {@link Cursor} positioned on the row to read.
+     * @param column The position of the column in the projection.
+     *
+     * @return True if the value of the column is null, otherwise false.
+     */
+    public boolean isNull(final Cursor cursor, final int column) {
+        return cursor.isNull(getColumnIndex(cursor, column));
+    }
+
+    /**
+     * Resolves the indices of every column in the projection against the passed in {@link Cursor}.
+     *
+     * The indices are only replaced once every column has resolved, so a failure leaves the projection bound to the
+     * previous {@link Cursor}.
+     *
+     * @param cursor The {@link Cursor} that will be read, or null to release the current one.
+     *
+     * @throws IllegalArgumentException If the {@link Cursor} does not contain one of the columns.
+     */
+    public void resolve(final Cursor cursor) {
+        if (cursor != null) {
+            final int[] resolved = new int[columns.length];
+
+            for (int i = 0; i < columns.length; i++) {
+                resolved[i] = cursor.getColumnIndexOrThrow(columns[i]);
+            }
+
+            System.arraycopy(resolved, 0, indices, 0, resolved.length);
+        }
+
+        this.cursor = cursor;
+    }
+
+    /**
+     * Sets the text of a {@link TextView} from a column without allocating a {@link String}. Each {@link TextView}
+     * keeps its own {@link CharArrayBuffer}, which is reused every time the view is bound.
+     *
+     * @param cursor   The {@link Cursor} positioned on the row to read.
+     * @param column   The position of the column in the projection.
+     * @param textView The {@link TextView} that will display the text.
+     */
+    public void setText(final Cursor cursor, final int column, final TextView textView) {
+        CharArrayBuffer buffer = (CharArrayBuffer) textView.getTag(R.id.util__char_array_buffer);
+
+        if (buffer == null) {
+            buffer = new CharArrayBuffer(DEFAULT_BUFFER_SIZE);
+            textView.setTag(R.id.util__char_array_buffer, buffer);
+        }
+
+        getBuffer(cursor, column, buffer);
+
+        // the TextView keeps a reference to the array, which is only rewritten right before the next setText call
+        textView.setText(buffer.data, 0, buffer.sizeCopied);
+    }
+}
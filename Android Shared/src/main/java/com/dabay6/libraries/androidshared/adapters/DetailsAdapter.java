@@ -25,6 +25,8 @@ package com.dabay6.libraries.androidshared.adapters;
 import android.R.id;
 import android.R.layout;
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -33,33 +35,68 @@ import android.widget.Filter;
 import android.widget.Filterable;
 import android.widget.TextView;
 
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+import com.dabay6.libraries.androidshared.logging.Logger;
 import com.dabay6.libraries.androidshared.util.CollectionUtils;
 import com.dabay6.libraries.androidshared.util.StringUtils;
+import com.dabay6.libraries.androidshared.util.collections.PersistentList;
 import com.dabay6.libraries.androidshared.view.ViewsFinder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DetailsAdapter
+ * <p>
+ * Items are held in a {@link PersistentList} that is replaced, never changed, when items are added or removed. The
+ * views and the filter read the current list without locking, and a filter snapshot costs O(1).
+ * </p>
+ * <p>
+ * Filtering matches against the cached lower case text of each item through a {@link DetailsItemIndex}. The index is
+ * built on the filter thread the first time the items are filtered and rebuilt only after items are added, inserted,
+ * removed or changed.
+ * </p>
+ * <p>
+ * When a prefix extends the previous one, the previous results are narrowed instead of searching again if that is
+ * less work. Requests made through {@link #filter(CharSequence)} are debounced, and a pass that is superseded by a
+ * newer request stops early and is never published. The time from the request to the publication of its results is
+ * available from {@link #getFilterLatency()} and is logged as a <code>details_filter</code> event.
+ * </p>
  *
  * @author Remel Pugh
  * @version 1.0
  */
 @SuppressWarnings("unused")
 public class DetailsAdapter extends BaseAdapter implements Filterable {
+    private final static long DEFAULT_FILTER_DELAY = 100;
+    private final static int CANCEL_CHECK_INTERVAL = 256;
+    private final static String TAG = Logger.makeTag(DetailsAdapter.class);
     private final Context context;
+    private final Handler handler = new Handler(Looper.getMainLooper());
     private final LayoutInflater inflater;
     private final Object lock = new Object();
+    private final Runnable pendingFilter = new Runnable() {
+        @Override
+        public void run() {
+            getFilter().filter(pendingConstraint);
+        }
+    };
     private final int resource;
     private final int[] textViewResourceId;
     private int dropDownResource;
     private DetailsItemFilter filter;
-    private DetailsItemList items;
+    private long filterDelay = DEFAULT_FILTER_DELAY;
+    private volatile int filterGeneration;
+    private volatile long filterLatency = -1;
+    private volatile long filterRequestTime;
+    private volatile PersistentList<DetailsItem> items;
     private boolean notifyOnChange = true;
-    private DetailsItemList originalItems;
+    private volatile PersistentList<DetailsItem> originalItems;
+    private CharSequence pendingConstraint;
 
     /**
      * @param context The current context.
@@ -98,7 +135,7 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
                           final int[] textViewResourceId) {
         this.context = context;
         inflater = LayoutInflater.from(context);
-        items = data;
+        items = PersistentList.of(data);
         this.resource = dropDownResource = resource;
         this.textViewResourceId = textViewResourceId;
     }
@@ -111,10 +148,10 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
     public void add(final DetailsItem item) {
         synchronized (lock) {
             if (originalItems != null) {
-                originalItems.add(item);
+                originalItems = originalItems.plus(item);
             }
             else {
-                items.add(item);
+                items = items.plus(item);
             }
         }
         if (notifyOnChange) {
@@ -130,10 +167,10 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
     public void addAll(final Collection<? extends DetailsItem> collection) {
         synchronized (lock) {
             if (originalItems != null) {
-                originalItems.addAll(collection);
+                originalItems = originalItems.plusAll(collection);
             }
             else {
-                items.addAll(collection);
+                items = items.plusAll(collection);
             }
         }
         if (notifyOnChange) {
@@ -147,17 +184,7 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
      * @param items The items to add at the end of the array.
      */
     public void addAll(final DetailsItem... items) {
-        synchronized (lock) {
-            if (originalItems != null) {
-                Collections.addAll(originalItems, items);
-            }
-            else {
-                Collections.addAll(this.items, items);
-            }
-        }
-        if (notifyOnChange) {
-            notifyDataSetChanged();
-        }
+        addAll(Arrays.asList(items));
     }
 
     /**
@@ -166,10 +193,10 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
     public void clear() {
         synchronized (lock) {
             if (originalItems != null) {
-                originalItems.clear();
+                originalItems = PersistentList.empty();
             }
             else {
-                items.clear();
+                items = PersistentList.empty();
             }
         }
         if (notifyOnChange) {
@@ -194,6 +221,23 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
         return new DetailsAdapter(context, items, resource, textViewResourceId);
     }
 
+    /**
+     * Filters the items once no newer request has been made for the filter delay. Any filter pass still running for
+     * an earlier request is abandoned. Must be called on the main thread.
+     *
+     * @param constraint The prefix to filter by.
+     *
+     * @see #setFilterDelay(long)
+     */
+    public void filter(final CharSequence constraint) {
+        filterGeneration += 1;
+        filterRequestTime = System.nanoTime();
+        pendingConstraint = constraint;
+
+        handler.removeCallbacks(pendingFilter);
+        handler.postDelayed(pendingFilter, filterDelay);
+    }
+
     /**
      * Returns the context associated with this array adapter. The context is used
      * to create views from the resource passed to the constructor.
@@ -223,16 +267,38 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
         return filter;
     }
 
+    /**
+     * Returns the time between the most recent filter request and the publication of its results, including the
+     * filter delay.
+     *
+     * @return The latency in milliseconds, or -1 if no results have been published.
+     */
+    public long getFilterLatency() {
+        return filterLatency;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public DetailsItem getItem(final int position) {
-        if (items.size() == 0) {
+        final PersistentList<DetailsItem> current = items;
+
+        if (current.size() == 0) {
             return null;
         }
 
-        return items.get(position);
+        return current.get(position);
+    }
+
+    /**
+     * Returns the items currently shown by the adapter. The returned list never changes, so it can be handed to
+     * another thread without copying.
+     *
+     * @return The items shown by the adapter.
+     */
+    public PersistentList<DetailsItem> getItems() {
+        return items;
     }
 
     /**
@@ -271,10 +337,10 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
     public void insert(final DetailsItem item, final int index) {
         synchronized (lock) {
             if (originalItems != null) {
-                originalItems.add(index, item);
+                originalItems = originalItems.insert(index, item);
             }
             else {
-                items.add(index, item);
+                items = items.insert(index, item);
             }
         }
         if (notifyOnChange) {
@@ -300,10 +366,31 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
     public void remove(final DetailsItem item) {
         synchronized (lock) {
             if (originalItems != null) {
-                originalItems.remove(item);
+                originalItems = originalItems.minus(item);
+            }
+            else {
+                items = items.minus(item);
+            }
+        }
+        if (notifyOnChange) {
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Replaces every item of the adapter at once. If a filter is active the new items replace the unfiltered items.
+     *
+     * @param collection The new items.
+     */
+    public void setItems(final Collection<? extends DetailsItem> collection) {
+        final PersistentList<DetailsItem> list = PersistentList.of(collection);
+
+        synchronized (lock) {
+            if (originalItems != null) {
+                originalItems = list;
             }
             else {
-                items.remove(item);
+                items = list;
             }
         }
         if (notifyOnChange) {
@@ -322,6 +409,19 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
         this.dropDownResource = resource;
     }
 
+    /**
+     * Sets how long {@link #filter(CharSequence)} waits for further requests before filtering.
+     *
+     * @param millis The delay in milliseconds.
+     */
+    public void setFilterDelay(final long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("millis must not be negative.");
+        }
+
+        filterDelay = millis;
+    }
+
     /**
      * Control whether methods that change the list ({@link #add}, {@link #insert}, {@link #remove},
      * {@link #clear}) automatically call {@link #notifyDataSetChanged}.  If set to false, caller must
@@ -343,10 +443,10 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
     public void sort(final Comparator<? super DetailsItem> comparator) {
         synchronized (lock) {
             if (originalItems != null) {
-                Collections.sort(originalItems, comparator);
+                originalItems = originalItems.sorted(comparator);
             }
             else {
-                Collections.sort(items, comparator);
+                items = items.sorted(comparator);
             }
         }
         if (notifyOnChange) {
@@ -392,66 +492,106 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
      *
      */
     private class DetailsItemFilter extends Filter {
+        private DetailsItemIndex index;
+        private int lastGeneration;
+        private String lastPrefix;
+        private PersistentList<DetailsItem> lastResults;
+        private PersistentList<DetailsItem> lastSource;
+
         @Override
         protected FilterResults performFiltering(final CharSequence prefix) {
-            final FilterResults results = new FilterResults();
+            final int generation = filterGeneration;
+            final DetailsItemResults results = new DetailsItemResults(generation);
+            final PersistentList<DetailsItem> values;
+            final DetailsItemIndex.Cancellation cancellation = new DetailsItemIndex.Cancellation() {
+                @Override
+                public boolean isCancelled() {
+                    return generation != filterGeneration;
+                }
+            };
+
+            // a pass started by Filter.filter directly is timed from now
+            results.requestTime = generation != lastGeneration ? filterRequestTime : System.nanoTime();
+            lastGeneration = generation;
 
-            if (originalItems == null) {
-                synchronized (lock) {
-                    originalItems = new DetailsItemList(items);
+            synchronized (lock) {
+                if (originalItems == null) {
+                    originalItems = items;
                 }
+
+                values = originalItems;
             }
 
             if (prefix == null || prefix.length() == 0) {
-                final DetailsItemList list;
-
-                synchronized (lock) {
-                    list = new DetailsItemList(originalItems);
-                }
+                results.values = values;
+                results.count = values.size();
 
-                results.values = list;
-                results.count = list.size();
+                lastPrefix = null;
+                lastResults = null;
             }
             else {
-                final ArrayList<DetailsItem> values;
                 final String prefixString = StringUtils.toLowerCase(prefix.toString());
 
-                synchronized (lock) {
-                    values = new ArrayList<DetailsItem>(originalItems);
+                if (index == null || !index.isCurrent(values)) {
+                    lastResults = null;
+
+                    try {
+                        index = new DetailsItemIndex(values, cancellation);
+                    }
+                    catch (final CancellationException ex) {
+                        index = null;
+
+                        return results;
+                    }
                 }
 
-                final ArrayList<DetailsItem> newValues = CollectionUtils.newArrayList();
+                final PersistentList<DetailsItem> newValues;
 
-                for (final DetailsItem value : values) {
-                    final String valueText = StringUtils.toLowerCase(value.toString());
+                if (lastResults != null && lastSource == values && prefixString.startsWith(lastPrefix)
+                    && lastResults.size() <= index.count(prefixString)) {
+                    newValues = refine(lastResults, prefixString, generation);
+                    results.isRefined = true;
+                }
+                else {
+                    newValues = index.find(prefixString, cancellation);
+                }
 
-                    // First match against the whole, non-split value
-                    if (valueText.startsWith(prefixString)) {
-                        newValues.add(value);
-                    }
-                    else {
-                        final String[] words = valueText.split(" ");
-
-                        // Start at index 0, in case valueText starts with space(s)
-                        for (final String word : words) {
-                            if (word.startsWith(prefixString)) {
-                                newValues.add(value);
-                                break;
-                            }
-                        }
-                    }
+                if (newValues == null) {
+                    return results;
                 }
 
                 results.values = newValues;
                 results.count = newValues.size();
+
+                lastPrefix = prefixString;
+                lastResults = newValues;
+                lastSource = values;
             }
 
             return results;
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         protected void publishResults(final CharSequence constraint, final FilterResults results) {
-            items = (DetailsItemList) results.values;
+            if (!(results instanceof DetailsItemResults)) {
+                return;
+            }
+
+            final DetailsItemResults detailsResults = (DetailsItemResults) results;
+
+            if (detailsResults.values == null || detailsResults.generation != filterGeneration) {
+                return;
+            }
+
+            items = (PersistentList<DetailsItem>) results.values;
+            filterLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - detailsResults.requestTime);
+
+            Logger.event(LogLevels.DEBUG, TAG, "details_filter")
+                  .put("millis", filterLatency)
+                  .put("count", results.count)
+                  .put("refined", detailsResults.isRefined)
+                  .log();
 
             if (results.count > 0) {
                 notifyDataSetChanged();
@@ -460,5 +600,40 @@ public class DetailsAdapter extends BaseAdapter implements Filterable {
                 notifyDataSetInvalidated();
             }
         }
+
+        /**
+         * Narrows the results of a shorter prefix.
+         *
+         * @return The matching items, or null if a newer request was made.
+         */
+        private PersistentList<DetailsItem> refine(final PersistentList<DetailsItem> previous, final String prefix,
+                                                   final int generation) {
+            final ArrayList<DetailsItem> list = CollectionUtils.newArrayList(previous.size());
+            int checked = 0;
+
+            for (final DetailsItem item : previous) {
+                if (++checked % CANCEL_CHECK_INTERVAL == 0 && generation != filterGeneration) {
+                    return null;
+                }
+                if (item.getSearchKey().matches(prefix)) {
+                    list.add(item);
+                }
+            }
+
+            return PersistentList.of(list);
+        }
+
+        /**
+         * The results of a single filter pass.
+         */
+        private class DetailsItemResults extends FilterResults {
+            final int generation;
+            boolean isRefined;
+            long requestTime;
+
+            DetailsItemResults(final int generation) {
+                this.generation = generation;
+            }
+        }
     }
 }
\ No newline at end of file
@@ -22,8 +22,14 @@
 
 package com.dabay6.libraries.androidshared.adapters;
 
+import com.dabay6.libraries.androidshared.util.StringUtils;
+
 /**
  * DetailsItem
+ * <p>
+ * The lower case text used by {@link DetailsAdapter} filtering, the label followed by the data, is computed once and
+ * cached until the label or data changes.
+ * </p>
  *
  * @author Remel Pugh
  * @version 1.0
@@ -32,6 +38,7 @@ package com.dabay6.libraries.androidshared.adapters;
 public class DetailsItem {
     private String data;
     private String label;
+    private volatile SearchKey searchKey;
 
     /**
      * @param label
@@ -54,6 +61,7 @@ public class DetailsItem {
      */
     public void setData(final String data) {
         this.data = data;
+        searchKey = null;
     }
 
     /**
@@ -68,5 +76,86 @@ public class DetailsItem {
      */
     public void setLabel(final String label) {
         this.label = label;
+        searchKey = null;
+    }
+
+    /**
+     * Retrieves the lower case form of the label and data, separated by a space, and the offsets of its words,
+     * computing them if the item has changed since they were last used.
+     *
+     * @return The {@link SearchKey} of the item.
+     */
+    SearchKey getSearchKey() {
+        SearchKey key = searchKey;
+
+        if (key == null) {
+            final String text;
+
+            if (label == null) {
+                text = data == null ? "" : data;
+            }
+            else {
+                text = data == null ? label : label + " " + data;
+            }
+
+            key = new SearchKey(StringUtils.toLowerCase(text));
+            searchKey = key;
+        }
+
+        return key;
+    }
+
+    /**
+     * The lower case text of an item and the offsets at which its words start. Words are separated by single spaces,
+     * so the first word always starts at 0.
+     */
+    static final class SearchKey {
+        final String text;
+        final int[] wordStarts;
+
+        SearchKey(final String text) {
+            final int length = text.length();
+            int count = 1;
+
+            for (int i = 0; i < length - 1; i++) {
+                if (text.charAt(i) == ' ') {
+                    count += 1;
+                }
+            }
+
+            this.text = text;
+            wordStarts = new int[count];
+
+            for (int i = 0, word = 1; word < count; i++) {
+                if (text.charAt(i) == ' ') {
+                    wordStarts[word++] = i + 1;
+                }
+            }
+        }
+
+        /**
+         * Determines whether the text, or any word of it, starts with the prefix. A prefix containing a space only
+         * matches the start of the text.
+         *
+         * @param prefix The lower case prefix.
+         *
+         * @return True if the prefix matches, otherwise false.
+         */
+        boolean matches(final String prefix) {
+            if (text.startsWith(prefix)) {
+                return true;
+            }
+            if (prefix.indexOf(' ') >= 0) {
+                return false;
+            }
+
+            for (int i = 1; i < wordStarts.length; i++) {
+                if (text.startsWith(prefix, wordStarts[i])) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
     }
 }
\ No newline at end of file
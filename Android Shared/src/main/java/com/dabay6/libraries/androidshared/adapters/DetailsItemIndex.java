@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import com.dabay6.libraries.androidshared.adapters.DetailsItem.SearchKey;
+import com.dabay6.libraries.androidshared.util.CollectionUtils;
+import com.dabay6.libraries.androidshared.util.collections.PersistentList;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * DetailsItemIndex
+ * <p>
+ * A prefix index over the words of a list of {@link DetailsItem}. Every word of every item is sorted, which makes the
+ * index an array form of a prefix trie: the words starting with a prefix are a contiguous range found by two binary
+ * searches, so a lookup costs O(log w) plus the number of matching words rather than a pass over all of the text.
+ * </p>
+ * <p>
+ * A prefix containing a space can only match the start of an item's text, so it is answered by checking the cached
+ * text of each item instead.
+ * </p>
+ * <p>
+ * An index belongs to a single {@link PersistentList}. Use {@link #isCurrent(PersistentList)} to check whether the
+ * list has been replaced or one of its items changed since the index was built.
+ * </p>
+ * <p>
+ * Building the index and answering a lookup both check a {@link Cancellation} as they go, so a pass superseded by a
+ * newer request stops early.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+final class DetailsItemIndex {
+    private final static int CANCEL_CHECK_MASK = 1023;
+    private final static int HEAD_LENGTH = 3;
+    private final int[] entryItems;
+    private final int[] entryOffsets;
+    private final SearchKey[] keys;
+    private final PersistentList<DetailsItem> source;
+
+    /**
+     * @param source The items to index.
+     */
+    DetailsItemIndex(final PersistentList<DetailsItem> source) {
+        this(source, null);
+    }
+
+    /**
+     * @param source       The items to index.
+     * @param cancellation Checked while the index is built, or null.
+     *
+     * @throws CancellationException if the cancellation was signalled before the index was complete.
+     */
+    DetailsItemIndex(final PersistentList<DetailsItem> source, final Cancellation cancellation) {
+        final int size = source.size();
+        int count = 0;
+        int index = 0;
+
+        this.source = source;
+        keys = new SearchKey[size];
+
+        for (final DetailsItem item : source) {
+            final SearchKey key = item.getSearchKey();
+
+            checkCancelled(cancellation, index);
+            keys[index++] = key;
+            count += key.wordStarts.length;
+        }
+
+        int[] items = new int[count];
+        int[] offsets = new int[count];
+        long[] heads = new long[count];
+        int entry = 0;
+
+        for (int i = 0; i < size; i++) {
+            checkCancelled(cancellation, i);
+
+            for (final int offset : keys[i].wordStarts) {
+                items[entry] = i;
+                offsets[entry] = offset;
+                heads[entry] = head(keys[i].text, offset);
+                entry += 1;
+            }
+        }
+
+        // merge sort the entries by their word, carrying the three arrays together
+        int[] otherItems = new int[count];
+        int[] otherOffsets = new int[count];
+        long[] otherHeads = new long[count];
+
+        for (int width = 1; width < count; width <<= 1) {
+            for (int low = 0; low < count; low += width << 1) {
+                final int middle = Math.min(low + width, count);
+                final int high = Math.min(low + (width << 1), count);
+                int left = low;
+                int right = middle;
+
+                for (int out = low; out < high; out++) {
+                    final int from;
+
+                    checkCancelled(cancellation, out);
+
+                    if (left < middle && (right == high || compare(heads[left], items[left], offsets[left],
+                                                                   heads[right], items[right], offsets[right]) <= 0)) {
+                        from = left++;
+                    }
+                    else {
+                        from = right++;
+                    }
+
+                    otherItems[out] = items[from];
+                    otherOffsets[out] = offsets[from];
+                    otherHeads[out] = heads[from];
+                }
+            }
+
+            final int[] swapItems = items;
+            final int[] swapOffsets = offsets;
+            final long[] swapHeads = heads;
+
+            items = otherItems;
+            offsets = otherOffsets;
+            heads = otherHeads;
+            otherItems = swapItems;
+            otherOffsets = swapOffsets;
+            otherHeads = swapHeads;
+        }
+
+        entryItems = items;
+        entryOffsets = offsets;
+    }
+
+    /**
+     * Estimates the work done by {@link #find(String)} for a prefix.
+     *
+     * @param prefix The lower case prefix.
+     *
+     * @return The number of words starting with the prefix, or the number of items if the prefix contains a space.
+     */
+    int count(final String prefix) {
+        if (prefix.indexOf(' ') >= 0) {
+            return keys.length;
+        }
+
+        return search(prefix, true) - search(prefix, false);
+    }
+
+    /**
+     * Finds the items whose text, or any word of it, starts with the prefix. Items are returned in their original
+     * order.
+     *
+     * @param prefix The lower case prefix.
+     *
+     * @return The matching items.
+     */
+    PersistentList<DetailsItem> find(final String prefix) {
+        return find(prefix, null);
+    }
+
+    /**
+     * Finds the items whose text, or any word of it, starts with the prefix. Items are returned in their original
+     * order.
+     *
+     * @param prefix       The lower case prefix.
+     * @param cancellation Checked while the items are collected, or null.
+     *
+     * @return The matching items, or null if the cancellation was signalled.
+     */
+    PersistentList<DetailsItem> find(final String prefix, final Cancellation cancellation) {
+        final BitSet matches = new BitSet(keys.length);
+
+        if (prefix.indexOf(' ') >= 0) {
+            for (int i = 0; i < keys.length; i++) {
+                if (isCancelled(cancellation, i)) {
+                    return null;
+                }
+                if (keys[i].matches(prefix)) {
+                    matches.set(i);
+                }
+            }
+        }
+        else {
+            final int high = search(prefix, true);
+
+            for (int i = search(prefix, false); i < high; i++) {
+                if (isCancelled(cancellation, i)) {
+                    return null;
+                }
+                matches.set(entryItems[i]);
+            }
+        }
+
+        final List<DetailsItem> list = CollectionUtils.newList(matches.cardinality());
+
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            if (isCancelled(cancellation, list.size())) {
+                return null;
+            }
+            list.add(source.get(i));
+        }
+
+        return PersistentList.of(list);
+    }
+
+    /**
+     * Determines whether the index still describes the items.
+     *
+     * @param items The items to check.
+     *
+     * @return True if the index was built from the same list and none of its items have changed, otherwise false.
+     */
+    boolean isCurrent(final PersistentList<DetailsItem> items) {
+        if (items != source) {
+            return false;
+        }
+
+        int index = 0;
+
+        for (final DetailsItem item : items) {
+            if (item.getSearchKey() != keys[index++]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @throws CancellationException if the cancellation has been signalled; checked every 1024 steps.
+     */
+    private static void checkCancelled(final Cancellation cancellation, final int step) {
+        if (isCancelled(cancellation, step)) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Compares two words. A word ends at the next space or at the end of the text. The packed heads of the words
+     * decide most comparisons without reading the text.
+     */
+    private int compare(final long head1, final int item1, final int offset1, final long head2, final int item2,
+                        final int offset2) {
+        if (head1 != head2) {
+            return head1 < head2 ? -1 : 1;
+        }
+
+        final String text1 = keys[item1].text;
+        final String text2 = keys[item2].text;
+        final int length1 = text1.length();
+        final int length2 = text2.length();
+
+        for (int i = offset1, j = offset2; ; i++, j++) {
+            final boolean isEnd1 = i == length1 || text1.charAt(i) == ' ';
+            final boolean isEnd2 = j == length2 || text2.charAt(j) == ' ';
+
+            if (isEnd1 || isEnd2) {
+                return isEnd1 ? (isEnd2 ? 0 : -1) : 1;
+            }
+
+            final int difference = text1.charAt(i) - text2.charAt(j);
+
+            if (difference != 0) {
+                return difference;
+            }
+        }
+    }
+
+    /**
+     * Compares the word of an entry, cut to the length of the prefix, with the prefix.
+     */
+    private int comparePrefix(final int entry, final String prefix) {
+        final String text = keys[entryItems[entry]].text;
+        final int length = text.length();
+        final int prefixLength = prefix.length();
+
+        for (int i = entryOffsets[entry], j = 0; j < prefixLength; i++, j++) {
+            if (i == length || text.charAt(i) == ' ') {
+                return -1;
+            }
+
+            final int difference = text.charAt(i) - prefix.charAt(j);
+
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Packs the first {@link #HEAD_LENGTH} characters of a word into a long that orders the same way as the words.
+     * Missing characters are packed as zero.
+     */
+    private static long head(final String text, final int offset) {
+        final int length = text.length();
+        long head = 0;
+
+        for (int i = 0, index = offset; i < HEAD_LENGTH; i++, index++) {
+            head <<= 16;
+
+            if (index < length) {
+                final char c = text.charAt(index);
+
+                if (c == ' ') {
+                    index = length;
+                }
+                else {
+                    head |= c;
+                }
+            }
+        }
+
+        return head;
+    }
+
+    /**
+     * @return true if the cancellation has been signalled; only checked every 1024 steps.
+     */
+    private static boolean isCancelled(final Cancellation cancellation, final int step) {
+        return cancellation != null && (step & CANCEL_CHECK_MASK) == 0 && cancellation.isCancelled();
+    }
+
+    /**
+     * @return the first entry not before the prefix, or, when <code>isUpper</code> is set, the first entry after
+     * every entry starting with the prefix.
+     */
+    private int search(final String prefix, final boolean isUpper) {
+        int low = 0;
+        int high = entryItems.length;
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final int result = comparePrefix(middle, prefix);
+
+            if (result < 0 || (isUpper && result == 0)) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Tells a long running index operation that its result is no longer wanted.
+     */
+    interface Cancellation {
+        /**
+         * @return True if the operation should stop, otherwise false.
+         */
+        boolean isCancelled();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import android.R.id;
+import android.R.layout;
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.dabay6.libraries.androidshared.view.ViewsFinder;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * DetailsRecyclerAdapter
+ * <p>
+ * The {@link RecyclerView} counterpart of {@link DetailsAdapter}. Items are identified by instance, so replacing the
+ * items with a list that shares instances with the current one only touches the rows that differ.
+ * </p>
+ * <p>
+ * Rows are compared with the label and data they were last bound with, not with the old item, because an item
+ * edited through {@link DetailsItem#setLabel(String)} or {@link DetailsItem#setData(String)} is the old item as
+ * well. Call {@link #refresh()} after editing items in place to rebind the rows that changed.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class DetailsRecyclerAdapter extends BaseRecyclerAdapter<DetailsItem, DetailsRecyclerAdapter.ViewHolder> {
+    private final BoundContents boundContents;
+    private final Context context;
+    private final LayoutInflater inflater;
+    private final int resource;
+    private final int[] textViewResourceId;
+
+    /**
+     * @param context The current context.
+     */
+    public DetailsRecyclerAdapter(final Context context) {
+        this(context, new DetailsItemList());
+    }
+
+    /**
+     * @param context The current context.
+     * @param data    The {@link DetailsItem} to represent in the {@link RecyclerView}.
+     */
+    public DetailsRecyclerAdapter(final Context context, final DetailsItemList data) {
+        this(context, data, layout.simple_list_item_2, new int[]{id.text1, id.text2});
+    }
+
+    /**
+     * @param context            The current context.
+     * @param data               The {@link DetailsItem} to represent in the {@link RecyclerView}.
+     * @param resource           The resource ID for a layout file containing a layout to use when
+     *                           instantiating views.
+     * @param textViewResourceId The resource IDs for a layout file containing 2 TextView to use when
+     *                           instantiating views.
+     */
+    public DetailsRecyclerAdapter(final Context context, final DetailsItemList data, final int resource,
+                                  final int[] textViewResourceId) {
+        this(context, data, resource, textViewResourceId, new BoundContents());
+    }
+
+    private DetailsRecyclerAdapter(final Context context, final DetailsItemList data, final int resource,
+                                   final int[] textViewResourceId, final BoundContents boundContents) {
+        super(boundContents, data);
+
+        this.boundContents = boundContents;
+        this.context = context;
+        inflater = LayoutInflater.from(context);
+        this.resource = resource;
+        this.textViewResourceId = textViewResourceId;
+    }
+
+    /**
+     * Returns the context associated with this adapter.
+     *
+     * @return The Context associated with this adapter.
+     */
+    public Context getContext() {
+        return context;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onBindViewHolder(final ViewHolder holder, final int position) {
+        final DetailsItem item = getItem(position);
+
+        holder.data.setText(item.getData());
+        holder.label.setText(item.getLabel());
+        boundContents.put(item);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ViewHolder onCreateViewHolder(final ViewGroup parent, final int viewType) {
+        final View view = inflater.inflate(resource, parent, false);
+        final ViewsFinder finder = new ViewsFinder(view);
+        final ViewHolder holder = new ViewHolder(view);
+
+        holder.label = finder.find(textViewResourceId[0]);
+        holder.data = finder.find(textViewResourceId[1]);
+
+        return holder;
+    }
+
+    /**
+     * Remembers the label and data each item was last bound with, and compares new items against them.
+     */
+    private final static class BoundContents implements ItemDiffCallback<DetailsItem> {
+        private final Map<DetailsItem, String[]> contents =
+                Collections.synchronizedMap(new WeakHashMap<DetailsItem, String[]>());
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean areContentsTheSame(final DetailsItem oldItem, final DetailsItem newItem) {
+            final String[] bound = contents.get(oldItem);
+
+            // a row that was never bound shows nothing yet, so only a different item needs it bound
+            if (bound == null) {
+                return TextUtils.equals(oldItem.getLabel(), newItem.getLabel())
+                       && TextUtils.equals(oldItem.getData(), newItem.getData());
+            }
+
+            return TextUtils.equals(bound[0], newItem.getLabel()) && TextUtils.equals(bound[1], newItem.getData());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object getItemKey(final DetailsItem item) {
+            return item;
+        }
+
+        void put(final DetailsItem item) {
+            contents.put(item, new String[]{item.getLabel(), item.getData()});
+        }
+    }
+
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        public TextView data;
+        public TextView label;
+
+        public ViewHolder(final View itemView) {
+            super(itemView);
+        }
+    }
+}
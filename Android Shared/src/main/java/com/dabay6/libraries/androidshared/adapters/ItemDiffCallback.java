@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+/**
+ * ItemDiffCallback
+ * <p>
+ * Describes how {@link ListDiff} identifies and compares the items of two lists.
+ * </p>
+ *
+ * @param <T> the type of the items.
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public interface ItemDiffCallback<T> {
+    /**
+     * Determines whether two items that represent the same row also look the same, so the row does not have to be
+     * bound again.
+     *
+     * @param oldItem The item from the old list.
+     * @param newItem The item from the new list.
+     *
+     * @return True if the contents are the same, otherwise false.
+     */
+    boolean areContentsTheSame(T oldItem, T newItem);
+
+    /**
+     * Retrieves the key identifying the row an item represents. Items with equal keys are the same row, and the key
+     * is used to derive a stable id for the row. Keys must implement {@link Object#equals(Object)} and {@link
+     * Object#hashCode()}.
+     *
+     * @param item The item.
+     *
+     * @return The key of the item.
+     */
+    Object getItemKey(T item);
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import android.support.v7.widget.RecyclerView;
+
+import com.dabay6.libraries.androidshared.util.CollectionUtils;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ListDiff
+ * <p>
+ * The changes that turn one list into another, expressed as the insert, remove, move and change notifications a
+ * {@link RecyclerView.Adapter} understands. Items are matched by key using Myers' O((N+M)D) algorithm after the
+ * common head and tail of the lists have been skipped; unmatched items whose keys appear on both sides become moves.
+ * Matched items whose contents differ are reported as changed.
+ * </p>
+ * <p>
+ * Calculating a diff does not touch the adapter, so it can be done on a background thread. The result must be
+ * dispatched on the main thread, immediately after the adapter starts returning the new items.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public final class ListDiff {
+    private final static int CHANGE = 0;
+    private final static int INSERT = 1;
+    private final static int MAX_DIFFERENCES = 1024;
+    private final static int MOVE = 2;
+    private final static int REMOVE = 3;
+    private final boolean isDataSetChanged;
+    private int[] operations = new int[24];
+    private int size;
+
+    private ListDiff(final boolean isDataSetChanged) {
+        this.isDataSetChanged = isDataSetChanged;
+    }
+
+    /**
+     * Calculates the changes between two lists. When the lists differ by more than {@link #MAX_DIFFERENCES} inserted
+     * and removed items the diff simply reports that the data set changed.
+     *
+     * @param oldItems The current items.
+     * @param newItems The items that replace them.
+     * @param callback Identifies and compares the items.
+     * @param <T>      the type of the items.
+     *
+     * @return The changes.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ListDiff calculate(final List<? extends T> oldItems, final List<? extends T> newItems,
+                                         final ItemDiffCallback<? super T> callback) {
+        final Object[] oldArray = oldItems.toArray();
+        final Object[] newArray = newItems.toArray();
+        final int oldSize = oldArray.length;
+        final int newSize = newArray.length;
+        final Object[] oldKeys = new Object[oldSize];
+        final Object[] newKeys = new Object[newSize];
+
+        for (int i = 0; i < oldSize; i++) {
+            oldKeys[i] = callback.getItemKey((T) oldArray[i]);
+        }
+        for (int i = 0; i < newSize; i++) {
+            newKeys[i] = callback.getItemKey((T) newArray[i]);
+        }
+
+        final int[] oldToNew = new int[oldSize];
+        final int[] newToOld = new int[newSize];
+        int head = 0;
+        int tail = 0;
+
+        while (head < oldSize && head < newSize && equal(oldKeys[head], newKeys[head])) {
+            oldToNew[head] = head;
+            newToOld[head] = head;
+            head += 1;
+        }
+        while (tail < oldSize - head && tail < newSize - head
+               && equal(oldKeys[oldSize - 1 - tail], newKeys[newSize - 1 - tail])) {
+            oldToNew[oldSize - 1 - tail] = newSize - 1 - tail;
+            newToOld[newSize - 1 - tail] = oldSize - 1 - tail;
+            tail += 1;
+        }
+
+        if (!match(oldKeys, newKeys, head, oldSize - tail, newSize - tail, oldToNew, newToOld)) {
+            return new ListDiff(true);
+        }
+
+        final boolean[] isMoved = findMoves(oldKeys, newKeys, oldToNew, newToOld);
+        final ListDiff diff = new ListDiff(false);
+
+        diff.record(oldToNew, newToOld, isMoved);
+
+        for (int i = 0; i < newSize; i++) {
+            final int from = newToOld[i];
+
+            if (from >= 0 && !callback.areContentsTheSame((T) oldArray[from], (T) newArray[i])) {
+                diff.add(CHANGE, i, 1);
+            }
+        }
+
+        return diff;
+    }
+
+    /**
+     * Sends the changes to an adapter.
+     *
+     * @param adapter The adapter, which must already return the new items.
+     */
+    public void dispatchTo(final RecyclerView.Adapter<?> adapter) {
+        if (isDataSetChanged) {
+            adapter.notifyDataSetChanged();
+
+            return;
+        }
+
+        for (int i = 0; i < size; i += 3) {
+            final int position = operations[i + 1];
+            final int value = operations[i + 2];
+
+            switch (operations[i]) {
+                case CHANGE:
+                    adapter.notifyItemRangeChanged(position, value);
+                    break;
+                case INSERT:
+                    adapter.notifyItemRangeInserted(position, value);
+                    break;
+                case MOVE:
+                    adapter.notifyItemMoved(position, value);
+                    break;
+                case REMOVE:
+                    adapter.notifyItemRangeRemoved(position, value);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return true if the lists are the same, otherwise false.
+     */
+    public boolean isEmpty() {
+        return !isDataSetChanged && size == 0;
+    }
+
+    /**
+     * @return true if the lists were too different to describe item by item, otherwise false.
+     */
+    public boolean isDataSetChanged() {
+        return isDataSetChanged;
+    }
+
+    private static boolean equal(final Object key1, final Object key2) {
+        return key1 == null ? key2 == null : key1.equals(key2);
+    }
+
+    /**
+     * Pairs the unmatched old and new items that share a key.
+     *
+     * @return Flags marking the old items that moved.
+     */
+    private static boolean[] findMoves(final Object[] oldKeys, final Object[] newKeys, final int[] oldToNew,
+                                       final int[] newToOld) {
+        final boolean[] isMoved = new boolean[oldKeys.length];
+        final Map<Object, ArrayDeque<Integer>> unmatched = CollectionUtils.newHashMap();
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldToNew[i] < 0) {
+                ArrayDeque<Integer> positions = unmatched.get(oldKeys[i]);
+
+                if (positions == null) {
+                    positions = new ArrayDeque<>();
+                    unmatched.put(oldKeys[i], positions);
+                }
+
+                positions.add(i);
+            }
+        }
+
+        if (unmatched.isEmpty()) {
+            return isMoved;
+        }
+
+        for (int i = 0; i < newKeys.length; i++) {
+            if (newToOld[i] < 0) {
+                final ArrayDeque<Integer> positions = unmatched.get(newKeys[i]);
+
+                if (positions != null && !positions.isEmpty()) {
+                    final int from = positions.poll();
+
+                    oldToNew[from] = i;
+                    newToOld[i] = from;
+                    isMoved[from] = true;
+                }
+            }
+        }
+
+        return isMoved;
+    }
+
+    /**
+     * Matches the old items in [start, oldEnd) with the new items in [start, newEnd) by key, marking unmatched items
+     * with -1.
+     *
+     * @return false if the ranges differ by more than {@link #MAX_DIFFERENCES} items, otherwise true.
+     */
+    private static boolean match(final Object[] oldKeys, final Object[] newKeys, final int start, final int oldEnd,
+                                 final int newEnd, final int[] oldToNew, final int[] newToOld) {
+        final int n = oldEnd - start;
+        final int m = newEnd - start;
+        final int max = n + m;
+        final int[] v = new int[2 * max + 3];
+        final int offset = max + 1;
+        final List<int[]> trace = CollectionUtils.newArrayList();
+        int distance = -1;
+
+        for (int i = start; i < oldEnd; i++) {
+            oldToNew[i] = -1;
+        }
+        for (int i = start; i < newEnd; i++) {
+            newToOld[i] = -1;
+        }
+
+        // forward pass, keeping the furthest reaching x of every diagonal for each distance
+        for (int d = 0; d <= max && distance < 0; d++) {
+            if (d > MAX_DIFFERENCES) {
+                return false;
+            }
+
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                int y = x - k;
+
+                while (x < n && y < m && equal(oldKeys[start + x], newKeys[start + y])) {
+                    x += 1;
+                    y += 1;
+                }
+
+                v[offset + k] = x;
+
+                if (x >= n && y >= m) {
+                    distance = d;
+                    break;
+                }
+            }
+
+            final int[] snapshot = new int[2 * d + 1];
+
+            System.arraycopy(v, offset - d, snapshot, 0, snapshot.length);
+            trace.add(snapshot);
+        }
+
+        // walk back through the snapshots, recording the diagonal moves as matches
+        int x = n;
+        int y = m;
+
+        for (int d = distance; d > 0; d--) {
+            final int[] previous = trace.get(d - 1);
+            final int k = x - y;
+            final int previousK = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1])
+                                  ? k + 1 : k - 1;
+            final int previousX = previous[previousK + d - 1];
+            final int previousY = previousX - previousK;
+            final int snakeX = previousK == k + 1 ? previousX : previousX + 1;
+
+            while (x > snakeX) {
+                x -= 1;
+                y -= 1;
+                oldToNew[start + x] = start + y;
+                newToOld[start + y] = start + x;
+            }
+
+            x = previousX;
+            y = previousY;
+        }
+        while (x > 0 && y > 0) {
+            x -= 1;
+            y -= 1;
+            oldToNew[start + x] = start + y;
+            newToOld[start + y] = start + x;
+        }
+
+        return true;
+    }
+
+    private void add(final int type, final int position, final int value) {
+        if (size > 0 && operations[size - 3] == type) {
+            final int last = size - 3;
+
+            switch (type) {
+                case CHANGE:
+                case INSERT:
+                    if (operations[last + 1] + operations[last + 2] == position) {
+                        operations[last + 2] += value;
+
+                        return;
+                    }
+                    break;
+                case REMOVE:
+                    if (position + value == operations[last + 1]) {
+                        operations[last + 1] = position;
+                        operations[last + 2] += value;
+
+                        return;
+                    }
+                    break;
+            }
+        }
+
+        if (size + 3 > operations.length) {
+            final int[] grown = new int[operations.length * 2];
+
+            System.arraycopy(operations, 0, grown, 0, size);
+            operations = grown;
+        }
+
+        operations[size] = type;
+        operations[size + 1] = position;
+        operations[size + 2] = value;
+        size += 3;
+    }
+
+    /**
+     * Records the removals, insertions and moves. Removals are made from the end of the old list so earlier
+     * positions stay valid. The new list is then built from the front: the rows before the current position are
+     * final, and the rows after it are kept in <code>rest</code>, in order. A moved row that is in the way of a
+     * matched row is sent to the end and picked up again when its own position is reached.
+     */
+    private void record(final int[] oldToNew, final int[] newToOld, final boolean[] isMoved) {
+        final int oldSize = oldToNew.length;
+        final int[] rest = new int[oldSize * 2];
+        int first = 0;
+        int last = 0;
+
+        for (int i = oldSize - 1; i >= 0; i--) {
+            if (oldToNew[i] < 0) {
+                add(REMOVE, i, 1);
+            }
+        }
+        for (int i = 0; i < oldSize; i++) {
+            if (oldToNew[i] >= 0) {
+                rest[last++] = i;
+            }
+        }
+
+        for (int position = 0; position < newToOld.length; position++) {
+            final int from = newToOld[position];
+
+            if (from < 0) {
+                add(INSERT, position, 1);
+                continue;
+            }
+
+            if (isMoved[from]) {
+                int index = first;
+
+                while (rest[index] != from) {
+                    index += 1;
+                }
+
+                if (index != first) {
+                    add(MOVE, position + index - first, position);
+                    System.arraycopy(rest, first, rest, first + 1, index - first);
+                }
+            }
+            else {
+                while (rest[first] != from) {
+                    // only moved rows can be ahead of a matched row
+                    add(MOVE, position, position + last - first - 1);
+                    rest[last++] = rest[first++];
+                }
+            }
+
+            first += 1;
+        }
+    }
+}
@@ -33,11 +33,16 @@ import com.dabay6.libraries.androidshared.util.CollectionUtils;
 import com.dabay6.libraries.androidshared.view.ViewsFinder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * SimpleTwoLineAdapter
+ * <p>
+ * Rows are stored in parallel label and data arrays rather than as a map per row. Maps passed to the adapter are
+ * copied into the arrays, and {@link #getItem(int)} builds a map for callers that still expect one.
+ * </p>
  *
  * @author Remel Pugh
  * @version 1.0
@@ -45,10 +50,14 @@ import java.util.Map;
 @SuppressWarnings("unused")
 public class SimpleTwoLineAdapter extends BaseAdapter {
     private final static String DATA_KEY = "Line2";
+    private final static int DEFAULT_CAPACITY = 16;
+    private final static String[] EMPTY = new String[0];
     private final static String LABEL_KEY = "Line1";
     private final LayoutInflater inflater;
     private final int layoutResourceId;
-    private ArrayList<Map<String, String>> items;
+    private String[] data = EMPTY;
+    private String[] labels = EMPTY;
+    private int size;
 
     /**
      * @param context
@@ -73,17 +82,25 @@ public class SimpleTwoLineAdapter extends BaseAdapter {
     public SimpleTwoLineAdapter(final Context context, final ArrayList<Map<String, String>> data,
                                 final int layoutResourceId) {
         inflater = LayoutInflater.from(context);
-        items = data;
         this.layoutResourceId = layoutResourceId;
+
+        if (!CollectionUtils.isEmpty(data)) {
+            append(data);
+        }
     }
 
     /**
      * @param label
      * @param data
      */
-    @SuppressWarnings("unchecked")
     public void add(final String label, final String data) {
-        add(createItem(label, data));
+        ensureCapacity(size + 1);
+
+        labels[size] = label;
+        this.data[size] = data;
+        size += 1;
+
+        notifyDataSetChanged();
     }
 
     /**
@@ -99,12 +116,8 @@ public class SimpleTwoLineAdapter extends BaseAdapter {
      * @param data
      */
     public void add(final ArrayList<Map<String, String>> data) {
-        if (items == null) {
-            items = CollectionUtils.newArrayList();
-        }
-
         if (!CollectionUtils.isEmpty(data)) {
-            items.addAll(data);
+            append(data);
         }
 
         notifyDataSetChanged();
@@ -114,10 +127,11 @@ public class SimpleTwoLineAdapter extends BaseAdapter {
      *
      */
     public void clear() {
-        if (items != null) {
-            items.clear();
-            notifyDataSetChanged();
-        }
+        Arrays.fill(labels, 0, size, null);
+        Arrays.fill(data, 0, size, null);
+        size = 0;
+
+        notifyDataSetChanged();
     }
 
     /**
@@ -134,28 +148,48 @@ public class SimpleTwoLineAdapter extends BaseAdapter {
         return map;
     }
 
+    /**
+     * Makes room for at least the specified number of rows without growing again.
+     *
+     * @param capacity The number of rows.
+     */
+    public void ensureCapacity(final int capacity) {
+        if (capacity > labels.length) {
+            final int length = Math.max(capacity, Math.max(DEFAULT_CAPACITY, labels.length + (labels.length >> 1)));
+
+            labels = Arrays.copyOf(labels, length);
+            data = Arrays.copyOf(data, length);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public int getCount() {
-        if (items == null) {
-            return 0;
-        }
+        return size;
+    }
 
-        return items.size();
+    /**
+     * @param position The position of the row.
+     *
+     * @return The second line of the row.
+     */
+    public String getData(final int position) {
+        return data[position];
     }
 
     /**
-     * {@inheritDoc}
+     * Returns a new map holding the row, in the form created by {@link #createItem(String, String)}. Changes to the
+     * map are not reflected in the adapter.
      */
     @Override
     public Map<String, String> getItem(final int position) {
-        if (items == null || items.size() == 0) {
+        if (size == 0) {
             return null;
         }
 
-        return items.get(position);
+        return createItem(labels[position], data[position]);
     }
 
     /**
@@ -166,6 +200,15 @@ public class SimpleTwoLineAdapter extends BaseAdapter {
         return position;
     }
 
+    /**
+     * @param position The position of the row.
+     *
+     * @return The first line of the row.
+     */
+    public String getLabel(final int position) {
+        return labels[position];
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -173,7 +216,6 @@ public class SimpleTwoLineAdapter extends BaseAdapter {
     public View getView(final int position, View convertView, final ViewGroup parent) {
         final ViewsFinder finder;
         final ViewHolder holder;
-        final Map<String, String> item = getItem(position);
 
         if (convertView == null) {
             holder = new ViewHolder();
@@ -193,12 +235,25 @@ public class SimpleTwoLineAdapter extends BaseAdapter {
             holder = (ViewHolder) convertView.getTag();
         }
 
-        holder.data.setText(item.get(DATA_KEY));
-        holder.label.setText(item.get(LABEL_KEY));
+        holder.data.setText(data[position]);
+        holder.label.setText(labels[position]);
 
         return convertView;
     }
 
+    /**
+     * Copies rows given as maps into the arrays.
+     */
+    private void append(final ArrayList<Map<String, String>> rows) {
+        ensureCapacity(size + rows.size());
+
+        for (final Map<String, String> row : rows) {
+            labels[size] = row.get(LABEL_KEY);
+            data[size] = row.get(DATA_KEY);
+            size += 1;
+        }
+    }
+
     static class ViewHolder {
         public TextView data;
         public TextView label;
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import android.database.Cursor;
+
+/**
+ * SwappableCursorAdapter
+ * <p>
+ * An adapter whose {@link Cursor} can be replaced, letting {@link CursorDataSource} feed both the framework and the
+ * support library cursor adapters.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public interface SwappableCursorAdapter {
+    /**
+     * @return The {@link Cursor} currently shown by the adapter, or null if there is none.
+     */
+    Cursor getCursor();
+
+    /**
+     * Replaces the {@link Cursor} shown by the adapter. The old cursor is returned rather than closed.
+     *
+     * @param newCursor The new {@link Cursor}, or null to show no rows.
+     *
+     * @return The previous {@link Cursor}, or null if there was none.
+     */
+    Cursor swapCursor(final Cursor newCursor);
+}
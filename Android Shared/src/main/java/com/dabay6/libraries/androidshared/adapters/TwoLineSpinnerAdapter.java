@@ -38,10 +38,11 @@ import com.dabay6.libraries.androidshared.view.ViewsFinder;
  * @author Remel Pugh
  */
 @SuppressWarnings("unused")
-public abstract class TwoLineSpinnerAdapter extends CursorAdapter {
+public abstract class TwoLineSpinnerAdapter extends CursorAdapter implements SwappableCursorAdapter {
     private final Context context;
     private final LayoutInflater inflater;
     private int dropDownLayout;
+    private CursorProjection projection;
     private int spinnerLayout;
     private String title;
 
@@ -129,6 +130,13 @@ public abstract class TwoLineSpinnerAdapter extends CursorAdapter {
         setTextViews(cursor, text1, text2);
     }
 
+    /**
+     * @return The {@link CursorProjection} used to read the bound {@link Cursor}, or null if none has been set.
+     */
+    public CursorProjection getProjection() {
+        return projection;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -154,6 +162,20 @@ public abstract class TwoLineSpinnerAdapter extends CursorAdapter {
         this.dropDownLayout = dropDownLayout;
     }
 
+    /**
+     * Sets the {@link CursorProjection} used to read the bound {@link Cursor}. Its column indices are resolved against
+     * the current cursor and again whenever the cursor is swapped.
+     *
+     * @param projection The {@link CursorProjection}.
+     */
+    public void setProjection(final CursorProjection projection) {
+        this.projection = projection;
+
+        if (projection != null) {
+            projection.resolve(getCursor());
+        }
+    }
+
     /**
      * <p>Set the title of the spinner.</p>
      *
@@ -172,6 +194,18 @@ public abstract class TwoLineSpinnerAdapter extends CursorAdapter {
         setTitle(context.getString(resourceId));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cursor swapCursor(final Cursor newCursor) {
+        if (projection != null) {
+            projection.resolve(newCursor);
+        }
+
+        return super.swapCursor(newCursor);
+    }
+
     /**
      * Get the resource id of the title {@link android.widget.TextView}. Default is android.R.id.text1;
      *
@@ -197,6 +231,9 @@ public abstract class TwoLineSpinnerAdapter extends CursorAdapter {
     protected abstract void setDropDownItemText(final Cursor cursor, final TextView text);
 
     /**
+     * Implementations should read columns through {@link #getProjection()} rather than looking them up by name for
+     * every row.
+     *
      * @param cursor
      * @param text1
      * @param text2
@@ -25,14 +25,21 @@ package com.dabay6.libraries.androidshared.app;
 import android.app.Application;
 
 import com.dabay6.libraries.androidshared.enums.LogLevels;
+import com.dabay6.libraries.androidshared.helper.AppHelper;
 import com.dabay6.libraries.androidshared.helper.StrictModeHelper;
+import com.dabay6.libraries.androidshared.helper.preferences.PreferencePreloader;
 import com.dabay6.libraries.androidshared.helper.strictmode.Policy;
 import com.dabay6.libraries.androidshared.interfaces.Injector;
+import com.dabay6.libraries.androidshared.logging.FlightRecorder;
 import com.dabay6.libraries.androidshared.logging.Logger;
 import com.dabay6.libraries.androidshared.modules.ApplicationModule;
+import com.dabay6.libraries.androidshared.util.AccountUtils;
 import com.dabay6.libraries.androidshared.util.CollectionUtils;
 
+import java.io.File;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import dagger.ObjectGraph;
 
@@ -47,7 +54,7 @@ public abstract class ApplicationExtension extends Application implements Inject
     private ObjectGraph applicationGraph;
 
     /**
-     * The application log level.
+     * The application log level. Logging is only enabled when the application is debuggable.
      *
      * @return the application log level.
      */
@@ -85,15 +92,31 @@ public abstract class ApplicationExtension extends Application implements Inject
 
         super.onCreate();
 
+        PreferencePreloader.preload(this, new Callable<Collection<String>>() {
+            @Override
+            public Collection<String> call() {
+                return getPreloadedPreferences();
+            }
+        });
+
         StrictModeHelper.with(this)
                         .setThreadPolicy(Policy.Thread.DetectAll, Policy.Thread.PenaltyLog)
                         .setVmPolicy(Policy.Vm.DetectAll, Policy.Vm.PenaltyLog)
                         .generate();
 
-        Logger.setIsLoggingEnabled(true);
+        Logger.setIsLoggingEnabled(AppHelper.with(this).isDebuggable());
         Logger.setLogLevel(getLogLevel());
         Logger.setTagPrefix(getTagPrefix());
 
+        final int flightRecorderCapacity = getFlightRecorderCapacity();
+
+        if (flightRecorderCapacity > 0) {
+            final FlightRecorder recorder = new FlightRecorder(flightRecorderCapacity);
+
+            recorder.installCrashHandler(new File(new File(getFilesDir(), "logs"), "crash.log"));
+            Logger.setFlightRecorder(recorder);
+        }
+
         modules.add(new ApplicationModule(this));
         modules.addAll(getApplicationModules());
 
@@ -105,4 +128,27 @@ public abstract class ApplicationExtension extends Application implements Inject
      * @return
      */
     protected abstract List<Object> getApplicationModules();
+
+    /**
+     * The names of the preference files, besides the default preferences, loaded in the background when the
+     * application starts. By default these are the per-account preference files.
+     * <p>
+     * Called on a background thread, so it may read the disk.
+     * </p>
+     *
+     * @return the preference file names.
+     */
+    protected List<String> getPreloadedPreferences() {
+        return AccountUtils.getAccountPreferencesNames(this);
+    }
+
+    /**
+     * The number of log events kept in memory, regardless of log level, and written to <code>logs/crash.log</code>
+     * if the application crashes.
+     *
+     * @return the flight recorder capacity, or 0 to disable the flight recorder.
+     */
+    protected int getFlightRecorderCapacity() {
+        return FlightRecorder.DEFAULT_CAPACITY;
+    }
 }
\ No newline at end of file
@@ -41,16 +41,31 @@ import android.widget.CheckBox;
 import android.widget.Checkable;
 import android.widget.CompoundButton;
 import android.widget.CompoundButton.OnCheckedChangeListener;
+import android.widget.ListView;
 
 import com.dabay6.libraries.androidshared.R;
+import com.dabay6.libraries.androidshared.helper.selection.IdSelectionModel;
+import com.dabay6.libraries.androidshared.helper.selection.SelectionModel;
+import com.dabay6.libraries.androidshared.helper.selection.SelectionState;
 import com.dabay6.libraries.androidshared.logging.Logger;
 import com.dabay6.libraries.androidshared.util.AndroidUtils;
+import com.dabay6.libraries.androidshared.util.collections.LongHashSet;
 
+import java.io.File;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * CheckableAdapterHelper
+ * <p>
+ * Selected rows are kept in a {@link SelectionModel}; an {@link IdSelectionModel} is used unless another is set.
+ * {@link #selectAll()}, {@link #selectRange(int, int)} and {@link #invert()} change any number of rows with a single
+ * data set notification and a single action mode title update.
+ * </p>
+ * <p>
+ * Selection changes do not rebind rows. Only the visible rows of the adapter view are updated, by setting their
+ * checked or activated state and the state of their check box, which is looked up once and cached on the row.
+ * </p>
  *
  * @author Remel Pugh
  * @version 1.0
@@ -59,15 +74,17 @@ import java.util.Set;
 public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemClickListener, OnCheckedChangeListener {
     private final static String KEY_SELECTED_ITEM = "UTILS__KEY_SELECTED_ITEM";
     private final static String KEY_SELECTED_ITEMS = "UTILS__KEY_SELECTED_ITEMS";
+    private final static String SPILL_DIRECTORY = "selection";
     private final static String TAG = Logger.makeTag(CheckableAdapterHelper.class);
     private final BaseAdapter baseAdapter;
-    private final Set<Long> selectedItems = new HashSet<Long>();
     private ActionMode actionMode;
     private AdapterView<? super BaseAdapter> adapterView;
     private Boolean hasCheckbox;
     private boolean isDualPane;
     private OnItemClickListener onItemClickListener;
+    private long[] pendingSelectedIds;
     private Long savedSelectedId = null;
+    private SelectionModel selectionModel = new IdSelectionModel();
 
     /**
      * @param adapter
@@ -80,8 +97,8 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
      *
      */
     public void clearSelectedItems() {
-        selectedItems.clear();
-        baseAdapter.notifyDataSetChanged();
+        selectionModel.clear();
+        refreshVisibleRows();
     }
 
     /**
@@ -92,7 +109,7 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
         clearSelectedItems();
 
         if (savedSelectedId != null) {
-            select(savedSelectedId);
+            select(findPosition(savedSelectedId), savedSelectedId);
         }
     }
 
@@ -116,14 +133,28 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
      * @return
      */
     public int getSelectedCount() {
-        return selectedItems.size();
+        return selectionModel.getCount();
     }
 
     /**
      * @return
      */
     public Set<Long> getSelectedItems() {
-        return new HashSet<Long>(selectedItems);
+        final long[] ids = selectionModel.getSelectedIds(baseAdapter);
+        final Set<Long> items = new HashSet<Long>(ids.length * 2);
+
+        for (final long id : ids) {
+            items.add(id);
+        }
+
+        return items;
+    }
+
+    /**
+     * @return The {@link SelectionModel} holding the selected rows.
+     */
+    public SelectionModel getSelectionModel() {
+        return selectionModel;
     }
 
     /**
@@ -136,7 +167,7 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
     public View initializeView(final int position, final View view) {
         if (view instanceof Checkable) {
             final long itemId = baseAdapter.getItemId(position);
-            final boolean isSelected = isChecked(itemId);
+            final boolean isSelected = selectionModel.isSelected(position, itemId);
 
             if (AndroidUtils.isAtLeastHoneycomb()) {
                 view.setActivated(isSelected);
@@ -158,7 +189,16 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
      * @return
      */
     public boolean isChecked(final long itemId) {
-        return selectedItems.contains(itemId);
+        return selectionModel.isSelected(findPosition(itemId), itemId);
+    }
+
+    /**
+     * Selects every unselected row and deselects every selected row.
+     */
+    public void invert() {
+        selectionModel.invert(baseAdapter);
+
+        onSelectionRangeChanged();
     }
 
     /**
@@ -185,6 +225,50 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
         setSelected(itemId, isChecked);
     }
 
+    /**
+     * Call after the adapter's rows have been replaced. A selection captured by {@link #onDataSetSwapping()} is mapped
+     * onto the new rows in a single pass that stops once every selected id has been found; selected ids missing from
+     * the new rows are dropped.
+     */
+    public void onDataSetSwapped() {
+        final long[] selectedIds = pendingSelectedIds;
+
+        pendingSelectedIds = null;
+
+        if (selectedIds == null) {
+            return;
+        }
+
+        final LongHashSet remaining = new LongHashSet(selectedIds.length);
+        final int count = baseAdapter.getCount();
+
+        remaining.addAll(selectedIds);
+        selectionModel.clear();
+
+        for (int position = 0; position < count && !remaining.isEmpty(); position++) {
+            final long itemId = baseAdapter.getItemId(position);
+
+            if (remaining.remove(itemId)) {
+                selectionModel.setSelected(position, itemId, true);
+            }
+        }
+
+        onItemSelectedStateChanged();
+    }
+
+    /**
+     * Call before the adapter's rows are replaced. Selections kept by id carry over unchanged; selections kept by
+     * position are captured as ids so {@link #onDataSetSwapped()} can find the rows again.
+     */
+    public void onDataSetSwapping() {
+        if (selectionModel.usesPositions() && selectionModel.getCount() > 0) {
+            pendingSelectedIds = selectionModel.getSelectedIds(baseAdapter);
+        }
+        else {
+            pendingSelectedIds = null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -195,7 +279,7 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
             if (isDualPane) {
                 savedSelectedId = id;
                 clearSelectedItems();
-                toggle(baseAdapter.getItemId(position));
+                toggle(position, baseAdapter.getItemId(position));
             }
 
             if (onItemClickListener != null) {
@@ -217,7 +301,7 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
             startActionMode();
         }
 
-        toggle(baseAdapter.getItemId(position));
+        toggle(position, baseAdapter.getItemId(position));
 
         return true;
     }
@@ -230,18 +314,15 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
             return;
         }
 
-        selectedItems.clear();
-
-        if (savedInstanceState.containsKey(KEY_SELECTED_ITEMS)) {
-            final long[] items = savedInstanceState.getLongArray(KEY_SELECTED_ITEMS);
+        long[] items = SelectionState.restore(savedInstanceState, KEY_SELECTED_ITEMS);
 
-            if (items != null) {
-                for (final long id : items) {
-                    selectedItems.add(id);
-                }
-            }
+        if (items == null && savedInstanceState.containsKey(KEY_SELECTED_ITEMS)) {
+            // state saved before the compact encoding
+            items = savedInstanceState.getLongArray(KEY_SELECTED_ITEMS);
         }
 
+        selectionModel.restore(items);
+
         if (savedInstanceState.containsKey(KEY_SELECTED_ITEM)) {
             savedSelectedId = savedInstanceState.getLong(KEY_SELECTED_ITEM);
         }
@@ -251,19 +332,36 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
      * @param savedInstanceState
      */
     public void onSaveInstanceState(final Bundle savedInstanceState) {
-        final long[] items = new long[selectedItems.size()];
-        int index = 0;
-
         if (isDualPane && savedSelectedId != null) {
             savedInstanceState.putLong(KEY_SELECTED_ITEM, savedSelectedId);
         }
 
-        for (final Long id : selectedItems) {
-            items[index] = id;
-            index += 1;
+        final File directory = adapterView == null ? null : new File(getContext().getCacheDir(), SPILL_DIRECTORY);
+
+        SelectionState.save(savedInstanceState, KEY_SELECTED_ITEMS, selectionModel.save(), directory);
+    }
+
+    /**
+     * Selects every row.
+     */
+    public void selectAll() {
+        selectRange(0, baseAdapter.getCount());
+    }
+
+    /**
+     * Selects a range of rows.
+     *
+     * @param start The position of the first row.
+     * @param end   The position after the last row.
+     */
+    public void selectRange(final int start, final int end) {
+        if (start < 0 || end > baseAdapter.getCount() || start > end) {
+            throw new IllegalArgumentException("Invalid range " + start + " to " + end + ".");
         }
 
-        savedInstanceState.putLongArray(KEY_SELECTED_ITEMS, items);
+        selectionModel.setRangeSelected(baseAdapter, start, end, true);
+
+        onSelectionRangeChanged();
     }
 
     /**
@@ -278,7 +376,7 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
         adapterView.setOnItemClickListener(this);
         adapterView.setAdapter(baseAdapter);
 
-        if (!selectedItems.isEmpty()) {
+        if (selectionModel.getCount() > 0) {
             startActionMode();
             onItemSelectedStateChanged();
         }
@@ -296,19 +394,29 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
      * @param isChecked
      */
     public void setSelected(final long itemId, final boolean isChecked) {
-        if (isChecked) {
-            select(itemId);
-        }
-        else {
-            unSelect(itemId);
+        setSelected(findPosition(itemId), itemId, isChecked);
+    }
+
+    /**
+     * Replaces the {@link SelectionModel}. The current selection is discarded.
+     *
+     * @param selectionModel The new model.
+     */
+    public void setSelectionModel(final SelectionModel selectionModel) {
+        if (selectionModel == null) {
+            throw new IllegalArgumentException("selectionModel cannot be null.");
         }
+
+        this.selectionModel = selectionModel;
+
+        clearSelectedItems();
     }
 
     /**
      * @param itemId
      */
     public void toggle(final long itemId) {
-        setSelected(itemId, !isChecked(itemId));
+        toggle(findPosition(itemId), itemId);
     }
 
     private void ensureActivity() {
@@ -325,6 +433,25 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
         throw new RuntimeException("ListView must belong to an activity which subclasses SherlockActivity");
     }
 
+    /**
+     * Finds the position of a row when the selection model needs it.
+     *
+     * @return The position of the row, or -1 if it was not found or is not needed.
+     */
+    private int findPosition(final long itemId) {
+        if (selectionModel.usesPositions()) {
+            final int count = baseAdapter.getCount();
+
+            for (int position = 0; position < count; position++) {
+                if (baseAdapter.getItemId(position) == itemId) {
+                    return position;
+                }
+            }
+        }
+
+        return -1;
+    }
+
     private boolean hasCheckboxView(final View view) {
         if (hasCheckbox == null) {
             if (!(view instanceof ViewGroup)) {
@@ -339,12 +466,31 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
         return hasCheckbox;
     }
 
+    /**
+     * @return the number of header rows shown before the adapter's rows.
+     */
+    private int getHeaderCount() {
+        if (adapterView instanceof ListView) {
+            return ((ListView) adapterView).getHeaderViewsCount();
+        }
+
+        return 0;
+    }
+
     private void initializeCheckbox(final int position, final ViewGroup view) {
-        final CheckBox checkBox = (CheckBox) view.findViewById(android.R.id.checkbox);
-        final boolean selected = isChecked(position);
+        CheckBox checkBox = (CheckBox) view.getTag(R.id.util__checkable_checkbox);
+
+        if (checkBox == null) {
+            checkBox = (CheckBox) view.findViewById(android.R.id.checkbox);
+            view.setTag(R.id.util__checkable_checkbox, checkBox);
+        }
 
-        checkBox.setTag(position);
-        checkBox.setChecked(selected);
+        final long itemId = baseAdapter.getItemId(position);
+
+        // detach the listener so that restoring the state is not reported as a change
+        checkBox.setOnCheckedChangeListener(null);
+        checkBox.setTag(itemId);
+        checkBox.setChecked(selectionModel.isSelected(position, itemId));
         checkBox.setOnCheckedChangeListener(this);
     }
 
@@ -367,19 +513,92 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
         }
     }
 
-    private void select(final long itemId) {
-        final boolean isChecked = isChecked(itemId);
+    /**
+     * Announces a bulk change to the selection: the visible rows are updated once, the action mode is started if
+     * rows are selected, and its title is updated once.
+     */
+    private void onSelectionRangeChanged() {
+        refreshVisibleRows();
 
-        if (isChecked) {
+        if (actionMode == null && adapterView != null && getSelectedCount() > 0) {
+            startActionMode();
+        }
+
+        onItemSelectedStateChanged();
+    }
+
+    /**
+     * Updates the selection state of the visible row showing an item.
+     *
+     * @param itemId The id of the item.
+     */
+    private void refreshRow(final long itemId) {
+        if (adapterView == null) {
+            baseAdapter.notifyDataSetChanged();
+            return;
+        }
+
+        final int first = adapterView.getFirstVisiblePosition() - getHeaderCount();
+        final int childCount = adapterView.getChildCount();
+        final int count = baseAdapter.getCount();
+
+        for (int i = 0; i < childCount; i++) {
+            final int position = first + i;
+
+            if (position >= 0 && position < count && baseAdapter.getItemId(position) == itemId) {
+                initializeView(position, adapterView.getChildAt(i));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Updates the selection state of every visible row. Rows that are not visible pick up their state when they are
+     * next bound.
+     */
+    private void refreshVisibleRows() {
+        if (adapterView == null) {
+            baseAdapter.notifyDataSetChanged();
+            return;
+        }
+
+        final int first = adapterView.getFirstVisiblePosition() - getHeaderCount();
+        final int childCount = adapterView.getChildCount();
+        final int count = baseAdapter.getCount();
+
+        for (int i = 0; i < childCount; i++) {
+            final int position = first + i;
+
+            if (position >= 0 && position < count) {
+                initializeView(position, adapterView.getChildAt(i));
+            }
+        }
+    }
+
+    private void select(final int position, final long itemId) {
+        if (!selectionModel.setSelected(position, itemId, true)) {
             return;
         }
 
-        selectedItems.add(itemId);
-        baseAdapter.notifyDataSetChanged();
+        refreshRow(itemId);
 
         onItemSelectedStateChanged();
     }
 
+    /**
+     * @param position  The position of the row, or -1 if the selection model does not need it.
+     * @param itemId    The id of the row.
+     * @param isChecked True to select the row, false to deselect it.
+     */
+    private void setSelected(final int position, final long itemId, final boolean isChecked) {
+        if (isChecked) {
+            select(position, itemId);
+        }
+        else {
+            unSelect(position, itemId);
+        }
+    }
+
     private void startActionMode() {
         if (!(adapterView.getContext() instanceof ActionBarActivity)) {
             throw new IllegalStateException("Context must be an ActionBarActivity");
@@ -392,23 +611,29 @@ public class CheckableAdapterHelper implements OnItemLongClickListener, OnItemCl
         actionMode = activity.startSupportActionMode((ActionMode.Callback) baseAdapter);
     }
 
-    private void unSelect(final long itemId) {
-        final boolean isChecked = isChecked(itemId);
+    /**
+     * Toggles a row whose position is already known, so a position based selection model is not made to search for
+     * it.
+     *
+     * @param position The position of the row, or -1 if the selection model does not need it.
+     * @param itemId   The id of the row.
+     */
+    private void toggle(final int position, final long itemId) {
+        setSelected(position, itemId, !selectionModel.isSelected(position, itemId));
+    }
 
-        if (!isChecked) {
+    private void unSelect(final int position, final long itemId) {
+        if (!selectionModel.setSelected(position, itemId, false)) {
             return;
         }
 
-        selectedItems.remove(itemId);
+        refreshRow(itemId);
 
         if (getSelectedCount() == 0) {
             finishActionMode();
             return;
         }
 
-        baseAdapter.notifyDataSetChanged();
-
         onItemSelectedStateChanged();
-
     }
 }
\ No newline at end of file
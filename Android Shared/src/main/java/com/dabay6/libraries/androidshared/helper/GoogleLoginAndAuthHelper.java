@@ -183,39 +183,44 @@ public class GoogleLoginAndAuthHelper extends BaseLoginAndAuthHelper
 
                 personBuffer.close();
 
-                // Record profile ID, image URL and name
-                Logger.debug(TAG, "Saving plus profile ID: " + currentUser.getId());
+                // Record profile ID, image URL and name with a single preference write
+                AccountUtils.getAccountPreferences(context, accountName).batch(new Runnable() {
+                    @Override
+                    public void run() {
+                        Logger.debug(TAG, "Saving plus profile ID: " + currentUser.getId());
 
-                GoogleAccountUtils.setPlusProfileId(context, accountName, currentUser.getId());
+                        GoogleAccountUtils.setPlusProfileId(context, accountName, currentUser.getId());
 
-                String imageUrl = currentUser.getImage().getUrl();
+                        String imageUrl = currentUser.getImage().getUrl();
 
-                if (imageUrl != null) {
-                    imageUrl = Uri.parse(imageUrl)
-                                  .buildUpon().appendQueryParameter("sz", "256").build().toString();
-                }
+                        if (imageUrl != null) {
+                            imageUrl = Uri.parse(imageUrl)
+                                          .buildUpon().appendQueryParameter("sz", "256").build().toString();
+                        }
 
-                Logger.debug(TAG, "Saving plus image URL: " + imageUrl);
+                        Logger.debug(TAG, "Saving plus image URL: " + imageUrl);
 
-                GoogleAccountUtils.setPlusImageUrl(context, accountName, imageUrl);
+                        GoogleAccountUtils.setPlusImageUrl(context, accountName, imageUrl);
 
-                Logger.debug(TAG, "Saving plus display name: " + currentUser.getDisplayName());
+                        Logger.debug(TAG, "Saving plus display name: " + currentUser.getDisplayName());
 
-                GoogleAccountUtils.setPlusName(context, accountName, currentUser.getDisplayName());
+                        GoogleAccountUtils.setPlusName(context, accountName, currentUser.getDisplayName());
 
-                final Person.Cover cover = currentUser.getCover();
+                        final Person.Cover cover = currentUser.getCover();
 
-                if (cover != null) {
-                    final Person.Cover.CoverPhoto coverPhoto = cover.getCoverPhoto();
+                        if (cover != null) {
+                            final Person.Cover.CoverPhoto coverPhoto = cover.getCoverPhoto();
 
-                    if (coverPhoto != null) {
-                        Logger.debug(TAG, "Saving plus cover URL: " + coverPhoto.getUrl());
-                        GoogleAccountUtils.setPlusCoverUrl(context, accountName, coverPhoto.getUrl());
+                            if (coverPhoto != null) {
+                                Logger.debug(TAG, "Saving plus cover URL: " + coverPhoto.getUrl());
+                                GoogleAccountUtils.setPlusCoverUrl(context, accountName, coverPhoto.getUrl());
+                            }
+                        }
+                        else {
+                            Logger.debug(TAG, "Profile has no cover.");
+                        }
                     }
-                }
-                else {
-                    Logger.debug(TAG, "Profile has no cover.");
-                }
+                });
 
                 final LoginAndAuthCallbacks callbacks;
 
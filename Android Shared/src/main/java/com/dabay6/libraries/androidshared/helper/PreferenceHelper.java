@@ -26,15 +26,27 @@ import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.os.AsyncTask;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.preference.PreferenceManager;
 import android.text.TextUtils;
 
+import com.dabay6.libraries.androidshared.helper.preferences.MappedPreferences;
+import com.dabay6.libraries.androidshared.helper.preferences.PreferenceCache;
+import com.dabay6.libraries.androidshared.helper.preferences.PreferencePreloader;
+import com.dabay6.libraries.androidshared.logging.Logger;
 import com.dabay6.libraries.androidshared.util.AndroidUtils;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A fluent wrapper around the android preferences.
@@ -43,18 +55,55 @@ import java.util.Set;
  */
 @SuppressWarnings("unused")
 public class PreferenceHelper {
+    private final static String TAG = Logger.makeTag(PreferenceHelper.class);
     private final static Object lock = new Object();
-    private static SharedPreferences.Editor editor;
-    private static SharedPreferences preferences;
-    private static PreferenceHelper singleton = null;
+    private final static Map<String, PreferenceHelper> named = new HashMap<>();
+    private static volatile PreferenceHelper singleton = null;
+    private static Executor writer;
+    private final SharedPreferences.Editor editor;
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private final AtomicBoolean isWriteBehindScheduled = new AtomicBoolean();
+    private final SharedPreferences preferences;
+    private final Runnable writeBehindRunnable = new Runnable() {
+        @Override
+        public void run() {
+            final boolean hasDrained;
+
+            isWriteBehindScheduled.set(false);
+
+            // drains are ordered by the lock, so an older value never reaches the editor after a newer one
+            synchronized (lock) {
+                hasDrained = drainCache();
+            }
+
+            if (hasDrained) {
+                commitChanges();
+            }
+        }
+    };
+    private long autoBatchDelay;
+    private int batchDepth;
+    private volatile PreferenceCache cache;
+    private Handler handler;
+    private boolean hasPendingChanges;
+    private boolean isEditorDirty;
+    private boolean isFlushScheduled;
 
     /**
      * @param context the {@link Context} used to access {@link SharedPreferences}.
      */
     @SuppressLint("CommitPrefEdits")
     PreferenceHelper(final Context context) {
+        PreferencePreloader.await(PreferencePreloader.getDefaultName(context));
+
         preferences = PreferenceManager.getDefaultSharedPreferences(context);
         editor = preferences.edit();
+        cache = new PreferenceCache(preferences);
     }
 
     /**
@@ -65,8 +114,59 @@ public class PreferenceHelper {
      */
     @SuppressLint("CommitPrefEdits")
     PreferenceHelper(final Context context, final String name, final Integer mode) {
+        PreferencePreloader.await(name);
+
         preferences = context.getSharedPreferences(name, mode);
         editor = preferences.edit();
+        cache = new PreferenceCache(preferences);
+    }
+
+    /**
+     * @param backend the {@link SharedPreferences} implementation used to store the preferences.
+     */
+    @SuppressLint("CommitPrefEdits")
+    PreferenceHelper(final SharedPreferences backend) {
+        preferences = backend;
+        editor = preferences.edit();
+        cache = new PreferenceCache(preferences);
+    }
+
+    /**
+     * Runs the given changes as a single batch. Every {@link #save}, {@link #remove} and {@link #clear} issued while
+     * the batch is running, on any thread, is written to disk once, when the outermost batch finishes.
+     *
+     * @param changes The changes to make.
+     *
+     * @return {@link PreferenceHelper}
+     */
+    public PreferenceHelper batch(final Runnable changes) {
+        synchronized (lock) {
+            batchDepth += 1;
+        }
+
+        try {
+            changes.run();
+        }
+        finally {
+            final boolean shouldWrite;
+
+            synchronized (lock) {
+                batchDepth -= 1;
+                if (batchDepth == 0 && drainCache()) {
+                    hasPendingChanges = true;
+                }
+                shouldWrite = batchDepth == 0 && hasPendingChanges;
+                if (shouldWrite) {
+                    hasPendingChanges = false;
+                }
+            }
+
+            if (shouldWrite) {
+                writeChanges();
+            }
+        }
+
+        return this;
     }
 
     /**
@@ -75,18 +175,72 @@ public class PreferenceHelper {
      * @return {@link PreferenceHelper}
      */
     public PreferenceHelper clear() {
-        editor.clear();
+        synchronized (lock) {
+            final PreferenceCache current = cache;
+
+            if (current != null) {
+                current.clear();
+            }
+
+            // an editor applies its clear before its other changes, so values already drained into it are written
+            // first rather than surviving the clear
+            if (isEditorDirty) {
+                writeChanges();
+            }
+
+            editor.clear();
+        }
+
         commitChanges();
 
         return this;
     }
 
+    /**
+     * Starts a set of changes that are written to disk together when {@link Batch#apply()} is called.
+     *
+     * @return A new {@link Batch}.
+     */
+    public Batch edit() {
+        return new Batch(this);
+    }
+
+    /**
+     * Writes any changes held back by auto-batching to disk now.
+     */
+    public void flush() {
+        synchronized (lock) {
+            if (isFlushScheduled) {
+                handler.removeCallbacks(flushRunnable);
+                isFlushScheduled = false;
+            }
+
+            if (batchDepth == 0 && drainCache()) {
+                hasPendingChanges = true;
+            }
+
+            if (!hasPendingChanges || batchDepth > 0) {
+                return;
+            }
+
+            hasPendingChanges = false;
+        }
+
+        writeChanges();
+    }
+
     /**
      * Retrieve all values from the preferences.
      *
      * @return Returns a map containing a list of pairs key/value representing the preferences.
      */
     public Map<String, ?> getAll() {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            return current.getAll();
+        }
+
         return preferences.getAll();
     }
 
@@ -99,6 +253,12 @@ public class PreferenceHelper {
      * @return Returns the preference value if it exists, or defaultValue.
      */
     public boolean getBoolean(String key, boolean defaultValue) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            return current.getBoolean(key, defaultValue);
+        }
+
         return preferences.getBoolean(key, defaultValue);
     }
 
@@ -111,6 +271,12 @@ public class PreferenceHelper {
      * @return Returns the preference value if it exists, or defaultValue.
      */
     public float getFloat(String key, float defaultValue) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            return current.getFloat(key, defaultValue);
+        }
+
         return preferences.getFloat(key, defaultValue);
     }
 
@@ -123,6 +289,12 @@ public class PreferenceHelper {
      * @return Returns the preference value if it exists, or defaultValue.
      */
     public int getInt(String key, int defaultValue) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            return current.getInt(key, defaultValue);
+        }
+
         return preferences.getInt(key, defaultValue);
     }
 
@@ -135,6 +307,12 @@ public class PreferenceHelper {
      * @return Returns the preference value if it exists, or defaultValue.
      */
     public long getLong(String key, long defaultValue) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            return current.getLong(key, defaultValue);
+        }
+
         return preferences.getLong(key, defaultValue);
     }
 
@@ -147,6 +325,12 @@ public class PreferenceHelper {
      * @return Returns the preference value if it exists, or defaultValue.
      */
     public String getString(String key, String defaultValue) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            return current.getString(key, defaultValue);
+        }
+
         return preferences.getString(key, defaultValue);
     }
 
@@ -161,6 +345,12 @@ public class PreferenceHelper {
     @TargetApi(Build.VERSION_CODES.HONEYCOMB)
     public Set<String> getStringSet(String key, Set<String> defaultValue) {
         if (AndroidUtils.isAtLeastHoneycomb()) {
+            final PreferenceCache current = cache;
+
+            if (current != null) {
+                return current.getStringSet(key, defaultValue);
+            }
+
             return preferences.getStringSet(key, defaultValue);
         }
 
@@ -181,6 +371,14 @@ public class PreferenceHelper {
     }
 
     public void remove(String key) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            current.remove(key);
+            scheduleWriteBehind();
+            return;
+        }
+
         editor.remove(key);
         commitChanges();
     }
@@ -192,6 +390,14 @@ public class PreferenceHelper {
      * @param value The new value for the preference.
      */
     public void save(String key, boolean value) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            current.putBoolean(key, value);
+            scheduleWriteBehind();
+            return;
+        }
+
         editor.putBoolean(key, value);
         commitChanges();
     }
@@ -203,6 +409,14 @@ public class PreferenceHelper {
      * @param value The new value for the preference.
      */
     public void save(String key, float value) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            current.putFloat(key, value);
+            scheduleWriteBehind();
+            return;
+        }
+
         editor.putFloat(key, value);
         commitChanges();
     }
@@ -214,6 +428,14 @@ public class PreferenceHelper {
      * @param value The new value for the preference.
      */
     public void save(String key, int value) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            current.putInt(key, value);
+            scheduleWriteBehind();
+            return;
+        }
+
         editor.putInt(key, value);
         commitChanges();
     }
@@ -225,6 +447,14 @@ public class PreferenceHelper {
      * @param value The new value for the preference.
      */
     public void save(String key, long value) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            current.putLong(key, value);
+            scheduleWriteBehind();
+            return;
+        }
+
         editor.putLong(key, value);
         commitChanges();
     }
@@ -236,6 +466,14 @@ public class PreferenceHelper {
      * @param value The new value for the preference.
      */
     public void save(String key, String value) {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            current.putString(key, value);
+            scheduleWriteBehind();
+            return;
+        }
+
         editor.putString(key, value);
         commitChanges();
     }
@@ -249,11 +487,79 @@ public class PreferenceHelper {
     @TargetApi(Build.VERSION_CODES.HONEYCOMB)
     public void save(String key, Set<String> value) {
         if (AndroidUtils.isAtLeastHoneycomb()) {
+            final PreferenceCache current = cache;
+
+            if (current != null) {
+                current.putStringSet(key, value);
+                scheduleWriteBehind();
+                return;
+            }
+
             editor.putStringSet(key, value);
             commitChanges();
         }
     }
 
+    /**
+     * Enables auto-batching. Changes made through {@link #save}, {@link #remove} and {@link #clear} are held back
+     * and written to disk together once the delay has passed since the first held back change. Call {@link #flush()}
+     * to write them sooner, for example when the application is paused.
+     *
+     * @param delay The delay in milliseconds, or 0 to write every change immediately.
+     *
+     * @return {@link PreferenceHelper}
+     */
+    public PreferenceHelper setAutoBatchDelay(final long delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay must not be negative.");
+        }
+
+        synchronized (lock) {
+            autoBatchDelay = delay;
+        }
+
+        if (delay == 0) {
+            flush();
+        }
+
+        return this;
+    }
+
+    /**
+     * Enables or disables the in-memory cache, which is enabled by default. While it is enabled reads are served from
+     * a snapshot of the preferences without locking, and {@link #save} and {@link #remove} update the snapshot and
+     * return immediately; the changes are written to disk by a background thread.
+     *
+     * @param enabled true to read and write through the cache.
+     *
+     * @return {@link PreferenceHelper}
+     */
+    public PreferenceHelper setCacheEnabled(final boolean enabled) {
+        synchronized (lock) {
+            final PreferenceCache current = cache;
+
+            if (enabled == (current != null)) {
+                return this;
+            }
+
+            if (enabled) {
+                cache = new PreferenceCache(preferences);
+
+                return this;
+            }
+
+            current.detach();
+            if (drainCache()) {
+                hasPendingChanges = true;
+            }
+            cache = null;
+        }
+
+        flush();
+
+        return this;
+    }
+
     /**
      * Unregisters a previous callback.
      *
@@ -273,18 +579,32 @@ public class PreferenceHelper {
      * @return {@link PreferenceHelper}
      */
     public static PreferenceHelper with(Context context) {
-        if (singleton == null) {
-            synchronized (lock) {
-                if (singleton == null) {
-                    singleton = new SharedPreferenceBuilder(context).build();
-                }
+        final PreferenceHelper current = singleton;
+
+        if (current != null) {
+            return current;
+        }
+
+        // built outside the lock, which every helper's writes take, so waiting for this file stalls no other one
+        final PreferenceHelper helper = new SharedPreferenceBuilder(context).build();
+
+        synchronized (lock) {
+            if (singleton == null) {
+                singleton = helper;
+
+                return helper;
             }
         }
 
+        helper.discard();
+
         return singleton;
     }
 
     /**
+     * Each preferences file has its own {@link PreferenceHelper}, separate from the one returned by {@link
+     * #with(Context)}.
+     *
      * @param context the {@link Context} used to access {@link SharedPreferences}.
      * @param name    Desired preferences file. If a preferences file by this name does not exist, it will be created
      *                when you retrieve an editor (SharedPreferences.edit()) and then commit changes (Editor.commit()).
@@ -293,30 +613,412 @@ public class PreferenceHelper {
      * @return {@link PreferenceHelper}
      */
     public static PreferenceHelper with(Context context, final String name, final int mode) {
-        if (singleton == null) {
-            synchronized (lock) {
-                if (singleton == null) {
-                    singleton = new SharedPreferenceBuilder(context, name, mode).build();
-                }
+        if (TextUtils.isEmpty(name)) {
+            return with(context);
+        }
+
+        synchronized (lock) {
+            final PreferenceHelper helper = named.get(name);
+
+            if (helper != null) {
+                return helper;
             }
         }
 
-        return singleton;
+        // built outside the lock, which every helper's writes take, so waiting for this file stalls no other one
+        final PreferenceHelper helper = new SharedPreferenceBuilder(context, name, mode).build();
+        final PreferenceHelper existing;
+
+        synchronized (lock) {
+            existing = named.get(name);
+
+            if (existing == null) {
+                named.put(name, helper);
+
+                return helper;
+            }
+        }
+
+        helper.discard();
+
+        return existing;
+    }
+
+    /**
+     * Replaces the preferences used by {@link #with(Context)} with the given backend, for example a {@link
+     * MappedPreferences}.
+     *
+     * @param backend the {@link SharedPreferences} implementation used to store the preferences.
+     *
+     * @return {@link PreferenceHelper}
+     */
+    public static PreferenceHelper with(final SharedPreferences backend) {
+        if (backend == null) {
+            throw new IllegalArgumentException("Backend must not be null.");
+        }
+
+        final PreferenceHelper helper = new PreferenceHelper(backend);
+
+        synchronized (lock) {
+            if (singleton != null) {
+                singleton.setCacheEnabled(false);
+            }
+
+            singleton = helper;
+        }
+
+        return helper;
+    }
+
+    /**
+     * Stores the default preferences in a memory-mapped file instead of XML. The first time this is called the values
+     * of the existing XML file are copied into the new file; if the file cannot be opened, or is corrupt, the XML file
+     * is used. Calling this again returns the helper already using the file.
+     *
+     * @param context the {@link Context} used to access {@link SharedPreferences}.
+     *
+     * @return {@link PreferenceHelper}
+     */
+    public static PreferenceHelper withMappedStorage(final Context context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context must not be null.");
+        }
+
+        final MappedPreferences backend;
+
+        try {
+            backend = MappedPreferences.openDefault(context.getApplicationContext());
+        }
+        catch (final IOException | RuntimeException ex) {
+            Logger.error(TAG, "Unable to open memory-mapped preferences, using XML.", ex);
+
+            return with(context);
+        }
+
+        synchronized (lock) {
+            if (singleton != null && singleton.preferences == backend) {
+                return singleton;
+            }
+        }
+
+        return with(backend);
+    }
+
+    private static Executor getWriter() {
+        synchronized (lock) {
+            if (writer == null) {
+                writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "PreferenceHelper-writer");
+
+                        thread.setDaemon(true);
+
+                        return thread;
+                    }
+                });
+            }
+
+            return writer;
+        }
     }
 
     private void commitChanges() {
-        if (AndroidUtils.isAtLeastGingerbread()) {
-            editor.apply();
+        synchronized (lock) {
+            if (batchDepth > 0) {
+                hasPendingChanges = true;
+                return;
+            }
+
+            if (autoBatchDelay > 0) {
+                hasPendingChanges = true;
+
+                if (!isFlushScheduled) {
+                    if (handler == null) {
+                        handler = new Handler(Looper.getMainLooper());
+                    }
+
+                    isFlushScheduled = true;
+                    handler.postDelayed(flushRunnable, autoBatchDelay);
+                }
+                return;
+            }
+        }
+
+        writeChanges();
+    }
+
+    /**
+     * Copies the writes queued in the cache into the editor. Must be called with the lock held.
+     */
+    private boolean drainCache() {
+        final PreferenceCache current = cache;
+
+        if (current != null && current.drainTo(editor)) {
+            isEditorDirty = true;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Releases a helper that lost the race to be published; it has made no changes.
+     */
+    private void discard() {
+        final PreferenceCache current = cache;
+
+        if (current != null) {
+            current.detach();
+        }
+    }
+
+    private void scheduleWriteBehind() {
+        if (isWriteBehindScheduled.compareAndSet(false, true)) {
+            getWriter().execute(writeBehindRunnable);
+        }
+    }
+
+    private void writeChanges() {
+        synchronized (lock) {
+            isEditorDirty = false;
+            writeChanges(editor);
+        }
+    }
+
+    private static void writeChanges(final SharedPreferences.Editor editor) {
+        editor.apply();
+    }
+
+    /**
+     * A set of changes written to disk together by {@link #apply()}.
+     * <p>
+     * The changes are collected here and only copied into the helper's editor when the batch is applied, after any
+     * writes still queued by the helper. Every write to a file therefore goes through one editor in the order it was
+     * made, and a value queued before the batch can never reach the disk after it.
+     * </p>
+     */
+    public static class Batch {
+        private final Map<String, Object> changes = new LinkedHashMap<>();
+        private final PreferenceHelper helper;
+        private boolean clear;
+
+        Batch(final PreferenceHelper helper) {
+            this.helper = helper;
+        }
+
+        /**
+         * Writes every change in this batch to disk with a single write. Inside {@link PreferenceHelper#batch} the
+         * write is made when the outermost batch finishes.
+         */
+        public void apply() {
+            final boolean shouldWrite;
+
+            synchronized (lock) {
+                stage();
+
+                shouldWrite = helper.batchDepth == 0;
+                if (!shouldWrite) {
+                    helper.hasPendingChanges = true;
+                }
+            }
+
+            if (shouldWrite) {
+                helper.writeChanges();
+            }
+        }
+
+        /**
+         * Writes every change in this batch, and any writes still queued by the helper, to disk before returning. The
+         * write is made immediately, even inside {@link PreferenceHelper#batch}.
+         *
+         * @return true if the values were successfully written to disk, otherwise false.
+         */
+        public boolean commit() {
+            synchronized (lock) {
+                stage();
+                helper.isEditorDirty = false;
+
+                return helper.editor.commit();
+            }
+        }
+
+        /**
+         * Mark in the batch to remove <em>all</em> values from the preferences.
+         *
+         * @return {@link Batch}
+         */
+        public Batch clear() {
+            changes.clear();
+            clear = true;
+
+            return this;
+        }
+
+        /**
+         * Set a boolean value in the batch.
+         *
+         * @param key   The name of the preference to modify.
+         * @param value The new value for the preference.
+         *
+         * @return {@link Batch}
+         */
+        public Batch putBoolean(final String key, final boolean value) {
+            changes.put(key, value);
+
+            return this;
+        }
+
+        /**
+         * Set a float value in the batch.
+         *
+         * @param key   The name of the preference to modify.
+         * @param value The new value for the preference.
+         *
+         * @return {@link Batch}
+         */
+        public Batch putFloat(final String key, final float value) {
+            changes.put(key, value);
+
+            return this;
         }
-        else {
-            new AsyncTask<Void, Void, Void>() {
-                @Override
-                protected Void doInBackground(final Void... voids) {
-                    editor.commit();
 
-                    return null;
+        /**
+         * Set a int value in the batch.
+         *
+         * @param key   The name of the preference to modify.
+         * @param value The new value for the preference.
+         *
+         * @return {@link Batch}
+         */
+        public Batch putInt(final String key, final int value) {
+            changes.put(key, value);
+
+            return this;
+        }
+
+        /**
+         * Set a long value in the batch.
+         *
+         * @param key   The name of the preference to modify.
+         * @param value The new value for the preference.
+         *
+         * @return {@link Batch}
+         */
+        public Batch putLong(final String key, final long value) {
+            changes.put(key, value);
+
+            return this;
+        }
+
+        /**
+         * Set a String value in the batch.
+         *
+         * @param key   The name of the preference to modify.
+         * @param value The new value for the preference.
+         *
+         * @return {@link Batch}
+         */
+        public Batch putString(final String key, final String value) {
+            changes.put(key, value);
+
+            return this;
+        }
+
+        /**
+         * Set a set of String values in the batch.
+         *
+         * @param key   The name of the preference to modify.
+         * @param value The new value for the preference.
+         *
+         * @return {@link Batch}
+         */
+        @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+        public Batch putStringSet(final String key, final Set<String> value) {
+            if (AndroidUtils.isAtLeastHoneycomb()) {
+                changes.put(key, value);
+            }
+
+            return this;
+        }
+
+        /**
+         * Mark in the batch that a preference value should be removed.
+         *
+         * @param key The name of the preference to remove.
+         *
+         * @return {@link Batch}
+         */
+        public Batch remove(final String key) {
+            changes.put(key, null);
+
+            return this;
+        }
+
+        /**
+         * Copies the changes into an editor. A null value removes the preference.
+         */
+        @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+        @SuppressWarnings("unchecked")
+        private void copyTo(final SharedPreferences.Editor editor) {
+            if (clear) {
+                editor.clear();
+            }
+
+            for (final Map.Entry<String, Object> change : changes.entrySet()) {
+                final String key = change.getKey();
+                final Object value = change.getValue();
+
+                if (value == null) {
+                    editor.remove(key);
+                }
+                else if (value instanceof Boolean) {
+                    editor.putBoolean(key, (Boolean) value);
+                }
+                else if (value instanceof Float) {
+                    editor.putFloat(key, (Float) value);
+                }
+                else if (value instanceof Integer) {
+                    editor.putInt(key, (Integer) value);
+                }
+                else if (value instanceof Long) {
+                    editor.putLong(key, (Long) value);
                 }
-            }.execute();
+                else if (value instanceof String) {
+                    editor.putString(key, (String) value);
+                }
+                else {
+                    editor.putStringSet(key, (Set<String>) value);
+                }
+            }
+        }
+
+        /**
+         * Copies the batch into the helper's editor after the helper's queued writes. Must be called with the lock
+         * held.
+         */
+        private void stage() {
+            helper.drainCache();
+
+            // an editor applies its clear before its other changes, so values already drained into it are written
+            // first rather than surviving the clear
+            if (clear && helper.isEditorDirty) {
+                helper.writeChanges();
+            }
+
+            copyTo(helper.editor);
+
+            final PreferenceCache current = helper.cache;
+
+            if (current != null) {
+                current.publish(clear, changes);
+            }
+
+            changes.clear();
+            clear = false;
+
+            helper.isEditorDirty = true;
         }
     }
 
@@ -0,0 +1,1083 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.preferences;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.dabay6.libraries.androidshared.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * MappedPreferences
+ * <p>
+ * A {@link SharedPreferences} implementation backed by a memory-mapped file instead of an XML file. Changes are
+ * appended to the file as typed binary records; numeric and booleans values, and strings whose encoded length does
+ * not change, are updated in place. When more than half of the file is taken up by superseded records the live
+ * values are written to a new file which replaces the old one.
+ * </p>
+ * <p>
+ * Values are read from memory, so reads never touch the disk. Because the file is mapped, {@link Editor#apply()}
+ * only copies bytes into memory and the kernel writes them back; {@link Editor#commit()} additionally forces them to
+ * disk. Compaction writes and syncs the new file on a background thread.
+ * </p>
+ * <p>
+ * A file must only be mapped once, as two instances appending to the same file would overwrite each other's records;
+ * {@link #open(Context, String)} returns the same instance for every call with the same name.
+ * </p>
+ * <p>
+ * File layout: the magic bytes <code>DKV1</code>, the end of the record data as a 4 byte int, then records made of a
+ * type byte, a 2 byte key length, the UTF-8 key and the value. Keys are therefore limited to 65535 bytes of UTF-8.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class MappedPreferences implements SharedPreferences {
+    private final static int COMPACT_MIN_SIZE = 16 * 1024;
+    private final static String CORRUPT_EXTENSION = ".corrupt";
+    private final static String EXTENSION = ".kv";
+    private final static int HEADER_SIZE = 8;
+    private final static int INITIAL_CAPACITY = 16 * 1024;
+    private final static byte[] MAGIC = {'D', 'K', 'V', '1'};
+    private final static int MAX_KEY_LENGTH = 0xFFFF;
+    private final static int OFFSET_DATA_END = 4;
+    private final static String TAG = Logger.makeTag(MappedPreferences.class);
+    private final static byte TYPE_BOOLEAN = 1;
+    private final static byte TYPE_CLEAR = 8;
+    private final static byte TYPE_FLOAT = 2;
+    private final static byte TYPE_INT = 3;
+    private final static byte TYPE_LONG = 4;
+    private final static byte TYPE_REMOVE = 7;
+    private final static byte TYPE_STRING = 5;
+    private final static byte TYPE_STRING_SET = 6;
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+    private final static Object VALUE_PRESENT = new Object();
+    private final static Map<String, MappedPreferences> opened = new HashMap<>();
+    private static Executor compactor;
+    private final File file;
+    private final Map<String, Record> records = new HashMap<>();
+    private final Map<String, Object> values = new HashMap<>();
+    private final WeakHashMap<OnSharedPreferenceChangeListener, Object> listeners = new WeakHashMap<>();
+    private final Object lock = new Object();
+    private final Runnable compactRunnable = new Runnable() {
+        @Override
+        public void run() {
+            compact();
+        }
+    };
+    private MappedByteBuffer buffer;
+    private FileChannel channel;
+    private int dataEnd;
+    private int garbage;
+    private Handler handler;
+    private boolean isCompactionScheduled;
+    private int modifications;
+
+    /**
+     * Opens, or creates, a memory-mapped preferences file.
+     *
+     * @param file The file holding the preferences.
+     *
+     * @throws IOException if the file cannot be opened or is not a preferences file.
+     */
+    public MappedPreferences(final File file) throws IOException {
+        this.file = file;
+
+        final File parent = file.getParentFile();
+
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Unable to create " + parent);
+        }
+
+        open(file);
+    }
+
+    /**
+     * Opens the memory-mapped preferences with the given name, importing the values of the XML preferences file with
+     * the same name the first time it is opened. Every call with the same name returns the same instance.
+     * <p>
+     * A file that fails validation is renamed with a <code>.corrupt</code> extension, so the next call imports the
+     * XML values again.
+     * </p>
+     *
+     * @param context The {@link Context} used to locate the files.
+     * @param name    The preferences name, as passed to {@link Context#getSharedPreferences(String, int)}.
+     *
+     * @return The opened {@link MappedPreferences}.
+     *
+     * @throws IOException if the file cannot be opened or is corrupt.
+     */
+    public static MappedPreferences open(final Context context, final String name) throws IOException {
+        final File file = getFile(context, name);
+
+        synchronized (opened) {
+            MappedPreferences preferences = opened.get(file.getAbsolutePath());
+
+            if (preferences != null) {
+                return preferences;
+            }
+
+            final boolean isNew = !file.exists();
+
+            try {
+                preferences = new MappedPreferences(file);
+            }
+            catch (final IOException ex) {
+                if (!isNew && !file.renameTo(new File(file.getPath() + CORRUPT_EXTENSION))) {
+                    Logger.warn(TAG, "Unable to move aside " + file);
+                }
+
+                throw ex;
+            }
+
+            if (isNew) {
+                preferences.importFrom(context.getSharedPreferences(name, Context.MODE_PRIVATE));
+            }
+
+            opened.put(file.getAbsolutePath(), preferences);
+
+            return preferences;
+        }
+    }
+
+    /**
+     * Opens the memory-mapped counterpart of the default preferences, importing the values of the default XML
+     * preferences file the first time it is opened.
+     *
+     * @param context The {@link Context} used to locate the files.
+     *
+     * @return The opened {@link MappedPreferences}.
+     *
+     * @throws IOException if the file cannot be opened.
+     */
+    public static MappedPreferences openDefault(final Context context) throws IOException {
+        return open(context, context.getPackageName() + "_preferences");
+    }
+
+    /**
+     * @param context The {@link Context} used to locate the files.
+     * @param name    The preferences name.
+     *
+     * @return The file holding the memory-mapped preferences with the given name.
+     */
+    public static File getFile(final Context context, final String name) {
+        return new File(new File(context.getFilesDir(), "prefs"), name + EXTENSION);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(final String key) {
+        synchronized (lock) {
+            return values.containsKey(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Editor edit() {
+        return new MappedEditor();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, ?> getAll() {
+        synchronized (lock) {
+            return new HashMap<>(values);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBoolean(final String key, final boolean defValue) {
+        synchronized (lock) {
+            final Boolean value = (Boolean) values.get(key);
+
+            return value != null ? value : defValue;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float getFloat(final String key, final float defValue) {
+        synchronized (lock) {
+            final Float value = (Float) values.get(key);
+
+            return value != null ? value : defValue;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInt(final String key, final int defValue) {
+        synchronized (lock) {
+            final Integer value = (Integer) values.get(key);
+
+            return value != null ? value : defValue;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLong(final String key, final long defValue) {
+        synchronized (lock) {
+            final Long value = (Long) values.get(key);
+
+            return value != null ? value : defValue;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getString(final String key, final String defValue) {
+        synchronized (lock) {
+            final String value = (String) values.get(key);
+
+            return value != null ? value : defValue;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> getStringSet(final String key, final Set<String> defValues) {
+        synchronized (lock) {
+            final Set<String> value = (Set<String>) values.get(key);
+
+            return value != null ? new HashSet<>(value) : defValues;
+        }
+    }
+
+    /**
+     * Copies every value of the given preferences into this file with a single write.
+     *
+     * @param source The preferences to import, typically the XML file being replaced.
+     */
+    @SuppressWarnings("unchecked")
+    public void importFrom(final SharedPreferences source) {
+        final Map<String, ?> all = source.getAll();
+
+        if (all == null || all.isEmpty()) {
+            return;
+        }
+
+        final Editor editor = edit();
+
+        for (final Map.Entry<String, ?> entry : all.entrySet()) {
+            final Object value = entry.getValue();
+
+            if (value instanceof Boolean) {
+                editor.putBoolean(entry.getKey(), (Boolean) value);
+            }
+            else if (value instanceof Float) {
+                editor.putFloat(entry.getKey(), (Float) value);
+            }
+            else if (value instanceof Integer) {
+                editor.putInt(entry.getKey(), (Integer) value);
+            }
+            else if (value instanceof Long) {
+                editor.putLong(entry.getKey(), (Long) value);
+            }
+            else if (value instanceof String) {
+                editor.putString(entry.getKey(), (String) value);
+            }
+            else if (value instanceof Set) {
+                editor.putStringSet(entry.getKey(), (Set<String>) value);
+            }
+        }
+
+        editor.commit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerOnSharedPreferenceChangeListener(final OnSharedPreferenceChangeListener listener) {
+        synchronized (lock) {
+            listeners.put(listener, VALUE_PRESENT);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(final OnSharedPreferenceChangeListener listener) {
+        synchronized (lock) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Applies the changes of an editor to the mapped file and then to memory. Each change is written before the
+     * values are updated, and the end of the data is published even if a later change fails, so the values in memory
+     * never run ahead of the file. Must be called with the lock held.
+     *
+     * @return The keys whose values changed.
+     */
+    private List<String> applyChanges(final boolean clear, final Map<String, Object> changes) throws IOException {
+        final List<String> changed = new ArrayList<>(changes.size());
+
+        try {
+            if (clear && !values.isEmpty()) {
+                appendRecord(TYPE_CLEAR, "", null);
+                garbage = dataEnd - HEADER_SIZE;
+                values.clear();
+                records.clear();
+            }
+
+            for (final Map.Entry<String, Object> entry : changes.entrySet()) {
+                final String key = entry.getKey();
+                final Object value = entry.getValue();
+
+                if (value == null) {
+                    if (values.containsKey(key)) {
+                        final int start = dataEnd;
+
+                        appendRecord(TYPE_REMOVE, key, null);
+                        garbage += records.remove(key).length + (dataEnd - start);
+                        values.remove(key);
+                        changed.add(key);
+                    }
+                    continue;
+                }
+
+                final Object current = values.get(key);
+
+                if (value.equals(current)) {
+                    continue;
+                }
+
+                writeValue(key, value);
+                values.put(key, value);
+                changed.add(key);
+            }
+        }
+        finally {
+            updateDataEnd();
+
+            if (clear || !changed.isEmpty()) {
+                modifications += 1;
+            }
+        }
+
+        if (!isCompactionScheduled && needsCompaction()) {
+            isCompactionScheduled = true;
+            getCompactor().execute(compactRunnable);
+        }
+
+        return changed;
+    }
+
+    private void appendRecord(final byte type, final String key, final Object value) throws IOException {
+        final byte[] keyBytes = key.getBytes(UTF_8);
+
+        if (keyBytes.length > MAX_KEY_LENGTH) {
+            throw new IOException("Key is longer than " + MAX_KEY_LENGTH + " bytes.");
+        }
+
+        final int length = 1 + 2 + keyBytes.length + valueLength(type, value);
+
+        ensureCapacity(dataEnd + length);
+
+        final int start = dataEnd;
+
+        buffer.position(start);
+        buffer.put(type);
+        buffer.putShort((short) keyBytes.length);
+        buffer.put(keyBytes);
+        putValue(buffer, type, value);
+
+        dataEnd = buffer.position();
+
+        if (type != TYPE_REMOVE && type != TYPE_CLEAR) {
+            records.put(key, new Record(type, start + 3 + keyBytes.length, length));
+        }
+    }
+
+    private void close() {
+        buffer = null;
+
+        try {
+            channel.close();
+        }
+        catch (final IOException ex) {
+            Logger.warn(TAG, "Unable to close " + file);
+        }
+    }
+
+    /**
+     * Writes the live values to a new file and swaps it in. The file is written and synced without holding the lock;
+     * if the values change in the meantime the new file is discarded and compaction is tried again later. The new
+     * file is mapped and read before it replaces the old one, and if either step fails the old mapping and values
+     * stay in use.
+     */
+    private void compact() {
+        final File temp = new File(file.getPath() + ".tmp");
+        final Map<String, Object> snapshot;
+        final int version;
+
+        synchronized (lock) {
+            isCompactionScheduled = false;
+
+            if (!needsCompaction()) {
+                return;
+            }
+
+            snapshot = new HashMap<>(values);
+            version = modifications;
+        }
+
+        try {
+            writeFile(temp, snapshot);
+        }
+        catch (final IOException ex) {
+            Logger.error(TAG, "Unable to compact " + file, ex);
+            deleteFile(temp);
+
+            return;
+        }
+
+        synchronized (lock) {
+            if (version != modifications) {
+                deleteFile(temp);
+
+                if (!isCompactionScheduled && needsCompaction()) {
+                    isCompactionScheduled = true;
+                    getCompactor().execute(compactRunnable);
+                }
+
+                return;
+            }
+
+            final FileChannel previousChannel = channel;
+            final MappedByteBuffer previousBuffer = buffer;
+            final int previousDataEnd = dataEnd;
+            final int previousGarbage = garbage;
+            final Map<String, Record> previousRecords = new HashMap<>(records);
+            final Map<String, Object> previousValues = new HashMap<>(values);
+
+            try {
+                open(temp);
+
+                if (!temp.renameTo(file)) {
+                    close();
+                    throw new IOException("Unable to replace " + file);
+                }
+            }
+            catch (final IOException ex) {
+                Logger.error(TAG, "Unable to compact " + file + ", keeping the current file.", ex);
+                deleteFile(temp);
+
+                channel = previousChannel;
+                buffer = previousBuffer;
+                dataEnd = previousDataEnd;
+                garbage = previousGarbage;
+                records.clear();
+                records.putAll(previousRecords);
+                values.clear();
+                values.putAll(previousValues);
+
+                return;
+            }
+
+            try {
+                previousChannel.close();
+            }
+            catch (final IOException ex) {
+                Logger.warn(TAG, "Unable to close the previous mapping of " + file);
+            }
+        }
+    }
+
+    private void deleteFile(final File target) {
+        if (target.exists() && !target.delete()) {
+            Logger.warn(TAG, "Unable to delete " + target);
+        }
+    }
+
+    private void ensureCapacity(final int required) throws IOException {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+
+        int capacity = buffer.capacity();
+
+        while (capacity < required) {
+            capacity *= 2;
+        }
+
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Must be called with the lock held.
+     */
+    private boolean needsCompaction() {
+        return dataEnd > COMPACT_MIN_SIZE && garbage > (dataEnd - HEADER_SIZE) / 2;
+    }
+
+    private void notifyListeners(final List<String> keys) {
+        final List<OnSharedPreferenceChangeListener> targets;
+
+        synchronized (lock) {
+            if (keys.isEmpty() || listeners.isEmpty()) {
+                return;
+            }
+
+            targets = new ArrayList<>(listeners.keySet());
+
+            if (handler == null) {
+                handler = new Handler(Looper.getMainLooper());
+            }
+        }
+
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = keys.size() - 1; i >= 0; i--) {
+                    for (final OnSharedPreferenceChangeListener listener : targets) {
+                        listener.onSharedPreferenceChanged(MappedPreferences.this, keys.get(i));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Maps a file and reads its records. The header and every record are checked against the file's length, and a
+     * file that fails the checks is reported as an {@link IOException} rather than a runtime exception.
+     *
+     * @param source The file to map, either the preferences file or a compacted copy about to replace it.
+     */
+    private void open(final File source) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(source, "rw");
+        final long length = raf.length();
+
+        channel = raf.getChannel();
+        values.clear();
+        records.clear();
+        garbage = 0;
+
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(length, INITIAL_CAPACITY));
+
+            if (length < HEADER_SIZE) {
+                buffer.put(MAGIC);
+                dataEnd = HEADER_SIZE;
+                updateDataEnd();
+
+                return;
+            }
+
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buffer.get(i) != MAGIC[i]) {
+                    throw new IOException(source + " is not a preferences file.");
+                }
+            }
+
+            dataEnd = buffer.getInt(OFFSET_DATA_END);
+
+            if (dataEnd < HEADER_SIZE || dataEnd > length) {
+                throw new IOException(source + " is truncated.");
+            }
+
+            readRecords();
+        }
+        catch (final IOException ex) {
+            close();
+            throw ex;
+        }
+        catch (final RuntimeException ex) {
+            close();
+            throw new IOException(source + " is corrupt.", ex);
+        }
+    }
+
+    /**
+     * Reads every record up to the end of the data. The buffer is limited to the data, so a record running past it
+     * fails with a {@link java.nio.BufferUnderflowException}.
+     */
+    private void readRecords() throws IOException {
+        buffer.limit(dataEnd);
+        buffer.position(HEADER_SIZE);
+
+        while (buffer.hasRemaining()) {
+            final int start = buffer.position();
+            final byte type = buffer.get();
+            final byte[] keyBytes = new byte[buffer.getShort() & 0xFFFF];
+
+            buffer.get(keyBytes);
+
+            final String key = new String(keyBytes, UTF_8);
+            final int valueOffset = buffer.position();
+            final Object value = readValue(buffer, type);
+            final int recordLength = buffer.position() - start;
+            final Record previous;
+
+            if (type == TYPE_CLEAR) {
+                values.clear();
+                records.clear();
+                garbage = buffer.position() - HEADER_SIZE;
+                continue;
+            }
+
+            if (type == TYPE_REMOVE) {
+                values.remove(key);
+                previous = records.remove(key);
+                garbage += recordLength;
+            }
+            else {
+                values.put(key, value);
+                previous = records.put(key, new Record(type, valueOffset, recordLength));
+            }
+
+            if (previous != null) {
+                garbage += previous.length;
+            }
+        }
+
+        buffer.limit(buffer.capacity());
+    }
+
+    private void writeValue(final String key, final Object value) throws IOException {
+        final byte type = typeOf(value);
+        final Record record = records.get(key);
+
+        if (record != null && record.type == type) {
+            switch (type) {
+                case TYPE_BOOLEAN:
+                case TYPE_FLOAT:
+                case TYPE_INT:
+                case TYPE_LONG:
+                    buffer.position(record.valueOffset);
+                    putValue(buffer, type, value);
+                    return;
+                case TYPE_STRING: {
+                    final byte[] bytes = ((String) value).getBytes(UTF_8);
+
+                    if (bytes.length == buffer.getInt(record.valueOffset)) {
+                        buffer.position(record.valueOffset + 4);
+                        buffer.put(bytes);
+                        return;
+                    }
+                    break;
+                }
+            }
+        }
+
+        appendRecord(type, key, value);
+
+        if (record != null) {
+            garbage += record.length;
+        }
+    }
+
+    private void updateDataEnd() {
+        buffer.putInt(OFFSET_DATA_END, dataEnd);
+    }
+
+    private static Executor getCompactor() {
+        synchronized (opened) {
+            if (compactor == null) {
+                compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "MappedPreferences-compactor");
+
+                        thread.setDaemon(true);
+
+                        return thread;
+                    }
+                });
+            }
+
+            return compactor;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void putValue(final ByteBuffer target, final byte type, final Object value) {
+        switch (type) {
+            case TYPE_BOOLEAN:
+                target.put((byte) ((Boolean) value ? 1 : 0));
+                break;
+            case TYPE_FLOAT:
+                target.putFloat((Float) value);
+                break;
+            case TYPE_INT:
+                target.putInt((Integer) value);
+                break;
+            case TYPE_LONG:
+                target.putLong((Long) value);
+                break;
+            case TYPE_STRING: {
+                final byte[] bytes = ((String) value).getBytes(UTF_8);
+
+                target.putInt(bytes.length);
+                target.put(bytes);
+                break;
+            }
+            case TYPE_STRING_SET: {
+                final Set<String> set = (Set<String>) value;
+
+                target.putInt(set.size());
+                for (final String item : set) {
+                    final byte[] bytes = item.getBytes(UTF_8);
+
+                    target.putInt(bytes.length);
+                    target.put(bytes);
+                }
+                break;
+            }
+        }
+    }
+
+    private static Object readValue(final ByteBuffer source, final byte type) throws IOException {
+        switch (type) {
+            case TYPE_BOOLEAN:
+                return source.get() != 0;
+            case TYPE_FLOAT:
+                return source.getFloat();
+            case TYPE_INT:
+                return source.getInt();
+            case TYPE_LONG:
+                return source.getLong();
+            case TYPE_STRING:
+                return readString(source);
+            case TYPE_STRING_SET: {
+                final int count = source.getInt();
+
+                if (count < 0 || count > source.remaining() / 4) {
+                    throw new IOException("Invalid string set size " + count + ".");
+                }
+
+                final Set<String> set = new HashSet<>(count);
+
+                for (int i = 0; i < count; i++) {
+                    set.add(readString(source));
+                }
+
+                return set;
+            }
+            case TYPE_REMOVE:
+            case TYPE_CLEAR:
+                return null;
+            default:
+                throw new IOException("Unknown record type " + type + ".");
+        }
+    }
+
+    private static String readString(final ByteBuffer source) throws IOException {
+        final int length = source.getInt();
+
+        if (length < 0 || length > source.remaining()) {
+            throw new IOException("Invalid string length " + length + ".");
+        }
+
+        final byte[] bytes = new byte[length];
+
+        source.get(bytes);
+
+        return new String(bytes, UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte typeOf(final Object value) {
+        if (value instanceof Boolean) {
+            return TYPE_BOOLEAN;
+        }
+        if (value instanceof Float) {
+            return TYPE_FLOAT;
+        }
+        if (value instanceof Integer) {
+            return TYPE_INT;
+        }
+        if (value instanceof Long) {
+            return TYPE_LONG;
+        }
+        if (value instanceof String) {
+            return TYPE_STRING;
+        }
+
+        return TYPE_STRING_SET;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int valueLength(final byte type, final Object value) {
+        switch (type) {
+            case TYPE_BOOLEAN:
+                return 1;
+            case TYPE_FLOAT:
+            case TYPE_INT:
+                return 4;
+            case TYPE_LONG:
+                return 8;
+            case TYPE_STRING:
+                return 4 + ((String) value).getBytes(UTF_8).length;
+            case TYPE_STRING_SET: {
+                int length = 4;
+
+                for (final String item : (Set<String>) value) {
+                    length += 4 + item.getBytes(UTF_8).length;
+                }
+
+                return length;
+            }
+            default:
+                return 0;
+        }
+    }
+
+    private static void writeFile(final File target, final Map<String, Object> snapshot) throws IOException {
+        final RandomAccessFile output = new RandomAccessFile(target, "rw");
+        final ByteBuffer data;
+        int size = HEADER_SIZE;
+
+        for (final Map.Entry<String, Object> entry : snapshot.entrySet()) {
+            final byte type = typeOf(entry.getValue());
+
+            size += 1 + 2 + entry.getKey().getBytes(UTF_8).length + valueLength(type, entry.getValue());
+        }
+
+        data = ByteBuffer.allocate(size);
+        data.put(MAGIC);
+        data.putInt(size);
+
+        for (final Map.Entry<String, Object> entry : snapshot.entrySet()) {
+            final byte type = typeOf(entry.getValue());
+            final byte[] keyBytes = entry.getKey().getBytes(UTF_8);
+
+            data.put(type);
+            data.putShort((short) keyBytes.length);
+            data.put(keyBytes);
+            putValue(data, type, entry.getValue());
+        }
+
+        data.flip();
+
+        try {
+            final FileChannel outputChannel = output.getChannel();
+
+            output.setLength(0);
+            while (data.hasRemaining()) {
+                outputChannel.write(data);
+            }
+            outputChannel.force(true);
+        }
+        finally {
+            output.close();
+        }
+    }
+
+    /**
+     * The location of the current record for a key.
+     */
+    private static class Record {
+        final int length;
+        final byte type;
+        final int valueOffset;
+
+        Record(final byte type, final int valueOffset, final int length) {
+            this.type = type;
+            this.valueOffset = valueOffset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Collects changes until they are applied or committed, mirroring the framework editor.
+     */
+    private class MappedEditor implements Editor {
+        private final Map<String, Object> changes = new HashMap<>();
+        private boolean clear;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void apply() {
+            write(false);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Editor clear() {
+            synchronized (this) {
+                clear = true;
+            }
+
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean commit() {
+            return write(true);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Editor putBoolean(final String key, final boolean value) {
+            return put(key, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Editor putFloat(final String key, final float value) {
+            return put(key, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Editor putInt(final String key, final int value) {
+            return put(key, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Editor putLong(final String key, final long value) {
+            return put(key, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Editor putString(final String key, final String value) {
+            return put(key, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Editor putStringSet(final String key, final Set<String> values) {
+            return put(key, values == null ? null : new HashSet<>(values));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Editor remove(final String key) {
+            return put(key, null);
+        }
+
+        private Editor put(final String key, final Object value) {
+            // UTF-8 takes at most three bytes per char, so only long keys need encoding to check their length
+            if (key.length() > MAX_KEY_LENGTH / 3 && key.getBytes(UTF_8).length > MAX_KEY_LENGTH) {
+                throw new IllegalArgumentException("Key must not be longer than " + MAX_KEY_LENGTH + " bytes.");
+            }
+
+            synchronized (this) {
+                changes.put(key, value);
+            }
+
+            return this;
+        }
+
+        private boolean write(final boolean force) {
+            final List<String> changed;
+            final boolean shouldClear;
+            final Map<String, Object> pending;
+
+            synchronized (this) {
+                shouldClear = clear;
+                pending = new HashMap<>(changes);
+                clear = false;
+                changes.clear();
+            }
+
+            synchronized (lock) {
+                try {
+                    changed = applyChanges(shouldClear, pending);
+
+                    if (force) {
+                        buffer.force();
+                    }
+                }
+                catch (final IOException ex) {
+                    Logger.error(TAG, ex.getMessage(), ex);
+
+                    return false;
+                }
+            }
+
+            notifyListeners(changed);
+
+            return true;
+        }
+    }
+}
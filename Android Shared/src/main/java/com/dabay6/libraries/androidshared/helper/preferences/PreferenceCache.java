@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.preferences;
+
+import android.annotation.TargetApi;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PreferenceCache
+ * <p>
+ * An in-memory snapshot of a {@link SharedPreferences} file. Reads never lock and never box: numbers and booleans are
+ * kept in a primitive slot of a typed entry. Writes update the snapshot immediately and are queued until they are
+ * drained into an editor by {@link #drainTo(SharedPreferences.Editor)}, which allows them to be persisted by a
+ * background thread.
+ * </p>
+ * <p>
+ * Changes made to the file without going through the cache are picked up from the change notifications of the
+ * underlying preferences, unless a newer value for the same key is still queued.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class PreferenceCache implements SharedPreferences.OnSharedPreferenceChangeListener {
+    private final static Entry REMOVED = new Entry(Entry.TYPE_REMOVED, 0, null);
+    private final ConcurrentHashMap<String, Entry> pending = new ConcurrentHashMap<>();
+    private final SharedPreferences preferences;
+    private final ConcurrentHashMap<String, Entry> values;
+
+    /**
+     * Creates a snapshot of the given preferences and keeps it up to date with changes made elsewhere.
+     *
+     * @param preferences The preferences to cache.
+     */
+    public PreferenceCache(final SharedPreferences preferences) {
+        final Map<String, ?> all = preferences.getAll();
+
+        this.preferences = preferences;
+        this.values = new ConcurrentHashMap<>(Math.max(16, all.size() * 2));
+
+        for (final Map.Entry<String, ?> entry : all.entrySet()) {
+            final Entry value = Entry.of(entry.getValue());
+
+            if (value != null) {
+                values.put(entry.getKey(), value);
+            }
+        }
+
+        preferences.registerOnSharedPreferenceChangeListener(this);
+    }
+
+    /**
+     * Removes every value from the snapshot and discards queued writes.
+     */
+    public synchronized void clear() {
+        pending.clear();
+        values.clear();
+    }
+
+    /**
+     * @param key The name of the preference to check.
+     *
+     * @return true if the snapshot contains a value for the key.
+     */
+    public boolean contains(final String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * Stops following changes made to the underlying preferences.
+     */
+    public void detach() {
+        preferences.unregisterOnSharedPreferenceChangeListener(this);
+    }
+
+    /**
+     * Copies the queued writes into the given editor. A write made while draining stays queued. Drains and {@link
+     * #clear()} are serialized, so a clear never races a drain that has already taken the values it discards.
+     *
+     * @param editor The editor that will persist the writes.
+     *
+     * @return true if any write was copied into the editor.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    @SuppressWarnings("unchecked")
+    public synchronized boolean drainTo(final SharedPreferences.Editor editor) {
+        boolean hasDrained = false;
+
+        for (final Map.Entry<String, Entry> item : pending.entrySet()) {
+            final String key = item.getKey();
+            final Entry entry = item.getValue();
+
+            if (!pending.remove(key, entry)) {
+                continue;
+            }
+
+            switch (entry.type) {
+                case Entry.TYPE_BOOLEAN:
+                    editor.putBoolean(key, entry.primitive != 0);
+                    break;
+                case Entry.TYPE_FLOAT:
+                    editor.putFloat(key, Float.intBitsToFloat((int) entry.primitive));
+                    break;
+                case Entry.TYPE_INT:
+                    editor.putInt(key, (int) entry.primitive);
+                    break;
+                case Entry.TYPE_LONG:
+                    editor.putLong(key, entry.primitive);
+                    break;
+                case Entry.TYPE_STRING:
+                    editor.putString(key, (String) entry.object);
+                    break;
+                case Entry.TYPE_STRING_SET:
+                    editor.putStringSet(key, (Set<String>) entry.object);
+                    break;
+                default:
+                    editor.remove(key);
+                    break;
+            }
+
+            hasDrained = true;
+        }
+
+        return hasDrained;
+    }
+
+    /**
+     * @return A copy of every value in the snapshot.
+     */
+    public Map<String, ?> getAll() {
+        final Map<String, Object> all = new HashMap<>(values.size());
+
+        for (final Map.Entry<String, Entry> entry : values.entrySet()) {
+            all.put(entry.getKey(), entry.getValue().box());
+        }
+
+        return all;
+    }
+
+    /**
+     * Retrieve a boolean value from the snapshot.
+     *
+     * @param key          The name of the preference to retrieve.
+     * @param defaultValue Value to return if this preference does not exist.
+     *
+     * @return Returns the preference value if it exists, or defaultValue.
+     *
+     * @throws ClassCastException if there is a preference with this name that is not a boolean.
+     */
+    public boolean getBoolean(final String key, final boolean defaultValue) {
+        final Entry entry = values.get(key);
+
+        return entry == null ? defaultValue : entry.primitive(Entry.TYPE_BOOLEAN) != 0;
+    }
+
+    /**
+     * Retrieve a float value from the snapshot.
+     *
+     * @param key          The name of the preference to retrieve.
+     * @param defaultValue Value to return if this preference does not exist.
+     *
+     * @return Returns the preference value if it exists, or defaultValue.
+     *
+     * @throws ClassCastException if there is a preference with this name that is not a float.
+     */
+    public float getFloat(final String key, final float defaultValue) {
+        final Entry entry = values.get(key);
+
+        return entry == null ? defaultValue : Float.intBitsToFloat((int) entry.primitive(Entry.TYPE_FLOAT));
+    }
+
+    /**
+     * Retrieve a int value from the snapshot.
+     *
+     * @param key          The name of the preference to retrieve.
+     * @param defaultValue Value to return if this preference does not exist.
+     *
+     * @return Returns the preference value if it exists, or defaultValue.
+     *
+     * @throws ClassCastException if there is a preference with this name that is not an int.
+     */
+    public int getInt(final String key, final int defaultValue) {
+        final Entry entry = values.get(key);
+
+        return entry == null ? defaultValue : (int) entry.primitive(Entry.TYPE_INT);
+    }
+
+    /**
+     * Retrieve a long value from the snapshot.
+     *
+     * @param key          The name of the preference to retrieve.
+     * @param defaultValue Value to return if this preference does not exist.
+     *
+     * @return Returns the preference value if it exists, or defaultValue.
+     *
+     * @throws ClassCastException if there is a preference with this name that is not a long.
+     */
+    public long getLong(final String key, final long defaultValue) {
+        final Entry entry = values.get(key);
+
+        return entry == null ? defaultValue : entry.primitive(Entry.TYPE_LONG);
+    }
+
+    /**
+     * Retrieve a string value from the snapshot.
+     *
+     * @param key          The name of the preference to retrieve.
+     * @param defaultValue Value to return if this preference does not exist.
+     *
+     * @return Returns the preference value if it exists, or defaultValue.
+     *
+     * @throws ClassCastException if there is a preference with this name that is not a String.
+     */
+    public String getString(final String key, final String defaultValue) {
+        final Entry entry = values.get(key);
+
+        return entry == null ? defaultValue : (String) entry.object(Entry.TYPE_STRING);
+    }
+
+    /**
+     * Retrieve a set of String values from the snapshot. The returned set must not be modified.
+     *
+     * @param key          The name of the preference to retrieve.
+     * @param defaultValue Value to return if this preference does not exist.
+     *
+     * @return Returns the preference value if it exists, or defaultValue.
+     *
+     * @throws ClassCastException if there is a preference with this name that is not a Set.
+     */
+    @SuppressWarnings("unchecked")
+    public Set<String> getStringSet(final String key, final Set<String> defaultValue) {
+        final Entry entry = values.get(key);
+
+        return entry == null ? defaultValue : (Set<String>) entry.object(Entry.TYPE_STRING_SET);
+    }
+
+    /**
+     * @return true if there are writes that have not been drained.
+     */
+    public boolean hasPendingWrites() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onSharedPreferenceChanged(final SharedPreferences sharedPreferences, final String key) {
+        if (key == null || pending.containsKey(key)) {
+            return;
+        }
+
+        if (!sharedPreferences.contains(key)) {
+            values.remove(key);
+            return;
+        }
+
+        final Entry entry = read(sharedPreferences, key, values.get(key));
+
+        if (entry == null) {
+            values.remove(key);
+        }
+        else {
+            values.put(key, entry);
+        }
+    }
+
+    /**
+     * Updates the snapshot with changes that are persisted by some other editor. Queued writes for the same keys are
+     * discarded, as they would otherwise overwrite the newer values.
+     *
+     * @param clear   true if every value was removed before the changes were made.
+     * @param changes The changed values; a null value removes the preference.
+     */
+    public synchronized void publish(final boolean clear, final Map<String, ?> changes) {
+        if (clear) {
+            pending.clear();
+            values.clear();
+        }
+
+        for (final Map.Entry<String, ?> change : changes.entrySet()) {
+            final Entry entry = Entry.of(change.getValue());
+
+            pending.remove(change.getKey());
+
+            if (entry == null) {
+                values.remove(change.getKey());
+            }
+            else {
+                values.put(change.getKey(), entry);
+            }
+        }
+    }
+
+    /**
+     * Set a boolean value in the snapshot and queue it to be written.
+     *
+     * @param key   The name of the preference to modify.
+     * @param value The new value for the preference.
+     */
+    public void putBoolean(final String key, final boolean value) {
+        put(key, new Entry(Entry.TYPE_BOOLEAN, value ? 1 : 0, null));
+    }
+
+    /**
+     * Set a float value in the snapshot and queue it to be written.
+     *
+     * @param key   The name of the preference to modify.
+     * @param value The new value for the preference.
+     */
+    public void putFloat(final String key, final float value) {
+        put(key, new Entry(Entry.TYPE_FLOAT, Float.floatToRawIntBits(value), null));
+    }
+
+    /**
+     * Set a int value in the snapshot and queue it to be written.
+     *
+     * @param key   The name of the preference to modify.
+     * @param value The new value for the preference.
+     */
+    public void putInt(final String key, final int value) {
+        put(key, new Entry(Entry.TYPE_INT, value, null));
+    }
+
+    /**
+     * Set a long value in the snapshot and queue it to be written.
+     *
+     * @param key   The name of the preference to modify.
+     * @param value The new value for the preference.
+     */
+    public void putLong(final String key, final long value) {
+        put(key, new Entry(Entry.TYPE_LONG, value, null));
+    }
+
+    /**
+     * Set a String value in the snapshot and queue it to be written. A null value removes the preference.
+     *
+     * @param key   The name of the preference to modify.
+     * @param value The new value for the preference.
+     */
+    public void putString(final String key, final String value) {
+        put(key, value == null ? REMOVED : new Entry(Entry.TYPE_STRING, 0, value));
+    }
+
+    /**
+     * Set a set of String values in the snapshot and queue it to be written. A null value removes the preference.
+     *
+     * @param key   The name of the preference to modify.
+     * @param value The new value for the preference.
+     */
+    public void putStringSet(final String key, final Set<String> value) {
+        put(key, value == null ? REMOVED : Entry.of(value));
+    }
+
+    /**
+     * Remove a value from the snapshot and queue the removal to be written.
+     *
+     * @param key The name of the preference to remove.
+     */
+    public void remove(final String key) {
+        put(key, REMOVED);
+    }
+
+    private void put(final String key, final Entry entry) {
+        pending.put(key, entry);
+
+        if (entry == REMOVED) {
+            values.remove(key);
+        }
+        else {
+            values.put(key, entry);
+        }
+    }
+
+    /**
+     * Reads a changed value with the typed getter matching the cached entry, which is a single lookup. Only a key the
+     * cache has not seen, or one whose type changed, falls back to copying every value.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static Entry read(final SharedPreferences sharedPreferences, final String key, final Entry cached) {
+        try {
+            if (cached != null) {
+                switch (cached.type) {
+                    case Entry.TYPE_BOOLEAN:
+                        return new Entry(Entry.TYPE_BOOLEAN, sharedPreferences.getBoolean(key, false) ? 1 : 0, null);
+                    case Entry.TYPE_FLOAT:
+                        return new Entry(Entry.TYPE_FLOAT, Float.floatToRawIntBits(sharedPreferences.getFloat(key, 0)),
+                                         null);
+                    case Entry.TYPE_INT:
+                        return new Entry(Entry.TYPE_INT, sharedPreferences.getInt(key, 0), null);
+                    case Entry.TYPE_LONG:
+                        return new Entry(Entry.TYPE_LONG, sharedPreferences.getLong(key, 0), null);
+                    case Entry.TYPE_STRING:
+                        return Entry.of(sharedPreferences.getString(key, null));
+                    case Entry.TYPE_STRING_SET:
+                        return Entry.of(sharedPreferences.getStringSet(key, null));
+                    default:
+                        break;
+                }
+            }
+        }
+        catch (final ClassCastException ignored) {
+            // the type changed, so read it untyped below
+        }
+
+        return Entry.of(sharedPreferences.getAll().get(key));
+    }
+
+    /**
+     * A cached value. Booleans, floats (as raw bits), ints and longs are held in the primitive slot; strings and sets
+     * in the object slot.
+     */
+    private static class Entry {
+        final static byte TYPE_BOOLEAN = 1;
+        final static byte TYPE_FLOAT = 2;
+        final static byte TYPE_INT = 3;
+        final static byte TYPE_LONG = 4;
+        final static byte TYPE_REMOVED = 0;
+        final static byte TYPE_STRING = 5;
+        final static byte TYPE_STRING_SET = 6;
+        final Object object;
+        final long primitive;
+        final byte type;
+
+        Entry(final byte type, final long primitive, final Object object) {
+            this.type = type;
+            this.primitive = primitive;
+            this.object = object;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Entry of(final Object value) {
+            if (value instanceof Boolean) {
+                return new Entry(TYPE_BOOLEAN, (Boolean) value ? 1 : 0, null);
+            }
+            if (value instanceof Float) {
+                return new Entry(TYPE_FLOAT, Float.floatToRawIntBits((Float) value), null);
+            }
+            if (value instanceof Integer) {
+                return new Entry(TYPE_INT, (Integer) value, null);
+            }
+            if (value instanceof Long) {
+                return new Entry(TYPE_LONG, (Long) value, null);
+            }
+            if (value instanceof String) {
+                return new Entry(TYPE_STRING, 0, value);
+            }
+            if (value instanceof Set) {
+                return new Entry(TYPE_STRING_SET, 0,
+                                 Collections.unmodifiableSet(new HashSet<>((Set<String>) value)));
+            }
+
+            return null;
+        }
+
+        Object box() {
+            switch (type) {
+                case TYPE_BOOLEAN:
+                    return primitive != 0;
+                case TYPE_FLOAT:
+                    return Float.intBitsToFloat((int) primitive);
+                case TYPE_INT:
+                    return (int) primitive;
+                case TYPE_LONG:
+                    return primitive;
+                default:
+                    return object;
+            }
+        }
+
+        Object object(final byte expected) {
+            if (type != expected) {
+                throw new ClassCastException("Preference is not of the requested type.");
+            }
+
+            return object;
+        }
+
+        long primitive(final byte expected) {
+            if (type != expected) {
+                throw new ClassCastException("Preference is not of the requested type.");
+            }
+
+            return primitive;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.preferences;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+import com.dabay6.libraries.androidshared.logging.Logger;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PreferencePreloader
+ * <p>
+ * Loads preference files on background threads so that the first read on the main thread does not have to parse
+ * the XML file. Files are loaded in parallel; a caller that needs a file before it has been loaded waits for that
+ * file only, see {@link #await(String)}. The time spent loading each file is recorded.
+ * </p>
+ * <p>
+ * When finding the files to load itself needs the disk, for example listing a directory, pass a {@link Callable} to
+ * {@link #preload(Context, Callable)} and the names are looked up on a background thread as well.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public final class PreferencePreloader {
+    private final static int MAX_THREADS = 4;
+    private final static ConcurrentHashMap<String, Load> LOADS = new ConcurrentHashMap<>();
+    private final static String TAG = Logger.makeTag(PreferencePreloader.class);
+    private final static ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "PreferencePreloader");
+
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    };
+
+    /**
+     * Hidden constructor.
+     */
+    private PreferencePreloader() {
+    }
+
+    /**
+     * Waits until the preference file with the given name has been loaded, if it is being preloaded.
+     *
+     * @param name The preferences name.
+     */
+    public static void await(final String name) {
+        final Load load = LOADS.get(name);
+
+        if (load == null) {
+            return;
+        }
+
+        try {
+            load.latch.await();
+        }
+        catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param context The {@link Context} used to determine the package name.
+     *
+     * @return The name of the file used by {@link
+     * android.preference.PreferenceManager#getDefaultSharedPreferences(Context)}.
+     */
+    public static String getDefaultName(final Context context) {
+        return context.getPackageName() + "_preferences";
+    }
+
+    /**
+     * @param name The preferences name.
+     *
+     * @return The time spent loading the file in milliseconds, or -1 if it has not been preloaded.
+     */
+    public static long getLoadTime(final String name) {
+        final Load load = LOADS.get(name);
+
+        return load == null ? -1 : TimeUnit.NANOSECONDS.toMillis(load.nanos);
+    }
+
+    /**
+     * @return The time spent loading each preloaded file in milliseconds, by preferences name.
+     */
+    public static Map<String, Long> getLoadTimes() {
+        final Map<String, Long> times = new HashMap<>();
+
+        for (final Map.Entry<String, Load> entry : LOADS.entrySet()) {
+            if (entry.getValue().latch.getCount() == 0) {
+                times.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue().nanos));
+            }
+        }
+
+        return times;
+    }
+
+    /**
+     * Starts loading the default preferences and the named preference files in the background. Files that are
+     * already loaded, or being loaded, are skipped.
+     *
+     * @param context The {@link Context} used to access {@link SharedPreferences}.
+     * @param names   The names of the other preference files to load.
+     */
+    public static void preload(final Context context, final Collection<String> names) {
+        if (context == null) {
+            throw new IllegalArgumentException("Context must not be null.");
+        }
+
+        final Context applicationContext = context.getApplicationContext();
+        final Set<String> pending = new LinkedHashSet<>();
+
+        pending.add(getDefaultName(applicationContext));
+        if (names != null) {
+            pending.addAll(names);
+        }
+
+        ExecutorService executor = null;
+
+        for (final String name : pending) {
+            final Load load = new Load();
+
+            if (LOADS.putIfAbsent(name, load) != null) {
+                continue;
+            }
+
+            if (executor == null) {
+                executor = Executors.newFixedThreadPool(Math.min(pending.size(), MAX_THREADS), THREAD_FACTORY);
+            }
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final long start = System.nanoTime();
+
+                    try {
+                        applicationContext.getSharedPreferences(name, Context.MODE_PRIVATE).getAll();
+                    }
+                    finally {
+                        load.nanos = System.nanoTime() - start;
+                        load.latch.countDown();
+                    }
+
+                    Logger.event(LogLevels.DEBUG, TAG, "prefs_preload")
+                          .put("name", name)
+                          .put("millis", TimeUnit.NANOSECONDS.toMillis(load.nanos))
+                          .log();
+                }
+            });
+        }
+
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Starts loading the default preferences in the background at once, and the files named by <code>names</code> as
+     * soon as it has been called on a background thread. Nothing is read from the disk on the calling thread.
+     *
+     * @param context The {@link Context} used to access {@link SharedPreferences}.
+     * @param names   Returns the names of the other preference files to load; called on a background thread.
+     */
+    public static void preload(final Context context, final Callable<? extends Collection<String>> names) {
+        if (names == null) {
+            throw new IllegalArgumentException("Names must not be null.");
+        }
+
+        preload(context, (Collection<String>) null);
+
+        final Context applicationContext = context.getApplicationContext();
+
+        THREAD_FACTORY.newThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    preload(applicationContext, names.call());
+                }
+                catch (final Exception ex) {
+                    Logger.error(TAG, "Unable to find the preference files to preload.", ex);
+                }
+            }
+        }).start();
+    }
+
+    /**
+     * A file being preloaded.
+     */
+    private static class Load {
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile long nanos;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.selection;
+
+import android.widget.Adapter;
+
+import com.dabay6.libraries.androidshared.util.CollectionUtils;
+import com.dabay6.libraries.androidshared.util.collections.LongHashSet;
+
+/**
+ * IdSelectionModel
+ * <p>
+ * Keeps the ids of the selected rows in a {@link LongHashSet}. The selection survives rows being added, removed or
+ * reordered, and the memory used depends only on the number of selected rows, which suits large lists where few rows
+ * are selected. This is the default model.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class IdSelectionModel implements SelectionModel {
+    private final LongHashSet selectedIds = CollectionUtils.newLongSet();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        selectedIds.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCount() {
+        return selectedIds.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getSelectedIds(final Adapter adapter) {
+        return selectedIds.toArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invert(final Adapter adapter) {
+        final int count = adapter.getCount();
+
+        for (int position = 0; position < count; position++) {
+            final long itemId = adapter.getItemId(position);
+
+            if (!selectedIds.remove(itemId)) {
+                selectedIds.add(itemId);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSelected(final int position, final long itemId) {
+        return selectedIds.contains(itemId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void restore(final long[] state) {
+        selectedIds.clear();
+
+        if (state != null) {
+            selectedIds.addAll(state);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] save() {
+        return selectedIds.toArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setRangeSelected(final Adapter adapter, final int start, final int end, final boolean isSelected) {
+        if (isSelected) {
+            selectedIds.ensureCapacity(selectedIds.size() + end - start);
+        }
+
+        for (int position = start; position < end; position++) {
+            setSelected(position, adapter.getItemId(position), isSelected);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean setSelected(final int position, final long itemId, final boolean isSelected) {
+        return isSelected ? selectedIds.add(itemId) : selectedIds.remove(itemId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean usesPositions() {
+        return false;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.selection;
+
+import android.widget.Adapter;
+
+import java.util.BitSet;
+
+/**
+ * PositionSelectionModel
+ * <p>
+ * Keeps the positions of the selected rows in a {@link BitSet}, using one bit per row. Range operations work a word
+ * of 64 rows at a time, which suits dense selections such as "select all" on a large list. Positions are not adjusted
+ * when rows are added or removed, so the selection should be cleared when the rows change.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class PositionSelectionModel implements SelectionModel {
+    private final BitSet selectedPositions = new BitSet();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        selectedPositions.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCount() {
+        return selectedPositions.cardinality();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getSelectedIds(final Adapter adapter) {
+        final int count = adapter.getCount();
+        final long[] ids = new long[selectedPositions.get(0, count).cardinality()];
+        int index = 0;
+
+        for (int i = selectedPositions.nextSetBit(0); i >= 0 && i < count; i = selectedPositions.nextSetBit(i + 1)) {
+            ids[index++] = adapter.getItemId(i);
+        }
+
+        return ids;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invert(final Adapter adapter) {
+        selectedPositions.flip(0, adapter.getCount());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSelected(final int position, final long itemId) {
+        return position >= 0 && selectedPositions.get(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void restore(final long[] state) {
+        selectedPositions.clear();
+
+        if (state != null) {
+            for (final long position : state) {
+                // state saved as ids before the selection models existed can hold values that are not positions
+                if (position >= 0 && position <= Integer.MAX_VALUE) {
+                    selectedPositions.set((int) position);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] save() {
+        final long[] state = new long[selectedPositions.cardinality()];
+        int index = 0;
+
+        for (int i = selectedPositions.nextSetBit(0); i >= 0; i = selectedPositions.nextSetBit(i + 1)) {
+            state[index++] = i;
+        }
+
+        return state;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setRangeSelected(final Adapter adapter, final int start, final int end, final boolean isSelected) {
+        selectedPositions.set(start, end, isSelected);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean setSelected(final int position, final long itemId, final boolean isSelected) {
+        if (position < 0 || selectedPositions.get(position) == isSelected) {
+            return false;
+        }
+
+        selectedPositions.set(position, isSelected);
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean usesPositions() {
+        return true;
+    }
+}
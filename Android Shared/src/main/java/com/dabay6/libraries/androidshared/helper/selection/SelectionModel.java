@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.selection;
+
+import android.widget.Adapter;
+
+/**
+ * SelectionModel
+ * <p>
+ * Stores the rows selected in a {@link com.dabay6.libraries.androidshared.helper.CheckableAdapterHelper}. Rows are
+ * described by both their position and their id, and each model decides which of the two it keeps. The bulk
+ * operations change any number of rows without notifying anyone; the caller notifies once afterwards.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public interface SelectionModel {
+    /**
+     * Deselects every row.
+     */
+    void clear();
+
+    /**
+     * @return The number of selected rows.
+     */
+    int getCount();
+
+    /**
+     * Retrieves the ids of the selected rows.
+     *
+     * @param adapter The adapter holding the rows.
+     *
+     * @return The ids of the selected rows.
+     */
+    long[] getSelectedIds(Adapter adapter);
+
+    /**
+     * Selects every unselected row and deselects every selected row.
+     *
+     * @param adapter The adapter holding the rows.
+     */
+    void invert(Adapter adapter);
+
+    /**
+     * @param position The position of the row.
+     * @param itemId   The id of the row.
+     *
+     * @return True if the row is selected, otherwise false.
+     */
+    boolean isSelected(int position, long itemId);
+
+    /**
+     * Replaces the selection with one returned by {@link #save()}.
+     *
+     * @param state The saved selection.
+     */
+    void restore(long[] state);
+
+    /**
+     * @return The selection in a form accepted by {@link #restore(long[])}.
+     */
+    long[] save();
+
+    /**
+     * Selects or deselects a range of rows.
+     *
+     * @param adapter    The adapter holding the rows.
+     * @param start      The position of the first row.
+     * @param end        The position after the last row.
+     * @param isSelected True to select the rows, false to deselect them.
+     */
+    void setRangeSelected(Adapter adapter, int start, int end, boolean isSelected);
+
+    /**
+     * Selects or deselects a row.
+     *
+     * @param position   The position of the row.
+     * @param itemId     The id of the row.
+     * @param isSelected True to select the row, false to deselect it.
+     *
+     * @return True if the selection changed, otherwise false.
+     */
+    boolean setSelected(int position, long itemId, boolean isSelected);
+
+    /**
+     * @return True if rows are identified by position, so the position of a row must be known to change it.
+     */
+    boolean usesPositions();
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.selection;
+
+import android.os.Bundle;
+
+import com.dabay6.libraries.androidshared.logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SelectionState
+ * <p>
+ * Writes a saved selection to a {@link Bundle} in a compact form. The values are sorted and split into runs of
+ * consecutive values; each run is stored as the varint gap from the end of the previous run followed by the varint
+ * length of the run. A contiguous selection therefore takes a few bytes however many rows it covers, and scattered
+ * ids take one to three bytes each instead of eight.
+ * </p>
+ * <p>
+ * When the encoded selection is larger than {@link #SPILL_THRESHOLD} bytes and a directory is available, it is
+ * written to a file in that directory and only the path is kept in the {@link Bundle}, keeping the saved state well
+ * under the binder transaction limit. The file is written under a temporary name and renamed once complete. It is
+ * kept after it has been restored, since the same state can be restored more than once, and files older than a day
+ * are removed whenever another one is written.
+ * </p>
+ * <p>
+ * Saved state that cannot be decoded, whether truncated, corrupt or written by another version, is treated as no
+ * selection rather than an error.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public final class SelectionState {
+    public final static int SPILL_THRESHOLD = 16 * 1024;
+    private final static String FILE_PREFIX = "selection-";
+    private final static String FILE_SUFFIX = ".bin";
+    private final static String KEY_FILE_SUFFIX = "_FILE";
+    private final static String KEY_STATE_SUFFIX = "_STATE";
+    private final static long MAX_FILE_AGE = TimeUnit.DAYS.toMillis(1);
+    private final static String TAG = Logger.makeTag(SelectionState.class);
+    private final static String TEMP_SUFFIX = ".tmp";
+    private final static int VERSION = 1;
+
+    /**
+     * Hidden constructor.
+     */
+    private SelectionState() {
+    }
+
+    /**
+     * Decodes values written by {@link #encode(long[])}.
+     *
+     * @param data The encoded values.
+     *
+     * @return The values, in ascending order.
+     *
+     * @throws IllegalArgumentException If the data is truncated, corrupt or of an unsupported version.
+     */
+    public static long[] decode(final byte[] data) {
+        if (data.length == 0 || data[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported selection state.");
+        }
+
+        final int[] offset = new int[]{1};
+        final long count = readVarint(data, offset);
+        final int start = offset[0];
+
+        // the runs are checked against the count before anything is allocated for them
+        long total = 0;
+
+        while (offset[0] < data.length) {
+            readVarint(data, offset);
+
+            final long length = readVarint(data, offset);
+
+            if (length <= 0 || length > count - total) {
+                throw new IllegalArgumentException("Corrupt selection state.");
+            }
+
+            total += length;
+        }
+
+        if (total != count || count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Corrupt selection state.");
+        }
+
+        final long[] values = new long[(int) count];
+        int index = 0;
+        long next = 0;
+
+        offset[0] = start;
+
+        while (index < count) {
+            final long gap = readVarint(data, offset);
+            final long length = readVarint(data, offset);
+
+            // the first run stores its start in zig-zag form, as ids may be negative
+            long value = index == 0 ? (gap >>> 1) ^ -(gap & 1) : next + gap;
+
+            for (long i = 0; i < length; i++) {
+                values[index++] = value++;
+            }
+
+            next = value;
+        }
+
+        return values;
+    }
+
+    /**
+     * Encodes values as sorted runs. Duplicate values are kept once.
+     *
+     * @param values The values to encode; the array is not changed.
+     *
+     * @return The encoded values.
+     */
+    public static byte[] encode(final long[] values) {
+        final long[] sorted = values.clone();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(16 + sorted.length);
+        int count = 0;
+
+        Arrays.sort(sorted);
+
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+
+        output.write(VERSION);
+        writeVarint(output, count);
+
+        long next = 0;
+
+        for (int start = 0; start < count; ) {
+            int end = start + 1;
+
+            while (end < count && sorted[end] == sorted[end - 1] + 1) {
+                end += 1;
+            }
+
+            final long first = sorted[start];
+
+            writeVarint(output, start == 0 ? (first << 1) ^ (first >> 63) : first - next);
+            writeVarint(output, end - start);
+
+            next = sorted[end - 1] + 1;
+            start = end;
+        }
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Retrieves a selection written by {@link #save(Bundle, String, long[], File)}.
+     *
+     * @param bundle The bundle holding the selection.
+     * @param key    The key the selection was saved under.
+     *
+     * @return The values, or null if the bundle holds no selection under the key or it cannot be read.
+     */
+    public static long[] restore(final Bundle bundle, final String key) {
+        try {
+            final byte[] state = bundle.getByteArray(key + KEY_STATE_SUFFIX);
+
+            if (state != null) {
+                return decode(state);
+            }
+
+            final String path = bundle.getString(key + KEY_FILE_SUFFIX);
+
+            if (path == null) {
+                return null;
+            }
+
+            return read(new File(path));
+        }
+        catch (final IOException | RuntimeException ex) {
+            Logger.error(TAG, "Unable to read the saved selection.", ex);
+
+            return null;
+        }
+    }
+
+    /**
+     * Saves a selection to a bundle, spilling it to a file in <code>directory</code> if it is large.
+     *
+     * @param bundle    The bundle to save to.
+     * @param key       The key to save the selection under.
+     * @param values    The selected values.
+     * @param directory The directory large selections are written to, or null to always keep them in the bundle.
+     */
+    public static void save(final Bundle bundle, final String key, final long[] values, final File directory) {
+        final byte[] data = encode(values);
+
+        if (data.length > SPILL_THRESHOLD && directory != null) {
+            try {
+                final File file = write(directory, data);
+
+                bundle.putString(key + KEY_FILE_SUFFIX, file.getAbsolutePath());
+
+                return;
+            }
+            catch (final IOException ex) {
+                Logger.error(TAG, "Unable to write the selection to a file, keeping it in the bundle.", ex);
+            }
+        }
+
+        bundle.putByteArray(key + KEY_STATE_SUFFIX, data);
+    }
+
+    /**
+     * Reads a selection written by {@link #write(File, byte[])}.
+     *
+     * @param file The file holding the selection.
+     *
+     * @return The values, in ascending order.
+     *
+     * @throws IOException If the file cannot be read.
+     */
+    static long[] read(final File file) throws IOException {
+        final long length = file.length();
+
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Saved selection is too large: " + file);
+        }
+
+        final DataInputStream input = new DataInputStream(new FileInputStream(file));
+
+        try {
+            final byte[] data = new byte[(int) length];
+
+            input.readFully(data);
+
+            return decode(data);
+        }
+        finally {
+            input.close();
+        }
+    }
+
+    private static long readVarint(final byte[] data, final int[] offset) {
+        long value = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            if (offset[0] >= data.length || shift > 63) {
+                throw new IllegalArgumentException("Truncated selection state.");
+            }
+
+            final byte b = data[offset[0]++];
+
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Writes encoded values to a new file in the directory. The data is written to a temporary file, synced and then
+     * renamed, so the file either holds the whole selection or does not exist.
+     *
+     * @param directory The directory to write to.
+     * @param data      The encoded values.
+     *
+     * @return The file written.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    static File write(final File directory, final byte[] data) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+
+        final File[] files = directory.listFiles();
+        final long oldest = System.currentTimeMillis() - MAX_FILE_AGE;
+
+        if (files != null) {
+            for (final File file : files) {
+                if (file.getName().startsWith(FILE_PREFIX) && file.lastModified() < oldest && !file.delete()) {
+                    Logger.warn(TAG, "Unable to delete " + file);
+                }
+            }
+        }
+
+        final File temp = File.createTempFile(FILE_PREFIX, TEMP_SUFFIX, directory);
+        final String name = temp.getName();
+        final File file = new File(directory, name.substring(0, name.length() - TEMP_SUFFIX.length()) + FILE_SUFFIX);
+        boolean isWritten = false;
+
+        try {
+            final FileOutputStream output = new FileOutputStream(temp);
+
+            try {
+                output.write(data);
+                output.getFD().sync();
+            }
+            finally {
+                output.close();
+            }
+
+            if (!temp.renameTo(file)) {
+                throw new IOException("Unable to rename " + temp + " to " + file);
+            }
+
+            isWritten = true;
+        }
+        finally {
+            if (!isWritten && !temp.delete()) {
+                Logger.warn(TAG, "Unable to delete " + temp);
+            }
+        }
+
+        return file;
+    }
+
+    private static void writeVarint(final ByteArrayOutputStream output, final long value) {
+        long remaining = value;
+
+        while ((remaining & ~0x7FL) != 0) {
+            output.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+
+        output.write((int) remaining);
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * BinaryLogDecoder
+ * <p>
+ * Turns files written in the {@link BinaryLogFormat} back into text or JSON lines. This class only depends on the
+ * Java runtime so it can be run off-device:
+ * </p>
+ * <pre>
+ * java -cp android-shared.jar com.dabay6.libraries.androidshared.logging.BinaryLogDecoder [--json] file...
+ * </pre>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public final class BinaryLogDecoder {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+    private final boolean isJson;
+
+    /**
+     * @param isJson True to write JSON lines, otherwise plain text lines.
+     */
+    public BinaryLogDecoder(final boolean isJson) {
+        this.isJson = isJson;
+    }
+
+    /**
+     * Decodes every record in a stream. The stream must start with the file header. A record cut short at the end of
+     * the stream, as left by a process that died while writing, is skipped.
+     *
+     * @param input  The encoded records.
+     * @param output Receives one line per record.
+     *
+     * @throws IOException if the stream cannot be read or is not in the expected format.
+     */
+    public void decode(final InputStream input, final Appendable output) throws IOException {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        final byte[] magic = new byte[BinaryLogFormat.MAGIC.length];
+        byte[] record = new byte[256];
+
+        data.readFully(magic);
+        for (int i = 0; i < magic.length; i++) {
+            if (magic[i] != BinaryLogFormat.MAGIC[i]) {
+                throw new IOException("Not a binary log file.");
+            }
+        }
+
+        final int version = data.readUnsignedByte();
+
+        if (version != BinaryLogFormat.VERSION) {
+            throw new IOException("Unsupported binary log version " + version + ".");
+        }
+
+        while (true) {
+            final int length;
+
+            try {
+                length = (int) readVarint(data);
+            }
+            catch (final EOFException ex) {
+                break;
+            }
+
+            if (record.length < length) {
+                record = new byte[length];
+            }
+
+            try {
+                data.readFully(record, 0, length);
+            }
+            catch (final EOFException ex) {
+                break;
+            }
+
+            appendRecord(output, record, 0);
+            output.append('\n');
+        }
+    }
+
+    /**
+     * Appends a single decoded record.
+     *
+     * @param output The destination.
+     * @param record The array holding the record, without its length prefix.
+     * @param offset The offset of the record.
+     *
+     * @throws IOException if the output fails.
+     */
+    void appendRecord(final Appendable output, final byte[] record, final int offset) throws IOException {
+        final Cursor cursor = new Cursor(record, offset);
+        final long timestamp = cursor.readLong();
+        final char level = BinaryLogFormat.levelChar(cursor.readByte());
+        final String tag = cursor.readString();
+        final String name = cursor.readString();
+        final long count = cursor.readVarint();
+
+        if (isJson) {
+            output.append("{\"time\":").append(Long.toString(timestamp));
+            output.append(",\"level\":\"").append(level).append('"');
+            output.append(",\"tag\":");
+            appendJsonString(output, tag);
+            output.append(",\"event\":");
+            appendJsonString(output, name);
+            output.append(",\"fields\":{");
+
+            for (long i = 0; i < count; i++) {
+                if (i > 0) {
+                    output.append(',');
+                }
+                appendJsonString(output, cursor.readString());
+                output.append(':');
+                appendValue(output, cursor, true);
+            }
+
+            output.append("}}");
+        }
+        else {
+            output.append(dateFormat.format(new Date(timestamp))).append(' ');
+            output.append(level).append('/').append(tag).append(": ");
+            appendFields(output, name, cursor, count);
+        }
+    }
+
+    /**
+     * Appends the event name and its fields as <code>name key=value key=value</code>.
+     *
+     * @param output The destination.
+     * @param record The array holding the record, without its length prefix.
+     * @param offset The offset of the record.
+     *
+     * @throws IOException if the output fails.
+     */
+    static void appendMessage(final Appendable output, final byte[] record, final int offset) throws IOException {
+        final Cursor cursor = new Cursor(record, offset);
+
+        cursor.readLong();
+        cursor.readByte();
+        cursor.readString();
+
+        final String name = cursor.readString();
+
+        appendFields(output, name, cursor, cursor.readVarint());
+    }
+
+    /**
+     * Decodes the files named on the command line to standard out.
+     *
+     * @param args <code>[--json] file...</code>
+     *
+     * @throws IOException if a file cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        final Writer output = new BufferedWriter(new OutputStreamWriter(System.out, UTF_8));
+        boolean isJson = false;
+        int first = 0;
+
+        if (args.length > 0 && "--json".equals(args[0])) {
+            isJson = true;
+            first = 1;
+        }
+
+        if (first >= args.length) {
+            System.err.println("usage: BinaryLogDecoder [--json] file...");
+            System.exit(2);
+        }
+
+        final BinaryLogDecoder decoder = new BinaryLogDecoder(isJson);
+
+        for (int i = first; i < args.length; i++) {
+            final InputStream input = new FileInputStream(args[i]);
+
+            try {
+                decoder.decode(input, output);
+            }
+            finally {
+                input.close();
+            }
+        }
+
+        output.flush();
+    }
+
+    private static void appendFields(final Appendable output, final String name, final Cursor cursor,
+                                     final long count) throws IOException {
+        output.append(name);
+
+        for (long i = 0; i < count; i++) {
+            output.append(' ').append(cursor.readString()).append('=');
+            appendValue(output, cursor, false);
+        }
+    }
+
+    private static void appendJsonString(final Appendable output, final String value) throws IOException {
+        output.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    output.append("\\\"");
+                    break;
+                case '\\':
+                    output.append("\\\\");
+                    break;
+                case '\n':
+                    output.append("\\n");
+                    break;
+                case '\r':
+                    output.append("\\r");
+                    break;
+                case '\t':
+                    output.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        output.append(String.format(Locale.US, "\\u%04x", (int) c));
+                    }
+                    else {
+                        output.append(c);
+                    }
+            }
+        }
+
+        output.append('"');
+    }
+
+    private static void appendValue(final Appendable output, final Cursor cursor, final boolean isJson)
+            throws IOException {
+        final byte type = cursor.readByte();
+
+        switch (type) {
+            case BinaryLogFormat.TYPE_NULL:
+                output.append("null");
+                break;
+            case BinaryLogFormat.TYPE_LONG: {
+                final long raw = cursor.readVarint();
+
+                output.append(Long.toString((raw >>> 1) ^ -(raw & 1)));
+                break;
+            }
+            case BinaryLogFormat.TYPE_DOUBLE: {
+                final double value = Double.longBitsToDouble(cursor.readLong());
+
+                if (isJson && (Double.isNaN(value) || Double.isInfinite(value))) {
+                    output.append("null");
+                }
+                else {
+                    output.append(Double.toString(value));
+                }
+                break;
+            }
+            case BinaryLogFormat.TYPE_BOOLEAN:
+                output.append(cursor.readByte() != 0 ? "true" : "false");
+                break;
+            case BinaryLogFormat.TYPE_STRING:
+                if (isJson) {
+                    appendJsonString(output, cursor.readString());
+                }
+                else {
+                    output.append(cursor.readString());
+                }
+                break;
+            default:
+                throw new IOException("Unknown field type " + type + ".");
+        }
+    }
+
+    private static long readVarint(final DataInputStream input) throws IOException {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = input.readUnsignedByte();
+
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint.");
+    }
+
+    /**
+     * Reads primitive values from a record held in memory.
+     */
+    private static class Cursor {
+        private final byte[] buffer;
+        private int position;
+
+        Cursor(final byte[] buffer, final int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        long readLong() {
+            long value = 0;
+
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+
+            return value;
+        }
+
+        String readString() {
+            final int length = (int) readVarint();
+            final String value = new String(buffer, position, length, UTF_8);
+
+            position += length;
+
+            return value;
+        }
+
+        long readVarint() {
+            long value = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int b = buffer[position++] & 0xFF;
+
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import android.util.Log;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * BinaryLogFileSink
+ * <p>
+ * Appends structured log records to a file in the {@link BinaryLogFormat}. Use {@link BinaryLogDecoder} to read the
+ * file back.
+ * </p>
+ * <p>
+ * Records are buffered, and the buffer is written to the file after every {@link LogLevels#ERROR} record, so the
+ * records leading up to an error are on disk if the process dies right after it.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class BinaryLogFileSink implements BinaryLogSink {
+    private final static int BUFFER_SIZE = 16 * 1024;
+    private final static int FLUSH_LEVEL = LogLevels.ERROR.index();
+    private final static String TAG = Logger.makeTag(BinaryLogFileSink.class);
+    private final OutputStream output;
+
+    /**
+     * @param file The file records are appended to. The file header is written if the file is new or empty.
+     *
+     * @throws IOException if the file cannot be opened.
+     */
+    public BinaryLogFileSink(final File file) throws IOException {
+        final File parent = file.getParentFile();
+        final boolean isNew = !file.exists() || file.length() == 0;
+
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Unable to create " + parent);
+        }
+
+        output = new BufferedOutputStream(new FileOutputStream(file, true), BUFFER_SIZE);
+
+        if (isNew) {
+            output.write(BinaryLogFormat.MAGIC);
+            output.write(BinaryLogFormat.VERSION);
+        }
+    }
+
+    /**
+     * Flushes buffered records and closes the file.
+     */
+    public synchronized void close() {
+        try {
+            output.close();
+        }
+        catch (final IOException ex) {
+            Log.w(TAG, "Unable to close binary log.", ex);
+        }
+    }
+
+    /**
+     * Writes buffered records to the file.
+     */
+    public synchronized void flush() {
+        try {
+            output.flush();
+        }
+        catch (final IOException ex) {
+            Log.w(TAG, "Unable to flush binary log.", ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void write(final byte[] record, final int offset, final int length) {
+        try {
+            output.write(record, offset, length);
+
+            if (BinaryLogFormat.levelOf(record, offset) >= FLUSH_LEVEL) {
+                output.flush();
+            }
+        }
+        catch (final IOException ex) {
+            Log.w(TAG, "Unable to write binary log.", ex);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+/**
+ * BinaryLogFormat
+ * <p>
+ * Describes the binary structured log format. A file starts with the four magic bytes <code>DBLG</code> followed by a
+ * single version byte. Each record then consists of:
+ * </p>
+ * <ul>
+ * <li>the length of the remainder of the record as an unsigned varint</li>
+ * <li>the timestamp, in milliseconds since the epoch, as a big-endian 8 byte long</li>
+ * <li>the level index as a single byte (see {@link com.dabay6.libraries.androidshared.enums.LogLevels#index()})</li>
+ * <li>the tag and the event name as strings</li>
+ * <li>the number of fields as an unsigned varint, followed by each field as a key string, a type byte and a
+ * value</li>
+ * </ul>
+ * <p>
+ * Strings are an unsigned varint byte count followed by UTF-8 bytes. Integral values are zig-zag encoded varints,
+ * doubles are big-endian IEEE 754 bits and booleans are a single byte.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+final class BinaryLogFormat {
+    static final byte[] MAGIC = {'D', 'B', 'L', 'G'};
+    static final byte TYPE_BOOLEAN = 3;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_NULL = 0;
+    static final byte TYPE_STRING = 4;
+    static final byte VERSION = 1;
+
+    /**
+     * Hidden constructor.
+     */
+    private BinaryLogFormat() {
+    }
+
+    /**
+     * Reads the level index of an encoded record.
+     *
+     * @param record The array holding the record.
+     * @param offset The offset of the record's length prefix.
+     *
+     * @return The level index.
+     */
+    static int levelOf(final byte[] record, final int offset) {
+        int position = offset;
+
+        while ((record[position] & 0x80) != 0) {
+            position += 1;
+        }
+
+        // the level follows the last byte of the length and the 8 byte timestamp
+        return record[position + 9];
+    }
+
+    /**
+     * Returns the logcat style abbreviation of a level index without depending on the Android runtime.
+     *
+     * @param index The level index.
+     *
+     * @return The level abbreviation.
+     */
+    static char levelChar(final int index) {
+        switch (index) {
+            case 0:
+                return 'V';
+            case 1:
+                return 'D';
+            case 2:
+                return 'I';
+            case 3:
+                return 'W';
+            default:
+                return 'E';
+        }
+    }
+}
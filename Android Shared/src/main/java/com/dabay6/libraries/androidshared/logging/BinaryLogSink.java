@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+/**
+ * BinaryLogSink
+ * <p>
+ * A destination for structured log records encoded in the {@link BinaryLogFormat}. When at least one binary sink is
+ * registered, structured events are written only to binary sinks, otherwise they are rendered as text and written
+ * to the regular {@link LogSink}s.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public interface BinaryLogSink {
+    /**
+     * Writes a single encoded record. The array is reused by the caller once this method returns.
+     *
+     * @param record The array holding the record.
+     * @param offset The offset of the first byte of the record.
+     * @param length The length of the record in bytes.
+     */
+    void write(final byte[] record, final int offset, final int length);
+}
@@ -0,0 +1,519 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+import com.dabay6.libraries.androidshared.enums.OverflowPolicy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FileLogSink
+ * <p>
+ * Writes log messages to size-rotated files without blocking the caller. Messages are placed in a bounded lock-free
+ * ring buffer and a single background thread drains it, encoding batches into a reused direct buffer before writing
+ * them to disk. When a message would take the current file past the maximum size the file is renamed to
+ * <code>name.1.log</code>, older files are shifted up by one and the oldest is deleted; only a single message larger
+ * than the maximum size is written to a file of its own.
+ * </p>
+ * <p>
+ * If the file cannot be written the unwritten batch is discarded and the file is closed. Messages are dropped while
+ * the file is closed, and it is reopened on the first message after a second has passed.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class FileLogSink implements LogSink {
+    private final static long BLOCK_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private final static long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private final static String LOG_EXTENSION = ".log";
+    private final static long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private final static String TAG = Logger.makeTag(FileLogSink.class);
+    private final File directory;
+    private final AtomicLong dropped = new AtomicLong();
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final String name;
+    private final OverflowPolicy overflowPolicy;
+    private final LogEventQueue queue;
+    private final Thread writer;
+    private volatile boolean isRunning = true;
+    private volatile boolean isWriterParked;
+
+    private FileLogSink(final Builder builder) {
+        directory = builder.directory;
+        maxFileSize = builder.maxFileSize;
+        maxFiles = builder.maxFiles;
+        name = builder.name;
+        overflowPolicy = builder.overflowPolicy;
+        queue = new LogEventQueue(builder.capacity);
+
+        writer = new Thread(new Writer(builder.bufferSize), "FileLogSink-" + name);
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting new messages, writes any buffered messages and closes the current file.
+     *
+     * @param timeout The maximum time, in milliseconds, to wait for buffered messages to be written.
+     */
+    public void close(final long timeout) {
+        isRunning = false;
+        LockSupport.unpark(writer);
+
+        try {
+            writer.join(timeout);
+        }
+        catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The number of messages discarded because the buffer was full or the file could not be written.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return The file messages are currently being written to.
+     */
+    public File getLogFile() {
+        return getLogFile(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final LogLevels level, final String tag, final String message, final Throwable throwable) {
+        if (!isRunning) {
+            return;
+        }
+
+        final LogEvent event = new LogEvent(System.currentTimeMillis(), level, tag, message, throwable);
+
+        while (!queue.offer(event)) {
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                dropped.incrementAndGet();
+                return;
+            }
+
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BLOCK_BACKOFF_NANOS);
+
+            if (!isRunning) {
+                return;
+            }
+        }
+
+        if (isWriterParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * @param index The rotation index, 0 being the current file.
+     *
+     * @return The log file for the given rotation index.
+     */
+    private File getLogFile(final int index) {
+        if (index == 0) {
+            return new File(directory, name + LOG_EXTENSION);
+        }
+
+        return new File(directory, name + "." + index + LOG_EXTENSION);
+    }
+
+    /**
+     * @return The number of bytes the text takes in UTF-8, at most; unpaired surrogates are counted as three bytes.
+     */
+    private static int utf8Length(final CharSequence text) {
+        final int size = text.length();
+        int length = 0;
+
+        for (int i = 0; i < size; i++) {
+            final char c = text.charAt(i);
+
+            if (c < 0x80) {
+                length += 1;
+            }
+            else if (c < 0x800) {
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i += 1;
+            }
+            else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * FileLogSink.Builder
+     */
+    public static class Builder {
+        private final static int DEFAULT_BUFFER_SIZE = 32 * 1024;
+        private final static int DEFAULT_CAPACITY = 1024;
+        private final static long DEFAULT_MAX_FILE_SIZE = 512 * 1024;
+        private final static int DEFAULT_MAX_FILES = 4;
+        private final static String DEFAULT_NAME = "app";
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+        private int capacity = DEFAULT_CAPACITY;
+        private File directory;
+        private long maxFileSize = DEFAULT_MAX_FILE_SIZE;
+        private int maxFiles = DEFAULT_MAX_FILES;
+        private String name = DEFAULT_NAME;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+        /**
+         * @param context the {@link Context} whose files directory will hold a <code>logs</code> directory.
+         */
+        public Builder(final Context context) {
+            if (context == null) {
+                throw new IllegalArgumentException("Context must not be null.");
+            }
+
+            directory = new File(context.getFilesDir(), "logs");
+        }
+
+        /**
+         * @return A started {@link FileLogSink}.
+         */
+        public FileLogSink build() {
+            return new FileLogSink(this);
+        }
+
+        /**
+         * @param bufferSize The size, in bytes, of the direct buffer used to batch writes.
+         *
+         * @return {@link Builder}
+         */
+        public Builder setBufferSize(final int bufferSize) {
+            if (bufferSize < 1024) {
+                throw new IllegalArgumentException("Buffer size must be at least 1024 bytes.");
+            }
+
+            this.bufferSize = bufferSize;
+
+            return this;
+        }
+
+        /**
+         * @param capacity The number of messages the ring buffer can hold, rounded up to a power of two.
+         *
+         * @return {@link Builder}
+         */
+        public Builder setCapacity(final int capacity) {
+            if (capacity < 2) {
+                throw new IllegalArgumentException("Capacity must be at least 2.");
+            }
+
+            this.capacity = capacity;
+
+            return this;
+        }
+
+        /**
+         * @param directory The directory log files are written to.
+         *
+         * @return {@link Builder}
+         */
+        public Builder setDirectory(final File directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory must not be null.");
+            }
+
+            this.directory = directory;
+
+            return this;
+        }
+
+        /**
+         * @param maxFileSize The size, in bytes, the current file may reach before it is rotated.
+         *
+         * @return {@link Builder}
+         */
+        public Builder setMaxFileSize(final long maxFileSize) {
+            if (maxFileSize <= 0) {
+                throw new IllegalArgumentException("Max file size must be positive.");
+            }
+
+            this.maxFileSize = maxFileSize;
+
+            return this;
+        }
+
+        /**
+         * @param maxFiles The number of files to keep, including the current one.
+         *
+         * @return {@link Builder}
+         */
+        public Builder setMaxFiles(final int maxFiles) {
+            if (maxFiles < 1) {
+                throw new IllegalArgumentException("Max files must be at least 1.");
+            }
+
+            this.maxFiles = maxFiles;
+
+            return this;
+        }
+
+        /**
+         * @param name The base name of the log files.
+         *
+         * @return {@link Builder}
+         */
+        public Builder setName(final String name) {
+            if (name == null || name.length() == 0) {
+                throw new IllegalArgumentException("Name must not be empty.");
+            }
+
+            this.name = name;
+
+            return this;
+        }
+
+        /**
+         * @param overflowPolicy What to do when the ring buffer is full.
+         *
+         * @return {@link Builder}
+         */
+        public Builder setOverflowPolicy(final OverflowPolicy overflowPolicy) {
+            if (overflowPolicy == null) {
+                throw new IllegalArgumentException("Overflow policy must not be null.");
+            }
+
+            this.overflowPolicy = overflowPolicy;
+
+            return this;
+        }
+    }
+
+    /**
+     * Drains the ring buffer on the background thread. All state is confined to that thread.
+     */
+    private class Writer implements Runnable {
+        private final ByteBuffer buffer;
+        private final CharsetEncoder encoder;
+        private final LogFormatter formatter = new LogFormatter();
+        private final StringBuilder line = new StringBuilder(256);
+        private FileChannel channel;
+        private long failedAt;
+        private long fileSize;
+        private boolean isFailed;
+
+        Writer(final int bufferSize) {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+            encoder = Charset.forName("UTF-8")
+                             .newEncoder()
+                             .onMalformedInput(CodingErrorAction.REPLACE)
+                             .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            try {
+                while (isRunning || !queue.isEmpty()) {
+                    try {
+                        drain();
+                    }
+                    catch (final IOException ex) {
+                        fail(ex);
+                    }
+                }
+            }
+            finally {
+                closeChannel();
+            }
+        }
+
+        private void append(final LogEvent event) throws IOException {
+            line.setLength(0);
+            formatter.append(line, event.timestamp, event.level, event.tag, event.message, event.throwable);
+
+            final long size = fileSize + buffer.position();
+
+            if (size > 0 && size + utf8Length(line) > maxFileSize) {
+                flush();
+                rotate();
+            }
+
+            encode(CharBuffer.wrap(line));
+        }
+
+        private void closeChannel() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                }
+                catch (final IOException ex) {
+                    Log.w(TAG, "Unable to close log file.", ex);
+                }
+                channel = null;
+            }
+        }
+
+        /**
+         * Writes queued messages until the sink is closed and the queue is empty.
+         */
+        private void drain() throws IOException {
+            while (isRunning || !queue.isEmpty()) {
+                final LogEvent event = queue.poll();
+
+                if (event != null) {
+                    if (channel == null && !reopen()) {
+                        dropped.incrementAndGet();
+                    }
+                    else {
+                        append(event);
+                    }
+                    continue;
+                }
+
+                flush();
+
+                isWriterParked = true;
+                if (isRunning && queue.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+                isWriterParked = false;
+            }
+
+            flush();
+        }
+
+        private void encode(final CharBuffer chars) throws IOException {
+            encoder.reset();
+
+            while (true) {
+                final CoderResult result = encoder.encode(chars, buffer, true);
+
+                if (result.isOverflow()) {
+                    flush();
+                    continue;
+                }
+
+                break;
+            }
+
+            while (encoder.flush(buffer).isOverflow()) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (buffer.position() == 0) {
+                return;
+            }
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                fileSize += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Discards the batch that could not be written and closes the file, so the next message after
+         * {@link #RETRY_NANOS} reopens it.
+         */
+        private void fail(final IOException ex) {
+            if (!isFailed) {
+                Log.e(TAG, "Unable to write log file.", ex);
+            }
+
+            isFailed = true;
+            failedAt = System.nanoTime();
+            buffer.clear();
+            closeChannel();
+        }
+
+        @SuppressWarnings("ResultOfMethodCallIgnored")
+        private void open() throws IOException {
+            if (!directory.exists()) {
+                directory.mkdirs();
+            }
+
+            channel = new FileOutputStream(getLogFile(0), true).getChannel();
+            fileSize = channel.size();
+        }
+
+        @SuppressWarnings("ResultOfMethodCallIgnored")
+        private void rotate() throws IOException {
+            closeChannel();
+
+            getLogFile(maxFiles - 1).delete();
+            for (int i = maxFiles - 1; i > 0; i--) {
+                final File source = getLogFile(i - 1);
+
+                if (source.exists()) {
+                    source.renameTo(getLogFile(i));
+                }
+            }
+
+            open();
+        }
+
+        /**
+         * @return True if the file was opened, false if the last failure is too recent to try again.
+         */
+        private boolean reopen() throws IOException {
+            if (isFailed && System.nanoTime() - failedAt < RETRY_NANOS) {
+                return false;
+            }
+
+            open();
+            isFailed = false;
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import android.util.Log;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * FlightRecorder
+ * <p>
+ * Keeps the most recent log events in memory, including events suppressed by the current log level, so they can be
+ * written out when the application crashes. Events are stored in preallocated parallel arrays and only formatted when
+ * the recorder is dumped, so recording does not allocate.
+ * </p>
+ * <p>
+ * Arguments are captured by value when they are recorded and the caller's objects are never retained: strings are
+ * kept by reference, since they are immutable; numbers, booleans and characters are kept as primitives; enums by
+ * name; and any other object only by its class and identity hash code, which is how it appears in the dump. Up to
+ * {@value #MAX_ARGUMENTS} arguments of a format call are kept. Recording costs a few array stores per event and never
+ * calls <code>toString()</code>.
+ * </p>
+ * <p>
+ * A writer claims its slot with a compare-and-set before filling it. Two writers only meet on a slot when their
+ * events are a full capacity apart; the later of the two to arrive drops its event rather than interleave its fields
+ * with the other's, so the dump never shows a torn event.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public final class FlightRecorder {
+    /**
+     * The default number of events retained.
+     */
+    public final static int DEFAULT_CAPACITY = 4096;
+    /**
+     * The number of arguments retained per event.
+     */
+    public final static int MAX_ARGUMENTS = 3;
+    final static byte SHAPE_BOOLEAN = 4;
+    final static byte SHAPE_DOUBLE = 3;
+    final static byte SHAPE_FORMAT = 10;
+    final static byte SHAPE_LONG = 2;
+    final static byte SHAPE_LONG_LONG = 8;
+    final static byte SHAPE_LONG_OBJECT = 6;
+    final static byte SHAPE_MESSAGE = 0;
+    final static byte SHAPE_OBJECT = 1;
+    final static byte SHAPE_OBJECT_LONG = 7;
+    final static byte SHAPE_OBJECT_OBJECT = 5;
+    final static byte SHAPE_OBJECT_OBJECT_OBJECT = 9;
+    private final static byte KIND_BOOLEAN = 4;
+    private final static byte KIND_CHAR = 5;
+    private final static byte KIND_DOUBLE = 3;
+    private final static byte KIND_FLOAT = 2;
+    private final static byte KIND_LONG = 1;
+    private final static byte KIND_NULL = 0;
+    private final static byte KIND_OBJECT = 7;
+    private final static byte KIND_STRING = 6;
+    private final static long SLOT_WRITING = -2;
+    private final static String TAG = Logger.makeTag(FlightRecorder.class);
+    private final byte[] argumentCounts;
+    private final byte[] kinds;
+    private final LogLevels[] levels;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private final long[] primitives;
+    private final Object[] references;
+    private final AtomicLongArray sequences;
+    private final byte[] shapes;
+    private final String[] tags;
+    private final String[] texts;
+    private final Throwable[] throwables;
+    private final long[] timestamps;
+
+    /**
+     * @param capacity The number of events to retain, rounded up to the next power of two.
+     */
+    public FlightRecorder(final int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2.");
+        }
+
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+
+        mask = size - 1;
+        argumentCounts = new byte[size];
+        kinds = new byte[size * MAX_ARGUMENTS];
+        levels = new LogLevels[size];
+        primitives = new long[size * MAX_ARGUMENTS];
+        references = new Object[size * MAX_ARGUMENTS];
+        sequences = new AtomicLongArray(size);
+        shapes = new byte[size];
+        tags = new String[size];
+        texts = new String[size];
+        throwables = new Throwable[size];
+        timestamps = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, -1);
+        }
+    }
+
+    /**
+     * @return The number of events retained.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Writes the retained events, oldest first, to the given file. Events still being recorded by other threads are
+     * skipped.
+     *
+     * @param file The file to write to.
+     *
+     * @return True if the events were written, otherwise false.
+     */
+    public boolean dump(final File file) {
+        Writer writer = null;
+
+        try {
+            final File parent = file.getParentFile();
+
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                return false;
+            }
+
+            writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            dump(writer);
+
+            return true;
+        }
+        catch (final IOException ex) {
+            Log.e(TAG, "Unable to dump flight recorder.", ex);
+
+            return false;
+        }
+        finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                }
+                catch (final IOException ex) {
+                    Log.w(TAG, "Unable to close flight recorder dump.", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the retained events, oldest first, to the given writer. Events still being recorded by other threads
+     * are skipped.
+     *
+     * @param writer The writer to write to.
+     *
+     * @throws IOException if the writer fails.
+     */
+    public void dump(final Writer writer) throws IOException {
+        final LogFormatter formatter = new LogFormatter();
+        final StringBuilder line = new StringBuilder(256);
+        final long end = next.get();
+        final long start = Math.max(0, end - capacity());
+
+        for (long sequence = start; sequence < end; sequence++) {
+            final int index = (int) sequence & mask;
+
+            if (sequences.get(index) != sequence) {
+                continue;
+            }
+
+            final long timestamp = timestamps[index];
+            final LogLevels level = levels[index];
+            final String tag = tags[index];
+            final Throwable throwable = throwables[index];
+            String message;
+
+            try {
+                message = expand(index);
+            }
+            catch (final RuntimeException ex) {
+                // one bad event must not abort a dump taken while the application is crashing
+                message = "<unable to format event: " + ex + ">";
+            }
+
+            // the slot was overwritten while it was being read
+            if (sequences.get(index) != sequence) {
+                continue;
+            }
+
+            line.setLength(0);
+
+            try {
+                formatter.append(line, timestamp, level, tag, message, throwable);
+            }
+            catch (final RuntimeException ex) {
+                line.setLength(0);
+                line.append("<unable to format event: ").append(ex).append(">\n");
+            }
+
+            writer.append(line);
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Installs a default uncaught exception handler that records the exception, dumps the retained events to the
+     * given file and then hands the exception to the previously installed handler.
+     *
+     * @param file The file the events are written to on a crash.
+     */
+    public void installCrashHandler(final File file) {
+        final Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(final Thread thread, final Throwable throwable) {
+                try {
+                    record(LogLevels.ERROR, TAG, "Uncaught exception in thread " + thread.getName(), throwable,
+                            SHAPE_MESSAGE, null, null, null, 0, 0);
+                    dump(file);
+                }
+                finally {
+                    if (previous != null) {
+                        previous.uncaughtException(thread, throwable);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Records a single event.
+     *
+     * @param level      The level of the event.
+     * @param tag        Used to identify the source of a log message.
+     * @param text       The message, template or format string.
+     * @param throwable  An optional exception.
+     * @param shape      Describes how the arguments are laid out, one of the <code>SHAPE_</code> constants.
+     * @param arg1       The first reference argument, or the argument array for {@link #SHAPE_FORMAT}.
+     * @param arg2       The second reference argument.
+     * @param arg3       The third reference argument.
+     * @param primitive1 The first primitive argument.
+     * @param primitive2 The second primitive argument.
+     */
+    void record(final LogLevels level, final String tag, final String text, final Throwable throwable,
+                final byte shape, final Object arg1, final Object arg2, final Object arg3, final long primitive1,
+                final long primitive2) {
+        final long sequence = next.getAndIncrement();
+        final int index = (int) sequence & mask;
+        final int cell = index * MAX_ARGUMENTS;
+
+        if (!claim(index, sequence)) {
+            return;
+        }
+
+        timestamps[index] = System.currentTimeMillis();
+        levels[index] = level;
+        tags[index] = tag;
+        texts[index] = text;
+        throwables[index] = throwable;
+        shapes[index] = shape;
+
+        switch (shape) {
+            case SHAPE_OBJECT:
+                argumentCounts[index] = 1;
+                capture(cell, arg1);
+                break;
+            case SHAPE_LONG:
+                argumentCounts[index] = 1;
+                capture(cell, KIND_LONG, primitive1);
+                break;
+            case SHAPE_DOUBLE:
+                argumentCounts[index] = 1;
+                capture(cell, KIND_DOUBLE, primitive1);
+                break;
+            case SHAPE_BOOLEAN:
+                argumentCounts[index] = 1;
+                capture(cell, KIND_BOOLEAN, primitive1);
+                break;
+            case SHAPE_OBJECT_OBJECT:
+                argumentCounts[index] = 2;
+                capture(cell, arg1);
+                capture(cell + 1, arg2);
+                break;
+            case SHAPE_LONG_OBJECT:
+                argumentCounts[index] = 2;
+                capture(cell, KIND_LONG, primitive1);
+                capture(cell + 1, arg2);
+                break;
+            case SHAPE_OBJECT_LONG:
+                argumentCounts[index] = 2;
+                capture(cell, arg1);
+                capture(cell + 1, KIND_LONG, primitive2);
+                break;
+            case SHAPE_LONG_LONG:
+                argumentCounts[index] = 2;
+                capture(cell, KIND_LONG, primitive1);
+                capture(cell + 1, KIND_LONG, primitive2);
+                break;
+            case SHAPE_OBJECT_OBJECT_OBJECT:
+                argumentCounts[index] = 3;
+                capture(cell, arg1);
+                capture(cell + 1, arg2);
+                capture(cell + 2, arg3);
+                break;
+            case SHAPE_FORMAT: {
+                final Object[] args = (Object[]) arg1;
+                final int count = args == null ? 0 : Math.min(args.length, Byte.MAX_VALUE);
+
+                argumentCounts[index] = (byte) count;
+                for (int i = 0; i < MAX_ARGUMENTS; i++) {
+                    capture(cell + i, i < count ? args[i] : null);
+                }
+                break;
+            }
+            default:
+                argumentCounts[index] = 0;
+                break;
+        }
+
+        sequences.lazySet(index, sequence);
+    }
+
+    /**
+     * Marks a slot as being written. Fails if another writer holds the slot, or if it already holds a newer event.
+     */
+    private boolean claim(final int index, final long sequence) {
+        while (true) {
+            final long current = sequences.get(index);
+
+            if (current == SLOT_WRITING || current >= sequence) {
+                return false;
+            }
+
+            if (sequences.compareAndSet(index, current, SLOT_WRITING)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Stores an object argument by value, without keeping a reference to anything but strings and classes.
+     */
+    private void capture(final int cell, final Object value) {
+        if (value == null) {
+            capture(cell, KIND_NULL, 0);
+        }
+        else if (value instanceof String) {
+            kinds[cell] = KIND_STRING;
+            references[cell] = value;
+        }
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            capture(cell, KIND_LONG, ((Number) value).longValue());
+        }
+        else if (value instanceof Double) {
+            capture(cell, KIND_DOUBLE, Double.doubleToRawLongBits((Double) value));
+        }
+        else if (value instanceof Float) {
+            capture(cell, KIND_FLOAT, Float.floatToRawIntBits((Float) value));
+        }
+        else if (value instanceof Boolean) {
+            capture(cell, KIND_BOOLEAN, (Boolean) value ? 1 : 0);
+        }
+        else if (value instanceof Character) {
+            capture(cell, KIND_CHAR, (Character) value);
+        }
+        else if (value instanceof Enum) {
+            kinds[cell] = KIND_STRING;
+            references[cell] = ((Enum<?>) value).name();
+        }
+        else {
+            kinds[cell] = KIND_OBJECT;
+            primitives[cell] = System.identityHashCode(value);
+            references[cell] = value.getClass();
+        }
+    }
+
+    private void capture(final int cell, final byte kind, final long primitive) {
+        kinds[cell] = kind;
+        primitives[cell] = primitive;
+        references[cell] = null;
+    }
+
+    private String expand(final int index) {
+        final String text = texts[index];
+        final int cell = index * MAX_ARGUMENTS;
+
+        switch (shapes[index]) {
+            case SHAPE_OBJECT:
+            case SHAPE_LONG:
+            case SHAPE_DOUBLE:
+            case SHAPE_BOOLEAN:
+                return MessageTemplate.format(text, value(cell));
+            case SHAPE_OBJECT_OBJECT:
+            case SHAPE_LONG_OBJECT:
+            case SHAPE_OBJECT_LONG:
+            case SHAPE_LONG_LONG:
+                return MessageTemplate.format(text, value(cell), value(cell + 1));
+            case SHAPE_OBJECT_OBJECT_OBJECT:
+                return MessageTemplate.format(text, value(cell), value(cell + 1), value(cell + 2));
+            case SHAPE_FORMAT: {
+                final Object[] args = new Object[argumentCounts[index]];
+
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = i < MAX_ARGUMENTS ? value(cell + i) : "?";
+                }
+
+                return format(text, args);
+            }
+            default:
+                return text;
+        }
+    }
+
+    /**
+     * Formats a recorded format call without going through {@link Logger}, whose warning on a bad format would be
+     * recorded into the buffer being dumped. A call that cannot be formatted, for example because an argument past
+     * the first {@value #MAX_ARGUMENTS} was not kept, is written as its format string followed by the arguments.
+     */
+    private static String format(final String text, final Object[] args) {
+        try {
+            return String.format(text == null ? "" : text, args);
+        }
+        catch (final RuntimeException ex) {
+            final StringBuilder builder = new StringBuilder(String.valueOf(text)).append(" [");
+
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(args[i]);
+            }
+
+            return builder.append(']').toString();
+        }
+    }
+
+    /**
+     * Rebuilds a captured argument for formatting.
+     */
+    private Object value(final int cell) {
+        final long primitive = primitives[cell];
+
+        switch (kinds[cell]) {
+            case KIND_LONG:
+                return primitive;
+            case KIND_FLOAT:
+                return Float.intBitsToFloat((int) primitive);
+            case KIND_DOUBLE:
+                return Double.longBitsToDouble(primitive);
+            case KIND_BOOLEAN:
+                return primitive != 0;
+            case KIND_CHAR:
+                return (char) primitive;
+            case KIND_STRING:
+                return references[cell];
+            case KIND_OBJECT:
+                return ((Class<?>) references[cell]).getName() + "@" + Integer.toHexString((int) primitive);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LogEventQueue
+ * <p>
+ * A bounded, lock-free ring buffer that any number of threads may offer to and a single thread drains. Every slot
+ * carries a sequence number: producers claim a slot with a compare-and-set on the write position and publish it by
+ * advancing the slot sequence, the consumer releases it by advancing the sequence one lap further.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+final class LogEventQueue {
+    private final LogEvent[] buffer;
+    private final int mask;
+    private final AtomicLong readPosition = new AtomicLong();
+    private final AtomicLongArray sequences;
+    private final AtomicLong writePosition = new AtomicLong();
+
+    /**
+     * @param capacity The requested capacity, rounded up to the next power of two.
+     */
+    LogEventQueue(final int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2.");
+        }
+
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+
+        buffer = new LogEvent[size];
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return The number of slots in the buffer.
+     */
+    int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * @return True if there are no events waiting to be drained, otherwise false.
+     */
+    boolean isEmpty() {
+        return writePosition.get() == readPosition.get();
+    }
+
+    /**
+     * Adds an event to the buffer. Safe to call from any thread.
+     *
+     * @param event The event to add.
+     *
+     * @return True if the event was added, false if the buffer is full.
+     */
+    boolean offer(final LogEvent event) {
+        long position = writePosition.get();
+
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (writePosition.compareAndSet(position, position + 1)) {
+                    buffer[index] = event;
+                    sequences.lazySet(index, position + 1);
+
+                    return true;
+                }
+                position = writePosition.get();
+            }
+            else if (difference < 0) {
+                return false;
+            }
+            else {
+                position = writePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest event from the buffer. Must only be called from the single consumer thread.
+     *
+     * @return The oldest event, or null if the buffer is empty or the next slot has not been published yet.
+     */
+    LogEvent poll() {
+        final long position = readPosition.get();
+        final int index = (int) position & mask;
+
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+
+        final LogEvent event = buffer[index];
+
+        buffer[index] = null;
+        sequences.lazySet(index, position + mask + 1);
+        readPosition.lazySet(position + 1);
+
+        return event;
+    }
+}
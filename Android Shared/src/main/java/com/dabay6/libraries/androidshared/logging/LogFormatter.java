@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import android.util.Log;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+
+import java.util.Calendar;
+
+/**
+ * LogFormatter
+ * <p>
+ * Formats log lines written to disk as <code>yyyy-MM-dd HH:mm:ss.SSS L/tag: message</code>. Instances are not
+ * thread-safe, each writer thread owns its own.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+final class LogFormatter {
+    private final Calendar calendar = Calendar.getInstance();
+
+    /**
+     * Appends a single formatted line, including the trailing line feed, to the builder.
+     *
+     * @param builder   The builder receiving the line.
+     * @param timestamp The time the message was logged.
+     * @param level     The level of the message.
+     * @param tag       Used to identify the source of a log message.
+     * @param message   The message that was logged.
+     * @param throwable An optional exception that was logged.
+     */
+    void append(final StringBuilder builder, final long timestamp, final LogLevels level, final String tag,
+                final String message, final Throwable throwable) {
+        calendar.setTimeInMillis(timestamp);
+        builder.append(calendar.get(Calendar.YEAR)).append('-');
+        pad(builder, calendar.get(Calendar.MONTH) + 1, 2).append('-');
+        pad(builder, calendar.get(Calendar.DAY_OF_MONTH), 2).append(' ');
+        pad(builder, calendar.get(Calendar.HOUR_OF_DAY), 2).append(':');
+        pad(builder, calendar.get(Calendar.MINUTE), 2).append(':');
+        pad(builder, calendar.get(Calendar.SECOND), 2).append('.');
+        pad(builder, calendar.get(Calendar.MILLISECOND), 3).append(' ');
+
+        builder.append(Logger.levelChar(level)).append('/').append(tag).append(": ");
+        builder.append(message).append('\n');
+
+        if (throwable != null) {
+            builder.append(Log.getStackTraceString(throwable)).append('\n');
+        }
+    }
+
+    private static StringBuilder pad(final StringBuilder builder, final int value, final int width) {
+        for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+            if (value < limit) {
+                builder.append('0');
+            }
+        }
+
+        return builder.append(value);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+
+/**
+ * LogSink
+ * <p>
+ * A destination for messages that have passed the {@link Logger} level check.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public interface LogSink {
+    /**
+     * Writes a single log message.
+     *
+     * @param level     The level of the message.
+     * @param tag       Used to identify the source of a log message.
+     * @param message   The message to be logged.
+     * @param throwable An optional exception to log, may be null.
+     */
+    void write(final LogLevels level, final String tag, final String message, final Throwable throwable);
+}
@@ -26,9 +26,30 @@ import android.text.TextUtils;
 import android.util.Log;
 
 import com.dabay6.libraries.androidshared.enums.LogLevels;
+import com.dabay6.libraries.androidshared.util.StringUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Logger
+ * <p>
+ * Nothing is written until logging is turned on with {@link #setIsLoggingEnabled(boolean)}; the level set through
+ * {@link #setLogLevel(LogLevels)} then decides which messages are written.
+ * </p>
+ * <p>
+ * A call below the current log level returns after a level check and allocates nothing, provided it uses one of the
+ * fixed arity <code>log</code> overloads; the <code>Object...</code> overloads allocate their argument array, and box
+ * primitive arguments, at the call site before the level is known. <code>LoggerAllocationTest</code> measures this.
+ * </p>
+ * <p>
+ * When a {@link FlightRecorder} is installed every call is recorded before the level check, enabled or not. Recording
+ * adds an atomic increment, a {@link System#currentTimeMillis()} call and a fixed number of array stores per call,
+ * and still allocates nothing; the arguments are captured by value and only formatted when the recorder is dumped.
+ * </p>
  *
  * @author Remel Pugh
  * @version 1.0
@@ -36,8 +57,14 @@ import com.dabay6.libraries.androidshared.enums.LogLevels;
 @SuppressWarnings("unused")
 public class Logger {
     private static final int MAX_TAG_LENGTH = 25;
-    private static boolean IS_LOGGING_ENABLED = true;
+    private static final List<BinaryLogSink> BINARY_SINKS = new CopyOnWriteArrayList<BinaryLogSink>();
+    private static final List<LogSink> SINKS = new CopyOnWriteArrayList<LogSink>(new LogSink[]{new LogcatSink()});
+    private static final ConcurrentHashMap<String, TagThrottle> THROTTLES =
+            new ConcurrentHashMap<String, TagThrottle>();
+    private static boolean IS_LOGGING_ENABLED = false;
     private static LogLevels LOG_LEVEL = LogLevels.VERBOSE;
+    private static int MIN_LEVEL_INDEX = LOG_LEVEL.index();
+    private static volatile FlightRecorder RECORDER;
     private static String TAG_PREFIX = "";
     private static int TAG_PREFIX_LENGTH = TAG_PREFIX.length();
 
@@ -47,6 +74,46 @@ public class Logger {
     private Logger() {
     }
 
+    /**
+     * Adds a destination for structured events. While at least one binary sink is registered, structured events are
+     * written in the {@link BinaryLogFormat} instead of being rendered as text for the regular sinks.
+     *
+     * @param sink The {@link BinaryLogSink} to add.
+     */
+    public static void addBinarySink(final BinaryLogSink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("Sink must not be null.");
+        }
+
+        BINARY_SINKS.add(sink);
+    }
+
+    /**
+     * Adds a destination that receives every message passing the level check.
+     *
+     * @param sink The {@link LogSink} to add.
+     */
+    public static void addSink(final LogSink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("Sink must not be null.");
+        }
+
+        SINKS.add(sink);
+    }
+
+    /**
+     * Removes any rate limit or sampling configured for a tag.
+     *
+     * @param tag The tag, as returned by {@link #makeTag(String)}.
+     */
+    public static void clearThrottle(final String tag) {
+        final TagThrottle throttle = THROTTLES.remove(tag);
+
+        if (throttle != null) {
+            Logger.writeSuppressed(tag, throttle, System.nanoTime(), true);
+        }
+    }
+
     /**
      * Send a {@link Log#DEBUG} log message.
      *
@@ -56,8 +123,10 @@ public class Logger {
      * @param message The message to be logged
      */
     public static void debug(final String tag, final String message) {
-        if (Logger.isDebugLogsEnabled()) {
-            Log.d(tag, message);
+        Logger.record(LogLevels.DEBUG, tag, message, null);
+
+        if (Logger.isPermitted(LogLevels.DEBUG, tag)) {
+            Logger.write(LogLevels.DEBUG, tag, message, null);
         }
     }
 
@@ -73,7 +142,11 @@ public class Logger {
      *               additional arguments are ignored.
      */
     public static void debug(final String tag, final String format, final Object... args) {
-        Logger.debug(tag, Logger.formatMessage(format, args));
+        Logger.record(LogLevels.DEBUG, tag, format, null, FlightRecorder.SHAPE_FORMAT, args, null, null, 0, 0);
+
+        if (Logger.isPermitted(LogLevels.DEBUG, tag)) {
+            Logger.write(LogLevels.DEBUG, tag, Logger.formatMessage(format, args), null);
+        }
     }
 
     public static void error(final String tag, final String message) {
@@ -89,8 +162,10 @@ public class Logger {
      * @param message The message to be logged
      */
     public static void error(final String tag, final String message, final Throwable throwable) {
-        if (Logger.isErrorLogsEnabled()) {
-            Log.e(tag, message, throwable);
+        Logger.record(LogLevels.ERROR, tag, message, throwable);
+
+        if (Logger.isPermitted(LogLevels.ERROR, tag)) {
+            Logger.write(LogLevels.ERROR, tag, message, throwable);
         }
     }
 
@@ -106,7 +181,39 @@ public class Logger {
      *               additional arguments are ignored.
      */
     public static void error(final String tag, final String format, final Throwable throwable, final Object... args) {
-        Logger.error(tag, Logger.formatMessage(format, args), throwable);
+        Logger.record(LogLevels.ERROR, tag, format, throwable, FlightRecorder.SHAPE_FORMAT, args, null, null, 0, 0);
+
+        if (Logger.isPermitted(LogLevels.ERROR, tag)) {
+            Logger.write(LogLevels.ERROR, tag, Logger.formatMessage(format, args), throwable);
+        }
+    }
+
+    /**
+     * Starts a structured log event. Add typed fields to the returned event and finish it with {@link
+     * StructuredEvent#log()}. Fields are encoded as primitives, no message text is built unless the event has to be
+     * rendered for a text sink.
+     *
+     * @param level The level of the event.
+     * @param tag   Used to identify the source of a log message.
+     * @param name  The name of the event.
+     *
+     * @return The calling thread's reusable {@link StructuredEvent}, or a no-op event if the event is suppressed.
+     */
+    public static StructuredEvent event(final LogLevels level, final String tag, final String name) {
+        Logger.record(level, tag, name, null);
+
+        if (!Logger.isPermitted(level, tag)) {
+            return StructuredEvent.DISABLED;
+        }
+
+        return StructuredEvent.obtain(level, tag, name);
+    }
+
+    /**
+     * @return The {@link FlightRecorder} receiving every log event, or null if none is installed.
+     */
+    public static FlightRecorder getFlightRecorder() {
+        return RECORDER;
     }
 
     /**
@@ -118,8 +225,10 @@ public class Logger {
      * @param message The message to be logged
      */
     public static void info(final String tag, final String message) {
-        if (Logger.isInfoLogsEnabled()) {
-            Log.i(tag, message);
+        Logger.record(LogLevels.INFO, tag, message, null);
+
+        if (Logger.isPermitted(LogLevels.INFO, tag)) {
+            Logger.write(LogLevels.INFO, tag, message, null);
         }
     }
 
@@ -135,7 +244,210 @@ public class Logger {
      *               additional arguments are ignored.
      */
     public static void info(final String tag, final String format, final Object... args) {
-        Logger.info(tag, Logger.formatMessage(format, args));
+        Logger.record(LogLevels.INFO, tag, format, null, FlightRecorder.SHAPE_FORMAT, args, null, null, 0, 0);
+
+        if (Logger.isPermitted(LogLevels.INFO, tag)) {
+            Logger.write(LogLevels.INFO, tag, Logger.formatMessage(format, args), null);
+        }
+    }
+
+    /**
+     * Determine if messages of the given level are currently logged. Use this to guard expensive message
+     * construction that cannot be expressed through one of the {@code log} overloads.
+     *
+     * @param level The level of the message.
+     *
+     * @return true if messages of the given level will be written, otherwise false.
+     */
+    public static boolean isLoggable(final LogLevels level) {
+        return IS_LOGGING_ENABLED && MIN_LEVEL_INDEX <= level.index();
+    }
+
+    /**
+     * Send a log message at the given level.
+     *
+     * @param level   The level of the message.
+     * @param tag     Used to identify the source of a log message.
+     * @param message The message to be logged.
+     */
+    public static void log(final LogLevels level, final String tag, final String message) {
+        Logger.record(level, tag, message, null);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, message, null);
+        }
+    }
+
+    /**
+     * Send a log message at the given level.
+     *
+     * @param level     The level of the message.
+     * @param tag       Used to identify the source of a log message.
+     * @param message   The message to be logged.
+     * @param throwable An exception to log.
+     */
+    public static void log(final LogLevels level, final String tag, final String message,
+                           final Throwable throwable) {
+        Logger.record(level, tag, message, throwable);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, message, throwable);
+        }
+    }
+
+    /**
+     * Send a log message at the given level. The template is only expanded when the level is enabled.
+     *
+     * @param level    The level of the message.
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template, each <code>{}</code> is replaced by the next argument.
+     * @param arg      The template argument.
+     */
+    public static void log(final LogLevels level, final String tag, final String template, final Object arg) {
+        Logger.record(level, tag, template, null, FlightRecorder.SHAPE_OBJECT, arg, null, null, 0, 0);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, MessageTemplate.format(template, arg), null);
+        }
+    }
+
+    /**
+     * Send a log message at the given level. The template is only expanded when the level is enabled.
+     *
+     * @param level    The level of the message.
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template, each <code>{}</code> is replaced by the next argument.
+     * @param arg      The template argument.
+     */
+    public static void log(final LogLevels level, final String tag, final String template, final long arg) {
+        Logger.record(level, tag, template, null, FlightRecorder.SHAPE_LONG, null, null, null, arg, 0);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, MessageTemplate.format(template, arg), null);
+        }
+    }
+
+    /**
+     * Send a log message at the given level. The template is only expanded when the level is enabled.
+     *
+     * @param level    The level of the message.
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template, each <code>{}</code> is replaced by the next argument.
+     * @param arg      The template argument.
+     */
+    public static void log(final LogLevels level, final String tag, final String template, final double arg) {
+        Logger.record(level, tag, template, null, FlightRecorder.SHAPE_DOUBLE, null, null, null, Double.doubleToRawLongBits(arg), 0);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, MessageTemplate.format(template, arg), null);
+        }
+    }
+
+    /**
+     * Send a log message at the given level. The template is only expanded when the level is enabled.
+     *
+     * @param level    The level of the message.
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template, each <code>{}</code> is replaced by the next argument.
+     * @param arg      The template argument.
+     */
+    public static void log(final LogLevels level, final String tag, final String template, final boolean arg) {
+        Logger.record(level, tag, template, null, FlightRecorder.SHAPE_BOOLEAN, null, null, null, arg ? 1 : 0, 0);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, MessageTemplate.format(template, arg), null);
+        }
+    }
+
+    /**
+     * Send a log message at the given level. The template is only expanded when the level is enabled.
+     *
+     * @param level    The level of the message.
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template, each <code>{}</code> is replaced by the next argument.
+     * @param arg1     The first template argument.
+     * @param arg2     The second template argument.
+     */
+    public static void log(final LogLevels level, final String tag, final String template, final Object arg1,
+                           final Object arg2) {
+        Logger.record(level, tag, template, null, FlightRecorder.SHAPE_OBJECT_OBJECT, arg1, arg2, null, 0, 0);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, MessageTemplate.format(template, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Send a log message at the given level. The template is only expanded when the level is enabled.
+     *
+     * @param level    The level of the message.
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template, each <code>{}</code> is replaced by the next argument.
+     * @param arg1     The first template argument.
+     * @param arg2     The second template argument.
+     */
+    public static void log(final LogLevels level, final String tag, final String template, final long arg1,
+                           final Object arg2) {
+        Logger.record(level, tag, template, null, FlightRecorder.SHAPE_LONG_OBJECT, null, arg2, null, arg1, 0);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, MessageTemplate.format(template, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Send a log message at the given level. The template is only expanded when the level is enabled.
+     *
+     * @param level    The level of the message.
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template, each <code>{}</code> is replaced by the next argument.
+     * @param arg1     The first template argument.
+     * @param arg2     The second template argument.
+     */
+    public static void log(final LogLevels level, final String tag, final String template, final Object arg1,
+                           final long arg2) {
+        Logger.record(level, tag, template, null, FlightRecorder.SHAPE_OBJECT_LONG, arg1, null, null, 0, arg2);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, MessageTemplate.format(template, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Send a log message at the given level. The template is only expanded when the level is enabled.
+     *
+     * @param level    The level of the message.
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template, each <code>{}</code> is replaced by the next argument.
+     * @param arg1     The first template argument.
+     * @param arg2     The second template argument.
+     */
+    public static void log(final LogLevels level, final String tag, final String template, final long arg1,
+                           final long arg2) {
+        Logger.record(level, tag, template, null, FlightRecorder.SHAPE_LONG_LONG, null, null, null, arg1, arg2);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, MessageTemplate.format(template, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Send a log message at the given level. The template is only expanded when the level is enabled.
+     *
+     * @param level    The level of the message.
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template, each <code>{}</code> is replaced by the next argument.
+     * @param arg1     The first template argument.
+     * @param arg2     The second template argument.
+     * @param arg3     The third template argument.
+     */
+    public static void log(final LogLevels level, final String tag, final String template, final Object arg1,
+                           final Object arg2, final Object arg3) {
+        Logger.record(level, tag, template, null, FlightRecorder.SHAPE_OBJECT_OBJECT_OBJECT, arg1, arg2, arg3, 0, 0);
+
+        if (Logger.isPermitted(level, tag)) {
+            Logger.write(level, tag, MessageTemplate.format(template, arg1, arg2, arg3), null);
+        }
     }
 
     /**
@@ -154,18 +466,59 @@ public class Logger {
      *
      * @param tag The log tag for the current log message.
      *
-     * @return A tag with the defined prefix added.
+     * @return A tag with the defined prefix added. The tag is interned so it can be shared as a lookup key.
      */
     public static String makeTag(final String tag) {
         if (tag.length() > MAX_TAG_LENGTH - TAG_PREFIX_LENGTH) {
-            return TAG_PREFIX + tag.substring(0, MAX_TAG_LENGTH - TAG_PREFIX_LENGTH - 1);
+            return (TAG_PREFIX + tag.substring(0, MAX_TAG_LENGTH - TAG_PREFIX_LENGTH - 1)).intern();
         }
 
-        return TAG_PREFIX + tag;
+        return (TAG_PREFIX + tag).intern();
     }
 
     /**
-     * Set whether logging is enabled.
+     * Removes a previously added structured event destination.
+     *
+     * @param sink The {@link BinaryLogSink} to remove.
+     */
+    public static void removeBinarySink(final BinaryLogSink sink) {
+        BINARY_SINKS.remove(sink);
+    }
+
+    /**
+     * Removes a previously added destination. Removing the default {@link LogcatSink} stops messages from being
+     * written to logcat.
+     *
+     * @param sink The {@link LogSink} to remove.
+     */
+    public static void removeSink(final LogSink sink) {
+        SINKS.remove(sink);
+    }
+
+    /**
+     * Writes a summary line for every tag that has suppressed messages since its last summary. Summaries are also
+     * written automatically, at most every ten seconds, when a throttled tag next logs a message.
+     */
+    public static void reportSuppressed() {
+        final long now = System.nanoTime();
+
+        for (final Map.Entry<String, TagThrottle> entry : THROTTLES.entrySet()) {
+            Logger.writeSuppressed(entry.getKey(), entry.getValue(), now, true);
+        }
+    }
+
+    /**
+     * Installs a {@link FlightRecorder} that receives every log event, including events suppressed by the current
+     * log level.
+     *
+     * @param recorder The recorder to install, or null to stop recording.
+     */
+    public static void setFlightRecorder(final FlightRecorder recorder) {
+        RECORDER = recorder;
+    }
+
+    /**
+     * Set whether logging is enabled. Logging is disabled until this is called with true.
      *
      * @param enabled Is logging enabled.
      */
@@ -180,6 +533,51 @@ public class Logger {
      */
     public static void setLogLevel(final LogLevels level) {
         LOG_LEVEL = level;
+        MIN_LEVEL_INDEX = level.index();
+    }
+
+    /**
+     * Limit the number of messages written for a tag. Messages over the limit are counted and summarised instead of
+     * written. The flight recorder still receives them.
+     *
+     * @param tag              The tag, as returned by {@link #makeTag(String)}.
+     * @param permitsPerSecond The sustained number of messages allowed per second.
+     * @param burst            The number of messages that may be written back to back before the limit applies.
+     */
+    public static void setRateLimit(final String tag, final int permitsPerSecond, final int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Permits per second and burst must be positive.");
+        }
+
+        TagThrottle current;
+
+        do {
+            current = THROTTLES.get(tag);
+        }
+        while (!Logger.replaceThrottle(tag, current, new TagThrottle(permitsPerSecond, burst,
+                                                                    current == null ? 1 : current.sampleRate)));
+    }
+
+    /**
+     * Write only one message out of every <code>sampleRate</code> messages for a tag. Skipped messages are counted and
+     * summarised instead of written. The flight recorder still receives them.
+     *
+     * @param tag        The tag, as returned by {@link #makeTag(String)}.
+     * @param sampleRate The sampling rate, 1 writes every message.
+     */
+    public static void setSampleRate(final String tag, final int sampleRate) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive.");
+        }
+
+        TagThrottle current;
+
+        do {
+            current = THROTTLES.get(tag);
+        }
+        while (!Logger.replaceThrottle(tag, current, current == null ? new TagThrottle(0, 0, sampleRate)
+                                                                     : new TagThrottle(current.permitsPerSecond,
+                                                                                       current.burst, sampleRate)));
     }
 
     /**
@@ -204,14 +602,19 @@ public class Logger {
      * @param stackTrace an array containing {@link StackTraceElement}.
      */
     public static void stackTrace(final String tag, final StackTraceElement[] stackTrace) {
-        final StringBuilder message = new StringBuilder();
+        if (!Logger.isLoggable(LogLevels.ERROR)) {
+            return;
+        }
+
+        final StringBuilder message = StringUtils.obtainBuilder();
+        final String separator = System.getProperty("line.separator");
 
         for (final StackTraceElement element : stackTrace) {
             message.append(element.toString());
-            message.append(System.getProperty("line.separator"));
+            message.append(separator);
         }
 
-        Logger.error(tag, message.toString(), null);
+        Logger.error(tag, StringUtils.toStringAndRecycle(message), null);
     }
 
     /**
@@ -223,7 +626,11 @@ public class Logger {
      * @param message The message to be logged
      */
     public static void verbose(final String tag, final String message) {
-        Log.v(tag, message);
+        Logger.record(LogLevels.VERBOSE, tag, message, null);
+
+        if (Logger.isPermitted(LogLevels.VERBOSE, tag)) {
+            Logger.write(LogLevels.VERBOSE, tag, message, null);
+        }
     }
 
     /**
@@ -238,7 +645,11 @@ public class Logger {
      *               additional arguments are ignored.
      */
     public static void verbose(final String tag, final String format, final Object... args) {
-        Logger.verbose(tag, Logger.formatMessage(format, args));
+        Logger.record(LogLevels.VERBOSE, tag, format, null, FlightRecorder.SHAPE_FORMAT, args, null, null, 0, 0);
+
+        if (Logger.isPermitted(LogLevels.VERBOSE, tag)) {
+            Logger.write(LogLevels.VERBOSE, tag, Logger.formatMessage(format, args), null);
+        }
     }
 
     /**
@@ -250,8 +661,10 @@ public class Logger {
      * @param message The message to be logged
      */
     public static void warn(final String tag, final String message) {
-        if (Logger.isWarningLogsEnabled()) {
-            Log.w(tag, message);
+        Logger.record(LogLevels.WARNING, tag, message, null);
+
+        if (Logger.isPermitted(LogLevels.WARNING, tag)) {
+            Logger.write(LogLevels.WARNING, tag, message, null);
         }
     }
 
@@ -267,7 +680,11 @@ public class Logger {
      *               additional arguments are ignored.
      */
     public static void warn(final String tag, final String format, final Object... args) {
-        Logger.warn(tag, Logger.formatMessage(format, args));
+        Logger.record(LogLevels.WARNING, tag, format, null, FlightRecorder.SHAPE_FORMAT, args, null, null, 0, 0);
+
+        if (Logger.isPermitted(LogLevels.WARNING, tag)) {
+            Logger.write(LogLevels.WARNING, tag, Logger.formatMessage(format, args), null);
+        }
     }
 
     /**
@@ -280,7 +697,7 @@ public class Logger {
      *
      * @return the formatted string.
      */
-    private static String formatMessage(final String format, final Object... args) {
+    static String formatMessage(final String format, final Object... args) {
         final String empty = "";
 
         try {
@@ -296,47 +713,175 @@ public class Logger {
     }
 
     /**
-     * Determine if debug logging is enabled.
+     * Returns the single character abbreviation used by logcat for the given level.
+     *
+     * @param level The log level.
      *
-     * @return true if debug logging is enabled, otherwise false
+     * @return The level abbreviation.
      */
-    private static boolean isDebugLogsEnabled() {
-        return !IS_LOGGING_ENABLED && Logger.LOG_LEVEL.index() <= LogLevels.DEBUG.index();
+    static char levelChar(final LogLevels level) {
+        switch (level) {
+            case VERBOSE:
+                return 'V';
+            case DEBUG:
+                return 'D';
+            case INFO:
+                return 'I';
+            case WARNING:
+                return 'W';
+            default:
+                return 'E';
+        }
     }
 
     /**
-     * Determine if error logging is enabled.
+     * Determine if a message passes both the level check and any rate limit or sampling configured for its tag.
      *
-     * @return true if error logging is enabled, otherwise false
+     * @param level The level of the message.
+     * @param tag   Used to identify the source of a log message.
+     *
+     * @return true if the message should be written, otherwise false.
      */
-    private static boolean isErrorLogsEnabled() {
-        return !IS_LOGGING_ENABLED && Logger.LOG_LEVEL.index() <= LogLevels.ERROR.index();
+    private static boolean isPermitted(final LogLevels level, final String tag) {
+        if (!Logger.isLoggable(level)) {
+            return false;
+        }
+
+        if (THROTTLES.isEmpty() || tag == null) {
+            return true;
+        }
+
+        final TagThrottle throttle = THROTTLES.get(tag);
+
+        if (throttle == null) {
+            return true;
+        }
+
+        final long now = System.nanoTime();
+
+        if (!throttle.tryAcquire(now)) {
+            return false;
+        }
+
+        Logger.writeSuppressed(tag, throttle, now, false);
+
+        return true;
+    }
+
+    /**
+     * Hands a plain message to the installed {@link FlightRecorder}, if any.
+     */
+    private static void record(final LogLevels level, final String tag, final String message,
+                               final Throwable throwable) {
+        final FlightRecorder recorder = RECORDER;
+
+        if (recorder != null) {
+            recorder.record(level, tag, message, throwable, FlightRecorder.SHAPE_MESSAGE, null, null, null, 0, 0);
+        }
     }
 
     /**
-     * Determine if info logging is enabled.
+     * Hands an unformatted message to the installed {@link FlightRecorder}, if any.
+     */
+    private static void record(final LogLevels level, final String tag, final String text, final Throwable throwable,
+                               final byte shape, final Object arg1, final Object arg2, final Object arg3,
+                               final long primitive1, final long primitive2) {
+        final FlightRecorder recorder = RECORDER;
+
+        if (recorder != null) {
+            recorder.record(level, tag, text, throwable, shape, arg1, arg2, arg3, primitive1, primitive2);
+        }
+    }
+
+    /**
+     * Atomically swaps the throttle for a tag, carrying over the messages the previous one suppressed but has not yet
+     * reported.
+     *
+     * @param tag         The tag, as returned by {@link #makeTag(String)}.
+     * @param current     The throttle expected to be installed, or null if none is expected.
+     * @param replacement The throttle to install.
+     *
+     * @return true if the throttle was swapped, false if another thread changed it first.
+     */
+    private static boolean replaceThrottle(final String tag, final TagThrottle current,
+                                           final TagThrottle replacement) {
+        if (current == null) {
+            return THROTTLES.putIfAbsent(tag, replacement) == null;
+        }
+
+        if (!THROTTLES.replace(tag, current, replacement)) {
+            return false;
+        }
+
+        replacement.carrySuppressed(current);
+
+        return true;
+    }
+
+    /**
+     * Writes a message that has already passed the level check to every registered {@link LogSink}.
      *
-     * @return true if info logging is enabled, otherwise false
+     * @param level     The level of the message.
+     * @param tag       Used to identify the source of a log message.
+     * @param message   The message to be logged.
+     * @param throwable An optional exception to log.
      */
-    private static boolean isInfoLogsEnabled() {
-        return !IS_LOGGING_ENABLED && Logger.LOG_LEVEL.index() <= LogLevels.INFO.index();
+    private static void write(final LogLevels level, final String tag, final String message,
+                              final Throwable throwable) {
+        for (final LogSink sink : SINKS) {
+            sink.write(level, tag, message, throwable);
+        }
     }
 
     /**
-     * Determine if verbose logging is enabled.
+     * Encodes a completed structured event and writes it to the binary sinks, or renders it as text for the regular
+     * sinks when no binary sink is registered.
      *
-     * @return true if verbose logging is enabled, otherwise false.
+     * @param event The completed event.
      */
-    private static boolean isVerboseLogsEnabled() {
-        return !IS_LOGGING_ENABLED && Logger.LOG_LEVEL == LogLevels.VERBOSE;
+    static void writeStructured(final StructuredEvent event) {
+        final int length = event.encode(System.currentTimeMillis());
+        final byte[] record = event.getRecord();
+
+        if (!BINARY_SINKS.isEmpty()) {
+            for (final BinaryLogSink sink : BINARY_SINKS) {
+                sink.write(record, 0, length);
+            }
+
+            return;
+        }
+
+        final StringBuilder message = StringUtils.obtainBuilder();
+
+        try {
+            BinaryLogDecoder.appendMessage(message, record, event.getBodyOffset());
+        }
+        catch (final IOException ex) {
+            // a StringBuilder never throws
+        }
+
+        Logger.write(event.getLevel(), event.getTag(), StringUtils.toStringAndRecycle(message), null);
     }
 
     /**
-     * Determine if warning logging is enabled.
+     * Writes a summary of messages suppressed by rate limiting or sampling. Nothing is claimed while {@link
+     * LogLevels#INFO} messages are not logged, so the count is kept for a later summary.
      *
-     * @return true if warning logging is enabled, otherwise false
+     * @param tag      The tag whose messages were suppressed.
+     * @param throttle The throttle that counted the suppressed messages.
+     * @param now      The current value of {@link System#nanoTime()}.
+     * @param force    Write the summary even if the report interval has not elapsed.
      */
-    private static boolean isWarningLogsEnabled() {
-        return !IS_LOGGING_ENABLED && Logger.LOG_LEVEL.index() <= LogLevels.WARNING.index();
+    private static void writeSuppressed(final String tag, final TagThrottle throttle, final long now,
+                                        final boolean force) {
+        if (!Logger.isLoggable(LogLevels.INFO)) {
+            return;
+        }
+
+        final long count = throttle.takeSuppressed(now, force);
+
+        if (count > 0) {
+            Logger.write(LogLevels.INFO, tag, MessageTemplate.format("Suppressed {} messages", count), null);
+        }
     }
 }
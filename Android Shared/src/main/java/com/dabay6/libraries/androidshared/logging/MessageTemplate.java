@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import com.dabay6.libraries.androidshared.util.StringUtils;
+
+/**
+ * MessageTemplate <p> Formats log messages using a light-weight <code>{}</code> placeholder syntax. Each placeholder
+ * is replaced, in order, by the next argument. Placeholders without a matching argument are left as-is and arguments
+ * without a matching placeholder are ignored. Primitive arguments are appended directly, so no boxing occurs. </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+final class MessageTemplate {
+    /**
+     * Hidden constructor.
+     */
+    private MessageTemplate() {
+    }
+
+    static String format(final String template, final Object arg) {
+        final StringBuilder builder = StringUtils.obtainBuilder();
+        int index = next(builder, template, 0);
+
+        if (index >= 0) {
+            builder.append(arg);
+            remainder(builder, template, index);
+        }
+
+        return StringUtils.toStringAndRecycle(builder);
+    }
+
+    static String format(final String template, final long arg) {
+        final StringBuilder builder = StringUtils.obtainBuilder();
+        int index = next(builder, template, 0);
+
+        if (index >= 0) {
+            builder.append(arg);
+            remainder(builder, template, index);
+        }
+
+        return StringUtils.toStringAndRecycle(builder);
+    }
+
+    static String format(final String template, final double arg) {
+        final StringBuilder builder = StringUtils.obtainBuilder();
+        int index = next(builder, template, 0);
+
+        if (index >= 0) {
+            builder.append(arg);
+            remainder(builder, template, index);
+        }
+
+        return StringUtils.toStringAndRecycle(builder);
+    }
+
+    static String format(final String template, final boolean arg) {
+        final StringBuilder builder = StringUtils.obtainBuilder();
+        int index = next(builder, template, 0);
+
+        if (index >= 0) {
+            builder.append(arg);
+            remainder(builder, template, index);
+        }
+
+        return StringUtils.toStringAndRecycle(builder);
+    }
+
+    static String format(final String template, final Object arg1, final Object arg2) {
+        final StringBuilder builder = StringUtils.obtainBuilder();
+        int index = next(builder, template, 0);
+
+        if (index >= 0) {
+            builder.append(arg1);
+            index = next(builder, template, index);
+        }
+        if (index >= 0) {
+            builder.append(arg2);
+            remainder(builder, template, index);
+        }
+
+        return StringUtils.toStringAndRecycle(builder);
+    }
+
+    static String format(final String template, final long arg1, final Object arg2) {
+        final StringBuilder builder = StringUtils.obtainBuilder();
+        int index = next(builder, template, 0);
+
+        if (index >= 0) {
+            builder.append(arg1);
+            index = next(builder, template, index);
+        }
+        if (index >= 0) {
+            builder.append(arg2);
+            remainder(builder, template, index);
+        }
+
+        return StringUtils.toStringAndRecycle(builder);
+    }
+
+    static String format(final String template, final Object arg1, final long arg2) {
+        final StringBuilder builder = StringUtils.obtainBuilder();
+        int index = next(builder, template, 0);
+
+        if (index >= 0) {
+            builder.append(arg1);
+            index = next(builder, template, index);
+        }
+        if (index >= 0) {
+            builder.append(arg2);
+            remainder(builder, template, index);
+        }
+
+        return StringUtils.toStringAndRecycle(builder);
+    }
+
+    static String format(final String template, final long arg1, final long arg2) {
+        final StringBuilder builder = StringUtils.obtainBuilder();
+        int index = next(builder, template, 0);
+
+        if (index >= 0) {
+            builder.append(arg1);
+            index = next(builder, template, index);
+        }
+        if (index >= 0) {
+            builder.append(arg2);
+            remainder(builder, template, index);
+        }
+
+        return StringUtils.toStringAndRecycle(builder);
+    }
+
+    static String format(final String template, final Object arg1, final Object arg2, final Object arg3) {
+        final StringBuilder builder = StringUtils.obtainBuilder();
+        int index = next(builder, template, 0);
+
+        if (index >= 0) {
+            builder.append(arg1);
+            index = next(builder, template, index);
+        }
+        if (index >= 0) {
+            builder.append(arg2);
+            index = next(builder, template, index);
+        }
+        if (index >= 0) {
+            builder.append(arg3);
+            remainder(builder, template, index);
+        }
+
+        return StringUtils.toStringAndRecycle(builder);
+    }
+
+    /**
+     * Appends the template text starting at <code>start</code> up to the next placeholder.
+     *
+     * @param builder  The builder receiving the message.
+     * @param template The message template.
+     * @param start    The index within the template to start copying from.
+     *
+     * @return The index immediately after the placeholder, or -1 if the rest of the template has been copied.
+     */
+    private static int next(final StringBuilder builder, final String template, final int start) {
+        if (template == null) {
+            return -1;
+        }
+
+        final int placeholder = template.indexOf("{}", start);
+
+        if (placeholder < 0) {
+            builder.append(template, start, template.length());
+
+            return -1;
+        }
+
+        builder.append(template, start, placeholder);
+
+        return placeholder + 2;
+    }
+
+    private static void remainder(final StringBuilder builder, final String template, final int start) {
+        builder.append(template, start, template.length());
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+
+/**
+ * StructuredEvent
+ * <p>
+ * Collects typed key/value fields for a single structured log event and encodes them in the {@link BinaryLogFormat}.
+ * Instances are owned by the calling thread and reused, obtain one through {@link Logger#event(LogLevels, String,
+ * String)}, add fields and finish with {@link #log()}:
+ * </p>
+ * <pre>
+ * Logger.event(LogLevels.INFO, TAG, "auth_token_set").put("length", length).put("account", name).log();
+ * </pre>
+ * <p>
+ * When the event is suppressed a shared no-op instance is returned, so adding fields costs nothing.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class StructuredEvent {
+    static final StructuredEvent DISABLED = new StructuredEvent(false);
+    private final static int INITIAL_CAPACITY = 256;
+    private final static int MAX_RETAINED_CAPACITY = 8 * 1024;
+    private static final ThreadLocal<StructuredEvent> events = new ThreadLocal<StructuredEvent>() {
+        @Override
+        protected StructuredEvent initialValue() {
+            return new StructuredEvent(true);
+        }
+    };
+    private final boolean isEnabled;
+    private int bodyOffset;
+    private int fieldCount;
+    private byte[] fields;
+    private int fieldsLength;
+    private LogLevels level;
+    private String name;
+    private byte[] record;
+    private String tag;
+
+    private StructuredEvent(final boolean isEnabled) {
+        this.isEnabled = isEnabled;
+
+        if (isEnabled) {
+            fields = new byte[INITIAL_CAPACITY];
+            record = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Encodes the event and hands it to the registered sinks.
+     */
+    public void log() {
+        if (!isEnabled) {
+            return;
+        }
+
+        Logger.writeStructured(this);
+
+        level = null;
+        tag = null;
+        name = null;
+    }
+
+    /**
+     * Adds an integral field.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     *
+     * @return {@link StructuredEvent}
+     */
+    public StructuredEvent put(final String key, final long value) {
+        if (isEnabled) {
+            beginField(key, BinaryLogFormat.TYPE_LONG);
+            fieldsLength = writeVarint(fields, fieldsLength, (value << 1) ^ (value >> 63));
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds a floating point field.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     *
+     * @return {@link StructuredEvent}
+     */
+    public StructuredEvent put(final String key, final double value) {
+        if (isEnabled) {
+            beginField(key, BinaryLogFormat.TYPE_DOUBLE);
+            ensureFields(8);
+            fieldsLength = writeLong(fields, fieldsLength, Double.doubleToRawLongBits(value));
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds a boolean field.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     *
+     * @return {@link StructuredEvent}
+     */
+    public StructuredEvent put(final String key, final boolean value) {
+        if (isEnabled) {
+            beginField(key, BinaryLogFormat.TYPE_BOOLEAN);
+            ensureFields(1);
+            fields[fieldsLength++] = (byte) (value ? 1 : 0);
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds a text field.
+     *
+     * @param key   The field name.
+     * @param value The field value, may be null.
+     *
+     * @return {@link StructuredEvent}
+     */
+    public StructuredEvent put(final String key, final CharSequence value) {
+        if (isEnabled) {
+            if (value == null) {
+                beginField(key, BinaryLogFormat.TYPE_NULL);
+            }
+            else {
+                beginField(key, BinaryLogFormat.TYPE_STRING);
+                writeFieldString(value);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the calling thread's event, reset for a new record.
+     */
+    static StructuredEvent obtain(final LogLevels level, final String tag, final String name) {
+        final StructuredEvent event = events.get();
+
+        if (event.fields.length > MAX_RETAINED_CAPACITY) {
+            event.fields = new byte[INITIAL_CAPACITY];
+        }
+        if (event.record.length > MAX_RETAINED_CAPACITY) {
+            event.record = new byte[INITIAL_CAPACITY];
+        }
+
+        event.level = level;
+        event.tag = tag;
+        event.name = name;
+        event.fieldCount = 0;
+        event.fieldsLength = 0;
+
+        return event;
+    }
+
+    /**
+     * @return The level of the event.
+     */
+    LogLevels getLevel() {
+        return level;
+    }
+
+    /**
+     * @return The tag of the event.
+     */
+    String getTag() {
+        return tag;
+    }
+
+    /**
+     * Encodes the complete record, including its length prefix, into the reused record buffer.
+     *
+     * @param timestamp The time the event was logged.
+     *
+     * @return The encoded length of the record.
+     */
+    int encode(final long timestamp) {
+        final int tagLength = utf8Length(tag);
+        final int nameLength = utf8Length(name);
+        final int bodyLength = 8 + 1 + varintLength(tagLength) + tagLength + varintLength(nameLength) + nameLength
+                               + varintLength(fieldCount) + fieldsLength;
+        final int total = varintLength(bodyLength) + bodyLength;
+        int position;
+
+        if (record.length < total) {
+            record = new byte[Math.max(total, record.length * 2)];
+        }
+
+        position = writeVarint(record, 0, bodyLength);
+        bodyOffset = position;
+        position = writeLong(record, position, timestamp);
+        record[position++] = (byte) level.index();
+        position = writeVarint(record, position, tagLength);
+        position = writeUtf8(record, position, tag);
+        position = writeVarint(record, position, nameLength);
+        position = writeUtf8(record, position, name);
+        position = writeVarint(record, position, fieldCount);
+        System.arraycopy(fields, 0, record, position, fieldsLength);
+
+        return total;
+    }
+
+    /**
+     * @return The offset of the record body, following the length prefix, within {@link #getRecord()}.
+     */
+    int getBodyOffset() {
+        return bodyOffset;
+    }
+
+    /**
+     * @return The buffer holding the record produced by {@link #encode(long)}.
+     */
+    byte[] getRecord() {
+        return record;
+    }
+
+    private void beginField(final String key, final byte type) {
+        final int length = utf8Length(key);
+
+        ensureFields(varintLength(length) + length + 1);
+        fieldsLength = writeVarint(fields, fieldsLength, length);
+        fieldsLength = writeUtf8(fields, fieldsLength, key);
+        fields[fieldsLength++] = type;
+        fieldCount += 1;
+    }
+
+    private void ensureFields(final int additional) {
+        // room for the largest varint is always kept so integral fields never need to check
+        final int required = fieldsLength + additional + 10;
+
+        if (required > fields.length) {
+            final byte[] grown = new byte[Math.max(required, fields.length * 2)];
+
+            System.arraycopy(fields, 0, grown, 0, fieldsLength);
+            fields = grown;
+        }
+    }
+
+    private void writeFieldString(final CharSequence value) {
+        final int length = utf8Length(value);
+
+        ensureFields(varintLength(length) + length);
+        fieldsLength = writeVarint(fields, fieldsLength, length);
+        fieldsLength = writeUtf8(fields, fieldsLength, value);
+    }
+
+    private static int utf8Length(final CharSequence value) {
+        final int count = value == null ? 0 : value.length();
+        int length = 0;
+
+        for (int i = 0; i < count; i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                length += 1;
+            }
+            else if (c < 0x800) {
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i += 1;
+            }
+            else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    private static int varintLength(long value) {
+        int length = 1;
+
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length += 1;
+        }
+
+        return length;
+    }
+
+    private static int writeLong(final byte[] buffer, int position, final long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+
+        return position;
+    }
+
+    private static int writeUtf8(final byte[] buffer, int position, final CharSequence value) {
+        final int count = value == null ? 0 : value.length();
+
+        for (int i = 0; i < count; i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            }
+            else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+            else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        return position;
+    }
+
+    private static int writeVarint(final byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+
+        return position;
+    }
+}
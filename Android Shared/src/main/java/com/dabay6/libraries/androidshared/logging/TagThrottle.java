@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TagThrottle
+ * <p>
+ * Lock-free rate limiting and sampling state for a single log tag. The rate limit is a token bucket expressed as a
+ * theoretical arrival time: each permitted message pushes the time forward by one interval and a message is refused
+ * when that time runs further ahead of now than the burst allows. Sampling keeps one message out of every
+ * <code>sampleRate</code>.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+final class TagThrottle {
+    private final static long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    final int burst;
+    final int permitsPerSecond;
+    final int sampleRate;
+    private final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE);
+    private final long intervalNanos;
+    private final AtomicLong lastReport = new AtomicLong(System.nanoTime());
+    private final long maxAheadNanos;
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * @param permitsPerSecond The sustained number of messages allowed per second, 0 for no rate limit.
+     * @param burst            The number of messages allowed in a burst above the sustained rate.
+     * @param sampleRate       Keep one message out of every <code>sampleRate</code>, 1 keeps every message.
+     */
+    TagThrottle(final int permitsPerSecond, final int burst, final int sampleRate) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.sampleRate = sampleRate;
+
+        intervalNanos = permitsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / permitsPerSecond : 0;
+        maxAheadNanos = intervalNanos * Math.max(1, burst);
+    }
+
+    /**
+     * Moves the unreported suppressed count of a throttle that this one replaces.
+     *
+     * @param previous The replaced throttle.
+     */
+    void carrySuppressed(final TagThrottle previous) {
+        final long count = previous.suppressed.getAndSet(0);
+
+        if (count > 0) {
+            suppressed.addAndGet(count);
+        }
+    }
+
+    /**
+     * Determines whether a message may be written, counting it as suppressed if not.
+     *
+     * @param now The current value of {@link System#nanoTime()}.
+     *
+     * @return True if the message may be written, otherwise false.
+     */
+    boolean tryAcquire(final long now) {
+        if (sampleRate > 1 && samples.getAndIncrement() % sampleRate != 0) {
+            suppressed.incrementAndGet();
+
+            return false;
+        }
+
+        if (intervalNanos == 0) {
+            return true;
+        }
+
+        while (true) {
+            final long current = arrival.get();
+            final long next = Math.max(current, now) + intervalNanos;
+
+            if (next - now > maxAheadNanos) {
+                suppressed.incrementAndGet();
+
+                return false;
+            }
+
+            if (arrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Claims the number of messages suppressed since the last report once the report interval has elapsed.
+     *
+     * @param now   The current value of {@link System#nanoTime()}.
+     * @param force Claim the count even if the report interval has not elapsed.
+     *
+     * @return The number of suppressed messages to report, or 0 if there is nothing to report yet.
+     */
+    long takeSuppressed(final long now, final boolean force) {
+        final long last = lastReport.get();
+
+        if (suppressed.get() == 0) {
+            return 0;
+        }
+
+        if (!force && now - last < REPORT_INTERVAL_NANOS) {
+            return 0;
+        }
+
+        if (!lastReport.compareAndSet(last, now)) {
+            return 0;
+        }
+
+        return suppressed.getAndSet(0);
+    }
+}
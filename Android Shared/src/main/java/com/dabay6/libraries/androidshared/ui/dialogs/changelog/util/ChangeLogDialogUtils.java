@@ -265,9 +265,13 @@ public final class ChangeLogDialogUtils {
             reader.close();
 
             if (releases.size() > 0) {
-                html = String.format("<html><head>%s</head><body>", style);
-                html += parseReleases(context, releases);
-                html += "</body></html>";
+                final StringBuilder builder = StringUtils.obtainBuilder();
+
+                builder.append("<html><head>").append(style).append("</head><body>");
+                parseReleases(context, releases, builder);
+                builder.append("</body></html>");
+
+                html = StringUtils.toStringAndRecycle(builder);
             }
         }
         catch (final Exception ex) {
@@ -279,9 +283,8 @@ public final class ChangeLogDialogUtils {
         return html;
     }
 
-    private static String parseReleases(final Context context, final List<Release> releases) {
+    private static void parseReleases(final Context context, final List<Release> releases, final StringBuilder html) {
         final Resources res = context.getResources();
-        final StringBuilder html = new StringBuilder();
 
         for (final Release release : releases) {
             html.append("<h1>");
@@ -297,7 +300,7 @@ public final class ChangeLogDialogUtils {
                 html.append("<ul>");
 
                 for (final ChangeLogItem item : list) {
-                    html.append(String.format("<li>%s</li>", item.getDescription()));
+                    html.append("<li>").append(item.getDescription()).append("</li>");
                 }
 
                 html.append("</ul>");
@@ -312,13 +315,11 @@ public final class ChangeLogDialogUtils {
                 html.append("<ul>");
 
                 for (final ChangeLogItem item : list) {
-                    html.append(String.format("<li>%s</li>", item.getDescription()));
+                    html.append("<li>").append(item.getDescription()).append("</li>");
                 }
 
                 html.append("</ul>");
             }
         }
-
-        return html.toString();
     }
 }
\ No newline at end of file
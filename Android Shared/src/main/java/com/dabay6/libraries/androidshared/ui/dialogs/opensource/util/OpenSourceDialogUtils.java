@@ -32,8 +32,10 @@ import com.dabay6.libraries.androidshared.R.string;
 import com.dabay6.libraries.androidshared.logging.Logger;
 import com.dabay6.libraries.androidshared.ui.dialogs.opensource.OnOpenSourceDialogListener;
 import com.dabay6.libraries.androidshared.ui.dialogs.opensource.OpenSourceItem;
+import com.dabay6.libraries.androidshared.util.StringUtils;
 
 import java.util.List;
+import java.util.Locale;
 
 /**
  * OpenSourceDialogUtils
@@ -105,16 +107,18 @@ public final class OpenSourceDialogUtils {
         final AlertDialog.Builder builder;
         final WebSettings settings;
         final WebView web = new WebView(context);
-        String html = "";
+        final Locale locale = Locale.getDefault();
+        final StringBuilder html = StringUtils.obtainBuilder();
 
         settings = web.getSettings();
         settings.setSupportZoom(false);
 
         for (final OpenSourceItem item : items) {
-            html += String.format(HTML_ITEM, item.getName(), item.getLicense());
+            StringUtils.format(html, locale, HTML_ITEM, item.getName(), item.getLicense());
         }
 
-        web.loadData(String.format(HTML, html), "text/html", "utf-8");
+        web.loadData(String.format(locale, HTML, html), "text/html", "utf-8");
+        StringUtils.recycleBuilder(html);
 
         builder = new AlertDialog.Builder(context);
         builder.setTitle(R.string.about_licenses)
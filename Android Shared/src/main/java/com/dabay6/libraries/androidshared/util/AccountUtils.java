@@ -29,11 +29,17 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.text.TextUtils;
 
+import com.dabay6.libraries.androidshared.enums.LogLevels;
 import com.dabay6.libraries.androidshared.helper.PreferenceHelper;
 import com.dabay6.libraries.androidshared.logging.Logger;
 import com.google.android.gms.auth.GoogleAuthUtil;
 import com.google.android.gms.common.AccountPicker;
 
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * AccountUtils
  *
@@ -42,14 +48,100 @@ import com.google.android.gms.common.AccountPicker;
  */
 @SuppressWarnings("unused")
 public final class AccountUtils {
+    private static final String ACCOUNT_PREFERENCES_EXTENSION = ".xml";
+    private static final String ACCOUNT_PREFERENCES_PREFIX = "account_";
     private static final String PREFIX_PREF_AUTH_TOKEN = "auth_token_";
+    private static final String PREF_ACCOUNT_PREFERENCES_MIGRATED = "util__account_preferences_migrated";
     private static final String PREF_ACTIVE_ACCOUNT = "util__chosen_account";
+    private static final String PREF_AUTH_TOKEN = "auth_token";
+    private static final String[] LEGACY_PREFIXES = {
+            PREFIX_PREF_AUTH_TOKEN,
+            GoogleAccountUtils.PREFIX_PREF_PLUS_COVER_URL,
+            GoogleAccountUtils.PREFIX_PREF_PLUS_IMAGE_URL,
+            GoogleAccountUtils.PREFIX_PREF_PLUS_NAME,
+            GoogleAccountUtils.PREFIX_PREF_PLUS_PROFILE_ID
+    };
     private final static String TAG = Logger.makeTag(AccountUtils.class);
+    private static volatile boolean isMigrationChecked = false;
     /**
      *
      */
     public static int PICK_ACCOUNT_REQUEST = 0x1000;
 
+    /**
+     * Returns the preferences that belong to a single account. Each account has its own small file, so writing a
+     * value for one account does not rewrite the values of every other account.
+     *
+     * @param context     the {@link Context} used to access the preferences.
+     * @param accountName the name of the account.
+     *
+     * @return {@link PreferenceHelper} for the account's preferences file.
+     */
+    public static PreferenceHelper getAccountPreferences(final Context context, final String accountName) {
+        if (TextUtils.isEmpty(accountName)) {
+            throw new IllegalArgumentException("Account name must not be empty.");
+        }
+
+        migrateAccountPreferences(context);
+
+        return PreferenceHelper.with(context, getAccountPreferencesName(accountName), Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Letters, digits, '.', '@' and '-' are kept as they are; any other character, '_' included, is written as '_'
+     * followed by its four hex digit code, so two different account names never share a file.
+     *
+     * @param accountName the name of the account.
+     *
+     * @return the name of the preferences file that belongs to the account.
+     */
+    public static String getAccountPreferencesName(final String accountName) {
+        final StringBuilder builder = new StringBuilder(ACCOUNT_PREFERENCES_PREFIX.length() + accountName.length());
+
+        builder.append(ACCOUNT_PREFERENCES_PREFIX);
+        for (int i = 0; i < accountName.length(); i++) {
+            final char c = accountName.charAt(i);
+
+            if (Character.isLetterOrDigit(c) || c == '.' || c == '@' || c == '-') {
+                builder.append(c);
+            }
+            else {
+                builder.append('_');
+                for (int shift = 12; shift >= 0; shift -= 4) {
+                    builder.append(Character.forDigit((c >> shift) & 0xF, 16));
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Lists the per-account preferences files that exist on disk, for example to preload them.
+     *
+     * @param context the {@link Context} used to locate the preferences.
+     *
+     * @return the names of the account preferences files.
+     */
+    public static List<String> getAccountPreferencesNames(final Context context) {
+        final List<String> names = CollectionUtils.newList();
+        final File[] files = new File(context.getApplicationInfo().dataDir, "shared_prefs").listFiles();
+
+        if (files == null) {
+            return names;
+        }
+
+        for (final File file : files) {
+            final String name = file.getName();
+
+            if (name.startsWith(ACCOUNT_PREFERENCES_PREFIX) && name.endsWith(ACCOUNT_PREFERENCES_EXTENSION)) {
+                names.add(name.substring(0, name.length() - ACCOUNT_PREFERENCES_EXTENSION.length()));
+            }
+        }
+
+        return names;
+    }
+
     /**
      * @param context
      * @param accountType
@@ -78,8 +170,7 @@ public final class AccountUtils {
 
     public static String getAuthToken(final Context context) {
         return hasActiveAccount(context) ?
-                PreferenceHelper.with(context).getString(makeAccountSpecificPrefKey(context, PREFIX_PREF_AUTH_TOKEN),
-                        null) : null;
+                getAccountPreferences(context, getActiveAccountName(context)).getString(PREF_AUTH_TOKEN, null) : null;
     }
 
     /**
@@ -98,8 +189,7 @@ public final class AccountUtils {
      * @return
      */
     public static boolean hasToken(final Context context, final String accountName) {
-        return !TextUtils.isEmpty(PreferenceHelper.with(context).getString(makeAccountSpecificPrefKey(accountName,
-                PREFIX_PREF_AUTH_TOKEN), null));
+        return !TextUtils.isEmpty(getAccountPreferences(context, accountName).getString(PREF_AUTH_TOKEN, null));
     }
 
     /**
@@ -138,14 +228,12 @@ public final class AccountUtils {
     }
 
     public static void setAuthToken(final Context context, final String accountName, final String authToken) {
-        Logger.info(TAG, "Auth token of length "
-                         + (TextUtils.isEmpty(authToken) ? 0 : authToken.length()) + " for "
-                         + accountName);
-
-        PreferenceHelper.with(context).save(makeAccountSpecificPrefKey(accountName, PREFIX_PREF_AUTH_TOKEN),
-                authToken);
+        Logger.event(LogLevels.INFO, TAG, "auth_token_set")
+              .put("length", TextUtils.isEmpty(authToken) ? 0 : authToken.length())
+              .put("account", accountName)
+              .log();
 
-        Logger.verbose(TAG, "Auth Token: " + authToken);
+        getAccountPreferences(context, accountName).save(PREF_AUTH_TOKEN, authToken);
     }
 
     public static void setAuthToken(final Context context, final String authToken) {
@@ -157,6 +245,75 @@ public final class AccountUtils {
         }
     }
 
+    /**
+     * Moves the values that were stored in the default preferences under account-prefixed keys into the account's
+     * own preferences file. Runs once per installation; if an account's file cannot be written the shared values are
+     * kept and the migration is tried again the next time the process starts.
+     */
+    private static void migrateAccountPreferences(final Context context) {
+        if (isMigrationChecked) {
+            return;
+        }
+
+        synchronized (AccountUtils.class) {
+            if (isMigrationChecked) {
+                return;
+            }
+
+            final PreferenceHelper defaults = PreferenceHelper.with(context);
+
+            if (!defaults.getBoolean(PREF_ACCOUNT_PREFERENCES_MIGRATED, false)) {
+                final Map<String, PreferenceHelper.Batch> batches = new HashMap<>();
+                final PreferenceHelper.Batch legacy = defaults.edit();
+
+                for (final Map.Entry<String, ?> entry : defaults.getAll().entrySet()) {
+                    final String key = entry.getKey();
+
+                    if (!(entry.getValue() instanceof String)) {
+                        continue;
+                    }
+
+                    for (final String prefix : LEGACY_PREFIXES) {
+                        if (key.length() > prefix.length() && key.startsWith(prefix)) {
+                            final String accountName = key.substring(prefix.length());
+                            PreferenceHelper.Batch batch = batches.get(accountName);
+
+                            if (batch == null) {
+                                batch = PreferenceHelper.with(context, getAccountPreferencesName(accountName),
+                                                              Context.MODE_PRIVATE).edit();
+                                batches.put(accountName, batch);
+                            }
+
+                            batch.putString(prefix.substring(0, prefix.length() - 1), (String) entry.getValue());
+                            legacy.remove(key);
+                            break;
+                        }
+                    }
+                }
+
+                boolean isCopied = true;
+
+                // the account files must be on disk before the shared copies are removed
+                for (final PreferenceHelper.Batch batch : batches.values()) {
+                    if (!batch.commit()) {
+                        isCopied = false;
+                    }
+                }
+
+                if (isCopied) {
+                    legacy.putBoolean(PREF_ACCOUNT_PREFERENCES_MIGRATED, true).apply();
+
+                    Logger.event(LogLevels.INFO, TAG, "account_prefs_migrated").put("accounts", batches.size()).log();
+                }
+                else {
+                    Logger.warn(TAG, "Unable to write the account preferences, keeping the shared values.");
+                }
+            }
+
+            isMigrationChecked = true;
+        }
+    }
+
     /**
      * @param activity {@link Activity} used to start the account picker activity.
      */
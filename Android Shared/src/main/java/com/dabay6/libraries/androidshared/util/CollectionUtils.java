@@ -22,9 +22,20 @@
 
 package com.dabay6.libraries.androidshared.util;
 
+import com.dabay6.libraries.androidshared.util.collections.Function;
+import com.dabay6.libraries.androidshared.util.collections.IntObjectHashMap;
+import com.dabay6.libraries.androidshared.util.collections.LongArrayList;
+import com.dabay6.libraries.androidshared.util.collections.LongHashSet;
+import com.dabay6.libraries.androidshared.util.collections.LongObjectHashMap;
+import com.dabay6.libraries.androidshared.util.collections.Parallel;
+import com.dabay6.libraries.androidshared.util.collections.Pipeline;
+import com.dabay6.libraries.androidshared.util.collections.Predicate;
+
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -54,6 +65,19 @@ public final class CollectionUtils {
         return newList;
     }
 
+    /**
+     * Starts a lazy {@link Pipeline} over the given items. The stages added to the pipeline run in a single pass when
+     * a terminal method such as {@link Pipeline#toList()} is called.
+     *
+     * @param source the items to process.
+     * @param <T>    The generic type of the items.
+     *
+     * @return a new {@link Pipeline} over the items.
+     */
+    public static <T> Pipeline<T> from(final Collection<T> source) {
+        return new Pipeline<>(source);
+    }
+
     /**
      * Determines if a given {@link java.util.List} is empty.
      *
@@ -149,6 +173,26 @@ public final class CollectionUtils {
         return new HashMap<>();
     }
 
+    /**
+     * Creates an {@link IntObjectHashMap} instance.
+     *
+     * @return a newly-created, initially-empty {@link IntObjectHashMap}
+     */
+    public static <V> IntObjectHashMap<V> newIntObjectMap() {
+        return new IntObjectHashMap<>();
+    }
+
+    /**
+     * Creates an {@link IntObjectHashMap} instance.
+     *
+     * @param expectedSize the number of entries the map holds before it must grow.
+     *
+     * @return a newly-created, initially-empty {@link IntObjectHashMap}
+     */
+    public static <V> IntObjectHashMap<V> newIntObjectMap(final int expectedSize) {
+        return new IntObjectHashMap<>(expectedSize);
+    }
+
     /**
      * Creates a {@link java.util.LinkedHashMap} instance.
      *
@@ -158,6 +202,74 @@ public final class CollectionUtils {
         return new LinkedHashMap<>();
     }
 
+    /**
+     * Creates an empty {@link LongArrayList} instance.
+     *
+     * @return a newly-created, initially-empty {@link LongArrayList}
+     */
+    public static LongArrayList newLongList() {
+        return new LongArrayList();
+    }
+
+    /**
+     * Creates a {@link LongArrayList} instance containing the given values.
+     *
+     * @param values the values that the list should contain, in order
+     *
+     * @return a newly-created {@link LongArrayList} containing those values
+     */
+    public static LongArrayList newLongList(final long... values) {
+        final LongArrayList list = new LongArrayList(values.length);
+
+        list.addAll(values);
+
+        return list;
+    }
+
+    /**
+     * Creates a {@link LongObjectHashMap} instance.
+     *
+     * @return a newly-created, initially-empty {@link LongObjectHashMap}
+     */
+    public static <V> LongObjectHashMap<V> newLongObjectMap() {
+        return new LongObjectHashMap<>();
+    }
+
+    /**
+     * Creates a {@link LongObjectHashMap} instance.
+     *
+     * @param expectedSize the number of entries the map holds before it must grow.
+     *
+     * @return a newly-created, initially-empty {@link LongObjectHashMap}
+     */
+    public static <V> LongObjectHashMap<V> newLongObjectMap(final int expectedSize) {
+        return new LongObjectHashMap<>(expectedSize);
+    }
+
+    /**
+     * Creates an empty {@link LongHashSet} instance.
+     *
+     * @return a newly-created, initially-empty {@link LongHashSet}
+     */
+    public static LongHashSet newLongSet() {
+        return new LongHashSet();
+    }
+
+    /**
+     * Creates a {@link LongHashSet} instance containing the given values.
+     *
+     * @param values the values that the set should contain
+     *
+     * @return a newly-created {@link LongHashSet} containing those values
+     */
+    public static LongHashSet newLongSet(final long... values) {
+        final LongHashSet set = new LongHashSet(values.length);
+
+        set.addAll(values);
+
+        return set;
+    }
+
     /**
      * Creates a resizable {@link List} instance containing the given elements.
      *
@@ -195,6 +307,52 @@ public final class CollectionUtils {
         return new ArrayList<>();
     }
 
+    /**
+     * Returns the items accepted by the predicate, in their original order. Large lists are split across a shared
+     * pool of threads, see {@link Parallel}.
+     *
+     * @param list      the items to filter.
+     * @param predicate the predicate to apply; it must be safe to call from several threads at once.
+     *
+     * @return a newly-created list of the accepted items.
+     */
+    public static <T> ArrayList<T> parallelFilter(final List<T> list, final Predicate<? super T> predicate) {
+        return Parallel.filter(list, predicate);
+    }
+
+    /**
+     * Transforms every item, keeping the original order. Large lists are split across a shared pool of threads, see
+     * {@link Parallel}.
+     *
+     * @param list     the items to transform.
+     * @param function the function to apply; it must be safe to call from several threads at once.
+     *
+     * @return a newly-created list of the transformed items.
+     */
+    public static <T, R> ArrayList<R> parallelMap(final List<T> list, final Function<? super T, ? extends R> function) {
+        return Parallel.map(list, function);
+    }
+
+    /**
+     * Sorts the list in place. Large lists are sorted in chunks on a shared pool of threads and then merged, see
+     * {@link Parallel}. The sort is stable.
+     *
+     * @param list       the list to sort.
+     * @param comparator the comparator used to order the items.
+     */
+    public static <T> void parallelSort(final List<T> list, final Comparator<? super T> comparator) {
+        Parallel.sort(list, comparator);
+    }
+
+    /**
+     * Sets the list size below which the parallel operations run on the calling thread.
+     *
+     * @param threshold the minimum list size for parallel processing.
+     */
+    public static void setParallelThreshold(final int threshold) {
+        Parallel.setThreshold(threshold);
+    }
+
     /**
      * @param list          the {@link ArrayList} that will be copied from.
      * @param componentType the component componentType of the new array
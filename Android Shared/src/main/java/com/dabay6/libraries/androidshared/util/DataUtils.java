@@ -25,6 +25,7 @@ package com.dabay6.libraries.androidshared.util;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
+import com.dabay6.libraries.androidshared.enums.LogLevels;
 import com.dabay6.libraries.androidshared.logging.Logger;
 
 /**
@@ -78,9 +79,11 @@ public final class DataUtils {
     public static void execMultipleSQL(final SQLiteDatabase db, final String[] sql) {
         for (final String s : sql) {
             if (!TextUtils.isEmpty(s.trim())) {
+                final String statement = s.replace('|', ';');
+
                 try {
-                    Logger.debug(TAG, s.replace('|', ';'));
-                    db.execSQL(s.replace('|', ';'));
+                    Logger.event(LogLevels.DEBUG, TAG, "exec_sql").put("statement", statement).log();
+                    db.execSQL(statement);
                 }
                 catch (final Exception ex) {
                     Logger.error(TAG, ex.getMessage(), ex);
@@ -25,7 +25,6 @@ package com.dabay6.libraries.androidshared.util;
 import android.content.Context;
 import android.text.TextUtils;
 
-import com.dabay6.libraries.androidshared.helper.PreferenceHelper;
 import com.google.android.gms.auth.GoogleAuthUtil;
 import com.google.android.gms.common.Scopes;
 
@@ -41,33 +40,30 @@ public final class GoogleAccountUtils {
             "https://www.googleapis.com/auth/plus.profile.emails.read"
     };
     public static final String AUTH_TOKEN_TYPE;
-    private static final String PREFIX_PREF_PLUS_COVER_URL = "plus_cover_url_";
-    private static final String PREFIX_PREF_PLUS_IMAGE_URL = "plus_image_url_";
-    private static final String PREFIX_PREF_PLUS_NAME = "plus_name_";
-    private static final String PREFIX_PREF_PLUS_PROFILE_ID = "plus_profile_id_";
+    static final String PREFIX_PREF_PLUS_COVER_URL = "plus_cover_url_";
+    static final String PREFIX_PREF_PLUS_IMAGE_URL = "plus_image_url_";
+    static final String PREFIX_PREF_PLUS_NAME = "plus_name_";
+    static final String PREFIX_PREF_PLUS_PROFILE_ID = "plus_profile_id_";
+    private static final String PREF_PLUS_COVER_URL = "plus_cover_url";
+    private static final String PREF_PLUS_IMAGE_URL = "plus_image_url";
+    private static final String PREF_PLUS_NAME = "plus_name";
+    private static final String PREF_PLUS_PROFILE_ID = "plus_profile_id";
 
     public static String getPlusCoverUrl(final Context context) {
-        return AccountUtils.hasActiveAccount(context) ? PreferenceHelper.with(context).getString
-                (AccountUtils.makeAccountSpecificPrefKey(context,
-                        PREFIX_PREF_PLUS_COVER_URL), null) : null;
+        return getActiveAccountString(context, PREF_PLUS_COVER_URL);
     }
 
     public static String getPlusImageUrl(final Context context) {
-        return AccountUtils.hasActiveAccount(context) ? PreferenceHelper.with(context).getString
-                (AccountUtils.makeAccountSpecificPrefKey(context,
-                        PREFIX_PREF_PLUS_IMAGE_URL), null) : null;
+        return getActiveAccountString(context, PREF_PLUS_IMAGE_URL);
     }
 
     public static String getPlusImageUrl(final Context context, final String accountName) {
-        return AccountUtils.hasActiveAccount(context) ? PreferenceHelper.with(context).getString
-                (AccountUtils.makeAccountSpecificPrefKey(accountName,
-                        PREFIX_PREF_PLUS_IMAGE_URL), null) : null;
+        return AccountUtils.hasActiveAccount(context) ?
+                AccountUtils.getAccountPreferences(context, accountName).getString(PREF_PLUS_IMAGE_URL, null) : null;
     }
 
     public static String getPlusName(final Context context) {
-        return AccountUtils.hasActiveAccount(context) ? PreferenceHelper.with(context).getString
-                (AccountUtils.makeAccountSpecificPrefKey(context,
-                        PREFIX_PREF_PLUS_NAME), null) : null;
+        return getActiveAccountString(context, PREF_PLUS_NAME);
     }
 
     /**
@@ -76,8 +72,7 @@ public final class GoogleAccountUtils {
      * @return
      */
     public static String getPlusProfileId(final Context context) {
-        return AccountUtils.hasActiveAccount(context) ? PreferenceHelper.with(context).getString
-                (AccountUtils.makeAccountSpecificPrefKey(context, PREFIX_PREF_PLUS_PROFILE_ID), null) : null;
+        return getActiveAccountString(context, PREF_PLUS_PROFILE_ID);
     }
 
     /**
@@ -87,32 +82,31 @@ public final class GoogleAccountUtils {
      * @return
      */
     public static boolean hasPlusInfo(final Context context, final String accountName) {
-        return !TextUtils.isEmpty(PreferenceHelper.with(context).getString(AccountUtils.makeAccountSpecificPrefKey
-                (accountName,
-                        PREFIX_PREF_PLUS_PROFILE_ID), null));
+        return !TextUtils.isEmpty(AccountUtils.getAccountPreferences(context, accountName)
+                                              .getString(PREF_PLUS_PROFILE_ID, null));
     }
 
     public static void setPlusCoverUrl(final Context context, final String accountName, String coverPhotoUrl) {
-        PreferenceHelper.with(context).save(AccountUtils.makeAccountSpecificPrefKey(accountName,
-                        PREFIX_PREF_PLUS_COVER_URL),
-                coverPhotoUrl);
+        AccountUtils.getAccountPreferences(context, accountName).save(PREF_PLUS_COVER_URL, coverPhotoUrl);
     }
 
     public static void setPlusImageUrl(final Context context, final String accountName, final String imageUrl) {
-        PreferenceHelper.with(context).save(AccountUtils.makeAccountSpecificPrefKey(accountName,
-                        PREFIX_PREF_PLUS_IMAGE_URL),
-                imageUrl);
+        AccountUtils.getAccountPreferences(context, accountName).save(PREF_PLUS_IMAGE_URL, imageUrl);
     }
 
     public static void setPlusName(final Context context, final String accountName, final String name) {
-        PreferenceHelper.with(context).save(AccountUtils.makeAccountSpecificPrefKey(accountName, PREFIX_PREF_PLUS_NAME),
-                name);
+        AccountUtils.getAccountPreferences(context, accountName).save(PREF_PLUS_NAME, name);
     }
 
     public static void setPlusProfileId(final Context context, final String accountName, final String profileId) {
-        PreferenceHelper.with(context).save(AccountUtils.makeAccountSpecificPrefKey(accountName,
-                        PREFIX_PREF_PLUS_PROFILE_ID),
-                profileId);
+        AccountUtils.getAccountPreferences(context, accountName).save(PREF_PLUS_PROFILE_ID, profileId);
+    }
+
+    private static String getActiveAccountString(final Context context, final String key) {
+        final String accountName = AccountUtils.getActiveAccountName(context);
+
+        return TextUtils.isEmpty(accountName) ? null :
+                AccountUtils.getAccountPreferences(context, accountName).getString(key, null);
     }
 
     static void invalidateAuthToken(final Context context) {
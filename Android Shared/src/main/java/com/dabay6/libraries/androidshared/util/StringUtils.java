@@ -24,9 +24,10 @@ package com.dabay6.libraries.androidshared.util;
 
 import android.text.TextUtils;
 
+import java.io.IOException;
+import java.util.Formatter;
 import java.util.List;
 import java.util.Locale;
-import java.util.regex.Pattern;
 
 /**
  * StringUtils
@@ -36,7 +37,15 @@ import java.util.regex.Pattern;
  */
 @SuppressWarnings("unused")
 public final class StringUtils {
-    private static final Pattern PATTERN = Pattern.compile("([a-z])([A-Z])");
+    private static final int BUILDER_CAPACITY = 256;
+    private static final int MAX_POOLED_CAPACITY = 16 * 1024;
+    private static final int POOL_SIZE = 4;
+    private static final ThreadLocal<BuilderPool> POOLS = new ThreadLocal<BuilderPool>() {
+        @Override
+        protected BuilderPool initialValue() {
+            return new BuilderPool();
+        }
+    };
 
     /**
      * Hidden constructor.
@@ -57,10 +66,10 @@ public final class StringUtils {
      * @param text    The text to be compared.
      * @param compare The text to compare to.
      *
-     * @return True if equal, otherwise false.
+     * @return True if equal, otherwise false. Always false if either text is null.
      */
     public static boolean equals(final String text, final String compare) {
-        return text.equalsIgnoreCase(compare);
+        return text != null && text.equalsIgnoreCase(compare);
     }
 
     /**
@@ -69,10 +78,85 @@ public final class StringUtils {
      * @param text    The text to be compared.
      * @param compare The text to compare to.
      *
-     * @return True if equal, otherwise false.
+     * @return True if equal, otherwise false. Always false if either text is null.
      */
     public static boolean equals(final CharSequence text, final CharSequence compare) {
-        return equals(text.toString(), compare.toString());
+        if (text == null || compare == null) {
+            return false;
+        }
+        if (text instanceof String && compare instanceof String) {
+            return ((String) text).equalsIgnoreCase((String) compare);
+        }
+        if (text == compare) {
+            return true;
+        }
+
+        final int length = text.length();
+
+        if (length != compare.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            final char c1 = text.charAt(i);
+            final char c2 = compare.charAt(i);
+
+            if (c1 == c2) {
+                continue;
+            }
+
+            // same rules as String.equalsIgnoreCase
+            final char u1 = Character.toUpperCase(c1);
+            final char u2 = Character.toUpperCase(c2);
+
+            if (u1 != u2 && Character.toLowerCase(u1) != Character.toLowerCase(u2)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Formats the passed in string with the supplied parameters into a {@link StringBuilder}, without creating an
+     * intermediate string.
+     *
+     * @param builder The {@link StringBuilder} the formatted text is appended to.
+     * @param locale  The locale to apply.
+     * @param format  The string containing the format.
+     * @param params  The list of arguments passed to the formatter.
+     *
+     * @return The {@link StringBuilder}.
+     */
+    public static StringBuilder format(final StringBuilder builder, final Locale locale, final String format,
+                                       final Object... params) {
+        new Formatter(builder, locale).format(format, params);
+
+        return builder;
+    }
+
+    /**
+     * Formats the passed in string with the supplied parameters into an {@link Appendable}, without creating an
+     * intermediate string.
+     *
+     * @param out    The {@link Appendable} the formatted text is written to.
+     * @param locale The locale to apply.
+     * @param format The string containing the format.
+     * @param params The list of arguments passed to the formatter.
+     *
+     * @return The {@link Appendable}.
+     *
+     * @throws IOException if the {@link Appendable} fails.
+     */
+    public static <A extends Appendable> A format(final A out, final Locale locale, final String format,
+                                                  final Object... params) throws IOException {
+        final Formatter formatter = new Formatter(out, locale).format(format, params);
+
+        if (formatter.ioException() != null) {
+            throw formatter.ioException();
+        }
+
+        return out;
     }
 
     /**
@@ -101,20 +185,73 @@ public final class StringUtils {
     }
 
     /**
-     * @return the joined {@link String}, null otherwise
+     * Appends the items to a {@link StringBuilder}, separated by the separator. {@link CharSequence} items are
+     * appended without calling toString().
+     *
+     * @param builder   The {@link StringBuilder} the items are appended to.
+     * @param items     The items to join.
+     * @param separator The text written between items.
+     *
+     * @return The {@link StringBuilder}.
      */
-    public static <T> String join(final List<T> list, final String separator) {
-        if (list != null && list.size() > 0) {
-            final StringBuilder builder = new StringBuilder();
+    public static StringBuilder join(final StringBuilder builder, final Iterable<?> items,
+                                     final CharSequence separator) {
+        boolean isFirst = true;
 
-            for (final T item : list) {
-                if (builder.length() > 0) {
-                    builder.append(separator);
-                }
-                builder.append(item.toString());
+        for (final Object item : items) {
+            if (!isFirst) {
+                builder.append(separator);
             }
+            if (item instanceof CharSequence) {
+                builder.append((CharSequence) item);
+            }
+            else {
+                builder.append(item);
+            }
+            isFirst = false;
+        }
+
+        return builder;
+    }
+
+    /**
+     * Writes the items to an {@link Appendable}, separated by the separator. {@link CharSequence} items are written
+     * without calling toString().
+     *
+     * @param out       The {@link Appendable} the items are written to.
+     * @param items     The items to join.
+     * @param separator The text written between items.
+     *
+     * @return The {@link Appendable}.
+     *
+     * @throws IOException if the {@link Appendable} fails.
+     */
+    public static <A extends Appendable> A join(final A out, final Iterable<?> items, final CharSequence separator)
+            throws IOException {
+        boolean isFirst = true;
+
+        for (final Object item : items) {
+            if (!isFirst) {
+                out.append(separator);
+            }
+            if (item instanceof CharSequence) {
+                out.append((CharSequence) item);
+            }
+            else {
+                out.append(String.valueOf(item));
+            }
+            isFirst = false;
+        }
+
+        return out;
+    }
 
-            return builder.toString();
+    /**
+     * @return the joined {@link String}, null otherwise
+     */
+    public static <T> String join(final List<T> list, final String separator) {
+        if (list != null && list.size() > 0) {
+            return toStringAndRecycle(join(obtainBuilder(), list, separator));
         }
 
         return null;
@@ -134,6 +271,74 @@ public final class StringUtils {
         return StringUtils.join(list, String.valueOf(separator));
     }
 
+    /**
+     * Finds the next lower case to upper case transition in a camel case string.
+     *
+     * @param s      The string to scan.
+     * @param from   The index of the first upper case candidate.
+     * @param length The length of the string.
+     *
+     * @return The index of the upper case character, or -1 if there are no more transitions.
+     */
+    private static int nextWordBoundary(final String s, final int from, final int length) {
+        for (int i = from; i < length; i++) {
+            final char c = s.charAt(i);
+
+            if (c >= 'A' && c <= 'Z') {
+                final char previous = s.charAt(i - 1);
+
+                if (previous >= 'a' && previous <= 'z') {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Retrieves an empty {@link StringBuilder} from the calling thread's pool. Return it with {@link
+     * #recycleBuilder(StringBuilder)} or {@link #toStringAndRecycle(StringBuilder)} once it is no longer used; a
+     * builder must not be used after it has been returned.
+     *
+     * @return An empty {@link StringBuilder}.
+     */
+    public static StringBuilder obtainBuilder() {
+        final BuilderPool pool = POOLS.get();
+
+        if (pool.size == 0) {
+            return new StringBuilder(BUILDER_CAPACITY);
+        }
+
+        pool.size -= 1;
+
+        final StringBuilder builder = pool.builders[pool.size];
+
+        pool.builders[pool.size] = null;
+        builder.setLength(0);
+
+        return builder;
+    }
+
+    /**
+     * Returns a {@link StringBuilder} to the calling thread's pool. Builders that have grown beyond the pool's size
+     * cap, or that do not fit in the pool, are left to the garbage collector.
+     *
+     * @param builder The {@link StringBuilder} to return.
+     */
+    public static void recycleBuilder(final StringBuilder builder) {
+        if (builder.capacity() > MAX_POOLED_CAPACITY) {
+            return;
+        }
+
+        final BuilderPool pool = POOLS.get();
+
+        if (pool.size < POOL_SIZE) {
+            pool.builders[pool.size] = builder;
+            pool.size += 1;
+        }
+    }
+
     /**
      * Splits the passed in string into words.
      *
@@ -142,7 +347,42 @@ public final class StringUtils {
      * @return The split string.
      */
     public static String splitIntoWords(final String s) {
-        return PATTERN.matcher(s).replaceAll("$1 $2");
+        final int length = s.length();
+        int boundary = nextWordBoundary(s, 1, length);
+
+        if (boundary < 0) {
+            return s;
+        }
+
+        final StringBuilder builder = obtainBuilder();
+        int start = 0;
+
+        builder.ensureCapacity(length + 8);
+
+        while (boundary >= 0) {
+            builder.append(s, start, boundary).append(' ');
+            start = boundary;
+            boundary = nextWordBoundary(s, boundary + 1, length);
+        }
+
+        builder.append(s, start, length);
+
+        return toStringAndRecycle(builder);
+    }
+
+    /**
+     * Returns the contents of a pooled {@link StringBuilder} and returns the builder to the pool.
+     *
+     * @param builder The {@link StringBuilder} obtained from {@link #obtainBuilder()}.
+     *
+     * @return The contents of the builder.
+     */
+    public static String toStringAndRecycle(final StringBuilder builder) {
+        final String s = builder.toString();
+
+        recycleBuilder(builder);
+
+        return s;
     }
 
     /**
@@ -217,4 +457,12 @@ public final class StringUtils {
 
         return s.toUpperCase(locale);
     }
+
+    /**
+     * The {@link StringBuilder} instances kept by a single thread.
+     */
+    private static class BuilderPool {
+        final StringBuilder[] builders = new StringBuilder[POOL_SIZE];
+        int size;
+    }
 }
\ No newline at end of file
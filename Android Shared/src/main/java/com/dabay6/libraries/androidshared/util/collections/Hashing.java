@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+/**
+ * Hashing
+ * <p>
+ * Hash mixing and table sizing shared by the open-addressing collections in this package.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+final class Hashing {
+    /**
+     * Default number of elements a collection can hold before it first grows.
+     */
+    final static int DEFAULT_EXPECTED_SIZE = 16;
+    private final static long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private final static int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Hidden constructor.
+     */
+    private Hashing() {
+    }
+
+    /**
+     * @param capacity the length of the table.
+     *
+     * @return the number of elements the table holds before it must grow, a load factor of 0.75.
+     */
+    static int maxFill(final int capacity) {
+        return Math.min(capacity - 1, capacity - (capacity >>> 2));
+    }
+
+    /**
+     * Spreads the bits of a key so that sequential keys do not cluster in the table.
+     *
+     * @param key the key.
+     *
+     * @return the mixed hash.
+     */
+    static int mix(final long key) {
+        final long hash = key * GOLDEN_RATIO;
+
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @param expectedSize the number of elements the table must hold without growing.
+     *
+     * @return the power of two table length for the expected size.
+     */
+    static int tableSize(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative.");
+        }
+
+        final long required = Math.max(2L, (long) Math.ceil(expectedSize / 0.75d) + 1);
+
+        if (required > MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+}
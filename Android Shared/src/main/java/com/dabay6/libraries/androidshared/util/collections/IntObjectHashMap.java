@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IntObjectHashMap
+ * <p>
+ * A map from primitive int keys to objects backed by parallel open-addressing arrays with linear probing. Keys are
+ * never boxed and no entry objects are allocated.
+ * </p>
+ *
+ * @param <V> the type of the mapped values.
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class IntObjectHashMap<V> {
+    private boolean hasZeroKey;
+    private int[] keys;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private V[] values;
+    private V zeroValue;
+
+    /**
+     * Creates an empty map.
+     */
+    public IntObjectHashMap() {
+        this(Hashing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an empty map.
+     *
+     * @param expectedSize the number of entries the map holds before it must grow.
+     */
+    public IntObjectHashMap(final int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    /**
+     * Removes every entry from the map. The capacity is kept.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * @param key the key to look for.
+     *
+     * @return true if the map contains an entry for the key.
+     */
+    public boolean containsKey(final int key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    /**
+     * Grows the map, if needed, so that it holds the given number of entries without growing again.
+     *
+     * @param expectedSize the required number of entries.
+     */
+    public void ensureCapacity(final int expectedSize) {
+        final int capacity = Hashing.tableSize(expectedSize);
+
+        if (capacity > keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * @param key the key whose value is returned.
+     *
+     * @return the value mapped to the key, or null if the map contains no entry for the key.
+     */
+    public V get(final int key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+
+        final int position = find(key);
+
+        return position < 0 ? null : values[position];
+    }
+
+    /**
+     * @return true if the map contains no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return a newly-created array containing the keys of the map, in no particular order.
+     */
+    public int[] keys() {
+        final int[] result = new int[size];
+        int index = 0;
+
+        if (hasZeroKey) {
+            index += 1;
+        }
+
+        for (final int key : keys) {
+            if (key != 0) {
+                result[index] = key;
+                index += 1;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Maps a value to a key, replacing any previous value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     *
+     * @return the previous value mapped to the key, or null if there was none.
+     */
+    public V put(final int key, final V value) {
+        if (key == 0) {
+            final V previous = zeroValue;
+
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size += 1;
+            }
+            zeroValue = value;
+
+            return previous;
+        }
+
+        int position = Hashing.mix(key) & mask;
+        int current;
+
+        while ((current = keys[position]) != 0) {
+            if (current == key) {
+                final V previous = values[position];
+
+                values[position] = value;
+
+                return previous;
+            }
+            position = (position + 1) & mask;
+        }
+
+        keys[position] = key;
+        values[position] = value;
+        size += 1;
+
+        if (size - (hasZeroKey ? 1 : 0) > maxFill) {
+            rehash(keys.length << 1);
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the entry for a key.
+     *
+     * @param key the key whose entry is removed.
+     *
+     * @return the value that was mapped to the key, or null if there was none.
+     */
+    public V remove(final int key) {
+        if (key == 0) {
+            final V previous = zeroValue;
+
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size -= 1;
+            }
+
+            return previous;
+        }
+
+        final int position = find(key);
+
+        if (position < 0) {
+            return null;
+        }
+
+        final V previous = values[position];
+
+        shiftKeys(position);
+        size -= 1;
+
+        return previous;
+    }
+
+    /**
+     * @return the number of entries in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a newly-created list containing the values of the map, in the same order as {@link #keys()}.
+     */
+    public List<V> values() {
+        final List<V> result = new ArrayList<>(size);
+
+        if (hasZeroKey) {
+            result.add(zeroValue);
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                result.add(values[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("{");
+
+        if (hasZeroKey) {
+            builder.append(0).append('=').append(zeroValue);
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                if (builder.length() > 1) {
+                    builder.append(", ");
+                }
+                builder.append(keys[i]).append('=').append(values[i]);
+            }
+        }
+
+        return builder.append('}').toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = (V[]) new Object[capacity];
+        mask = capacity - 1;
+        maxFill = Hashing.maxFill(capacity);
+    }
+
+    private int find(final int key) {
+        int position = Hashing.mix(key) & mask;
+        int current;
+
+        while ((current = keys[position]) != 0) {
+            if (current == key) {
+                return position;
+            }
+            position = (position + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private void rehash(final int capacity) {
+        final int[] previousKeys = keys;
+        final V[] previousValues = values;
+
+        allocate(capacity);
+
+        for (int i = 0; i < previousKeys.length; i++) {
+            final int key = previousKeys[i];
+
+            if (key != 0) {
+                int position = Hashing.mix(key) & mask;
+
+                while (keys[position] != 0) {
+                    position = (position + 1) & mask;
+                }
+
+                keys[position] = key;
+                values[position] = previousValues[i];
+            }
+        }
+    }
+
+    /**
+     * Closes the gap left by a removed entry by moving later entries of the same probe sequence back.
+     */
+    private void shiftKeys(int position) {
+        while (true) {
+            final int last = position;
+            int current;
+
+            position = (position + 1) & mask;
+
+            while (true) {
+                current = keys[position];
+
+                if (current == 0) {
+                    keys[last] = 0;
+                    values[last] = null;
+                    return;
+                }
+
+                final int slot = Hashing.mix(current) & mask;
+
+                if (last <= position ? last >= slot || slot > position : last >= slot && slot > position) {
+                    break;
+                }
+
+                position = (position + 1) & mask;
+            }
+
+            keys[last] = current;
+            values[last] = values[position];
+        }
+    }
+}
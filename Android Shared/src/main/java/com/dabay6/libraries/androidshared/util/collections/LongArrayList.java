@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import java.util.Arrays;
+
+/**
+ * LongArrayList
+ * <p>
+ * A resizable list of primitive longs. Unlike an {@link java.util.ArrayList} of {@link Long} no object is allocated
+ * per element.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class LongArrayList {
+    private final static long[] EMPTY = new long[0];
+    private long[] elements;
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    public LongArrayList() {
+        this(Hashing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an empty list.
+     *
+     * @param capacity the number of elements the list holds before it must grow.
+     */
+    public LongArrayList(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative.");
+        }
+
+        elements = capacity == 0 ? EMPTY : new long[capacity];
+    }
+
+    /**
+     * Appends a value to the end of the list.
+     *
+     * @param value the value to append.
+     */
+    public void add(final long value) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+
+        elements[size] = value;
+        size += 1;
+    }
+
+    /**
+     * Inserts a value at the given index, shifting later values to the right.
+     *
+     * @param index the index at which to insert the value.
+     * @param value the value to insert.
+     */
+    public void add(final int index, final long value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size += 1;
+    }
+
+    /**
+     * Appends every value of the array to the end of the list.
+     *
+     * @param values the values to append.
+     */
+    public void addAll(final long[] values) {
+        ensureCapacity(size + values.length);
+        System.arraycopy(values, 0, elements, size, values.length);
+        size += values.length;
+    }
+
+    /**
+     * Removes every value from the list. The capacity is kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param value the value to look for.
+     *
+     * @return true if the list contains the value.
+     */
+    public boolean contains(final long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Grows the list, if needed, so that it holds the given number of elements without growing again.
+     *
+     * @param capacity the required capacity.
+     */
+    public void ensureCapacity(final int capacity) {
+        if (capacity > elements.length) {
+            grow(capacity);
+        }
+    }
+
+    /**
+     * @param index the index of the value to return.
+     *
+     * @return the value at the given index.
+     */
+    public long get(final int index) {
+        checkIndex(index);
+
+        return elements[index];
+    }
+
+    /**
+     * @param value the value to look for.
+     *
+     * @return the index of the first occurrence of the value, or -1 if the list does not contain it.
+     */
+    public int indexOf(final long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return true if the list contains no values.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes the value at the given index, shifting later values to the left.
+     *
+     * @param index the index of the value to remove.
+     *
+     * @return the removed value.
+     */
+    public long removeAt(final int index) {
+        checkIndex(index);
+
+        final long value = elements[index];
+
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size -= 1;
+
+        return value;
+    }
+
+    /**
+     * Replaces the value at the given index.
+     *
+     * @param index the index of the value to replace.
+     * @param value the new value.
+     *
+     * @return the previous value.
+     */
+    public long set(final int index, final long value) {
+        checkIndex(index);
+
+        final long previous = elements[index];
+
+        elements[index] = value;
+
+        return previous;
+    }
+
+    /**
+     * @return the number of values in the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sorts the values in ascending order.
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * @return a newly-created array containing the values of the list, in order.
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Shrinks the capacity of the list to its size.
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LongArrayList)) {
+            return false;
+        }
+
+        final LongArrayList other = (LongArrayList) o;
+
+        if (size != other.size) {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (elements[i] != other.elements[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int hash = 1;
+
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + (int) (elements[i] ^ (elements[i] >>> 32));
+        }
+
+        return hash;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void grow(final int capacity) {
+        elements = Arrays.copyOf(elements, Math.max(capacity, elements.length + (elements.length >> 1) + 1));
+    }
+}
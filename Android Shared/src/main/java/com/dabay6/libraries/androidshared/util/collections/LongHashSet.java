@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * LongHashSet
+ * <p>
+ * A set of primitive longs backed by a single open-addressing table with linear probing. Adding a value never
+ * allocates unless the table has to grow, and values are never boxed.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public class LongHashSet {
+    private boolean hasZero;
+    private long[] keys;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    /**
+     * Creates an empty set.
+     */
+    public LongHashSet() {
+        this(Hashing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an empty set.
+     *
+     * @param expectedSize the number of values the set holds before it must grow.
+     */
+    public LongHashSet(final int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value the value to add.
+     *
+     * @return true if the set did not already contain the value.
+     */
+    public boolean add(final long value) {
+        if (value == 0) {
+            if (hasZero) {
+                return false;
+            }
+
+            hasZero = true;
+            size += 1;
+
+            return true;
+        }
+
+        int position = Hashing.mix(value) & mask;
+        long current;
+
+        while ((current = keys[position]) != 0) {
+            if (current == value) {
+                return false;
+            }
+            position = (position + 1) & mask;
+        }
+
+        keys[position] = value;
+        size += 1;
+
+        if (size - (hasZero ? 1 : 0) > maxFill) {
+            rehash(keys.length << 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds every value of the array to the set.
+     *
+     * @param values the values to add.
+     *
+     * @return true if the set changed.
+     */
+    public boolean addAll(final long[] values) {
+        boolean isChanged = false;
+
+        ensureCapacity(size + values.length);
+
+        for (final long value : values) {
+            isChanged |= add(value);
+        }
+
+        return isChanged;
+    }
+
+    /**
+     * Removes every value from the set. The capacity is kept.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * @param value the value to look for.
+     *
+     * @return true if the set contains the value.
+     */
+    public boolean contains(final long value) {
+        if (value == 0) {
+            return hasZero;
+        }
+
+        int position = Hashing.mix(value) & mask;
+        long current;
+
+        while ((current = keys[position]) != 0) {
+            if (current == value) {
+                return true;
+            }
+            position = (position + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Grows the set, if needed, so that it holds the given number of values without growing again.
+     *
+     * @param expectedSize the required number of values.
+     */
+    public void ensureCapacity(final int expectedSize) {
+        final int capacity = Hashing.tableSize(expectedSize);
+
+        if (capacity > keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * @return true if the set contains no values.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return an iterator over the values of the set, in no particular order. The set must not be changed while
+     * iterating.
+     */
+    public LongIterator iterator() {
+        return new LongIterator() {
+            private int position = -1;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public long next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+
+                remaining -= 1;
+
+                if (position < 0) {
+                    position = 0;
+
+                    if (hasZero) {
+                        return 0;
+                    }
+                }
+
+                while (keys[position] == 0) {
+                    position += 1;
+                }
+
+                final long value = keys[position];
+
+                position += 1;
+
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Removes a value from the set.
+     *
+     * @param value the value to remove.
+     *
+     * @return true if the set contained the value.
+     */
+    public boolean remove(final long value) {
+        if (value == 0) {
+            if (!hasZero) {
+                return false;
+            }
+
+            hasZero = false;
+            size -= 1;
+
+            return true;
+        }
+
+        int position = Hashing.mix(value) & mask;
+        long current;
+
+        while ((current = keys[position]) != 0) {
+            if (current == value) {
+                shiftKeys(position);
+                size -= 1;
+
+                return true;
+            }
+            position = (position + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the number of values in the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a newly-created array containing the values of the set, in no particular order.
+     */
+    public long[] toArray() {
+        final long[] values = new long[size];
+        int index = 0;
+
+        if (hasZero) {
+            index += 1;
+        }
+
+        for (final long key : keys) {
+            if (key != 0) {
+                values[index] = key;
+                index += 1;
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LongHashSet)) {
+            return false;
+        }
+
+        final LongHashSet other = (LongHashSet) o;
+
+        if (size != other.size || hasZero != other.hasZero) {
+            return false;
+        }
+
+        for (final long key : keys) {
+            if (key != 0 && !other.contains(key)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+
+        for (final long key : keys) {
+            hash += (int) (key ^ (key >>> 32));
+        }
+
+        return hash;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        maxFill = Hashing.maxFill(capacity);
+    }
+
+    private void rehash(final int capacity) {
+        final long[] previous = keys;
+
+        allocate(capacity);
+
+        for (final long key : previous) {
+            if (key != 0) {
+                int position = Hashing.mix(key) & mask;
+
+                while (keys[position] != 0) {
+                    position = (position + 1) & mask;
+                }
+
+                keys[position] = key;
+            }
+        }
+    }
+
+    /**
+     * Closes the gap left by a removed key by moving later keys of the same probe sequence back.
+     */
+    private void shiftKeys(int position) {
+        while (true) {
+            final int last = position;
+            long current;
+
+            position = (position + 1) & mask;
+
+            while (true) {
+                current = keys[position];
+
+                if (current == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+
+                final int slot = Hashing.mix(current) & mask;
+
+                if (last <= position ? last >= slot || slot > position : last >= slot && slot > position) {
+                    break;
+                }
+
+                position = (position + 1) & mask;
+            }
+
+            keys[last] = current;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel
+ * <p>
+ * Bulk list operations split across a shared pool with one thread per processor. Lists smaller than the threshold,
+ * see {@link #setThreshold(int)}, are processed on the calling thread. Calls made from a pool thread also run on the
+ * calling thread, so that nested calls can never wait on work queued behind them.
+ * </p>
+ * <p>
+ * The pool is a fixed-size {@link ThreadPoolExecutor} rather than a {@link java.util.concurrent.ForkJoinPool}, which
+ * is not available before API 21. Work is split into a fixed number of chunks per thread instead of being forked
+ * recursively.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public final class Parallel {
+    /**
+     * The default list size below which operations run on the calling thread.
+     */
+    public final static int DEFAULT_THRESHOLD = 8192;
+    private final static int CHUNKS_PER_THREAD = 4;
+    private final static int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private final static ThreadLocal<Boolean> IS_WORKER = new ThreadLocal<>();
+    private final static Comparator<Object> NATURAL_ORDER = new Comparator<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compare(final Object lhs, final Object rhs) {
+            return ((Comparable<Object>) lhs).compareTo(rhs);
+        }
+    };
+    private static volatile ExecutorService executor;
+    private static volatile int threshold = DEFAULT_THRESHOLD;
+
+    /**
+     * Hidden constructor.
+     */
+    private Parallel() {
+    }
+
+    /**
+     * Returns the items accepted by the predicate, in their original order.
+     *
+     * @param list      the items to filter.
+     * @param predicate the predicate to apply; it is called from several threads at once.
+     * @param <T>       the type of the items.
+     *
+     * @return a newly-created list of the accepted items.
+     */
+    public static <T> ArrayList<T> filter(final List<T> list, final Predicate<? super T> predicate) {
+        if (!shouldSplit(list)) {
+            final ArrayList<T> result = new ArrayList<>();
+
+            for (final T item : list) {
+                if (predicate.apply(item)) {
+                    result.add(item);
+                }
+            }
+
+            return result;
+        }
+
+        final Object[] items = list.toArray();
+        final List<Callable<List<T>>> tasks = new ArrayList<>();
+
+        for (final int[] range : split(items.length)) {
+            tasks.add(new Callable<List<T>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public List<T> call() {
+                    final List<T> accepted = new ArrayList<>();
+
+                    for (int i = range[0]; i < range[1]; i++) {
+                        if (predicate.apply((T) items[i])) {
+                            accepted.add((T) items[i]);
+                        }
+                    }
+
+                    return accepted;
+                }
+            });
+        }
+
+        final List<List<T>> parts = invokeAll(tasks);
+        int size = 0;
+
+        for (final List<T> part : parts) {
+            size += part.size();
+        }
+
+        final ArrayList<T> result = new ArrayList<>(size);
+
+        for (final List<T> part : parts) {
+            result.addAll(part);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the list size below which operations run on the calling thread.
+     */
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Transforms every item, keeping the original order.
+     *
+     * @param list     the items to transform.
+     * @param function the function to apply; it is called from several threads at once.
+     * @param <T>      the type of the items.
+     * @param <R>      the type of the transformed items.
+     *
+     * @return a newly-created list of the transformed items.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> ArrayList<R> map(final List<T> list, final Function<? super T, ? extends R> function) {
+        final Object[] items = list.toArray();
+
+        if (!shouldSplit(list)) {
+            for (int i = 0; i < items.length; i++) {
+                items[i] = function.apply((T) items[i]);
+            }
+        }
+        else {
+            final List<Callable<Void>> tasks = new ArrayList<>();
+
+            for (final int[] range : split(items.length)) {
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = range[0]; i < range[1]; i++) {
+                            items[i] = function.apply((T) items[i]);
+                        }
+
+                        return null;
+                    }
+                });
+            }
+
+            invokeAll(tasks);
+        }
+
+        return new ArrayList<>((List<R>) Arrays.asList(items));
+    }
+
+    /**
+     * @param threshold the list size below which operations run on the calling thread.
+     */
+    public static void setThreshold(final int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative.");
+        }
+
+        Parallel.threshold = threshold;
+    }
+
+    /**
+     * Sorts the list in place. Chunks of the list are sorted in parallel and then merged pairwise, also in parallel.
+     * The sort is stable.
+     *
+     * @param list       the list to sort.
+     * @param comparator the comparator used to order the items; it is called from several threads at once. If null,
+     *                   the items must be {@link Comparable} and are sorted in their natural order.
+     * @param <T>        the type of the items.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(final List<T> list, final Comparator<? super T> comparator) {
+        final Comparator<? super T> order = orderOf(comparator);
+
+        if (!shouldSplit(list)) {
+            Collections.sort(list, order);
+            return;
+        }
+
+        final T[] items = (T[]) list.toArray();
+        final T[] buffer = (T[]) new Object[items.length];
+        final List<int[]> runs = split(items.length);
+        final List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (final int[] run : runs) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    Arrays.sort(items, run[0], run[1], order);
+
+                    return null;
+                }
+            });
+        }
+
+        invokeAll(tasks);
+
+        T[] source = items;
+        T[] target = buffer;
+        List<int[]> current = runs;
+
+        while (current.size() > 1) {
+            final List<int[]> merged = new ArrayList<>((current.size() + 1) / 2);
+            final T[] from = source;
+            final T[] to = target;
+
+            tasks.clear();
+
+            for (int i = 0; i < current.size(); i += 2) {
+                final int[] left = current.get(i);
+                final int[] right = i + 1 < current.size() ? current.get(i + 1) : null;
+
+                merged.add(new int[]{left[0], right == null ? left[1] : right[1]});
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        if (right == null) {
+                            System.arraycopy(from, left[0], to, left[0], left[1] - left[0]);
+                        }
+                        else {
+                            merge(from, to, left[0], left[1], right[1], order);
+                        }
+
+                        return null;
+                    }
+                });
+            }
+
+            invokeAll(tasks);
+
+            current = merged;
+            source = to;
+            target = from;
+        }
+
+        final ListIterator<T> iterator = list.listIterator();
+
+        for (final T item : source) {
+            iterator.next();
+            iterator.set(item);
+        }
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (Parallel.class) {
+                if (executor == null) {
+                    final AtomicInteger count = new AtomicInteger();
+                    final ThreadPoolExecutor pool = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 30,
+                            TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(final Runnable runnable) {
+                            final Thread thread = new Thread(new Runnable() {
+                                @Override
+                                public void run() {
+                                    IS_WORKER.set(Boolean.TRUE);
+                                    runnable.run();
+                                }
+                            }, "Parallel-" + count.incrementAndGet());
+
+                            thread.setDaemon(true);
+
+                            return thread;
+                        }
+                    });
+
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = pool;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * Runs the first task on the calling thread and the others on the pool, then waits for all of them.
+     */
+    private static <V> List<V> invokeAll(final List<Callable<V>> tasks) {
+        final List<Future<V>> futures = new ArrayList<>(tasks.size());
+        final List<V> results = new ArrayList<>(tasks.size());
+        final ExecutorService pool = getExecutor();
+
+        try {
+            for (int i = 1; i < tasks.size(); i++) {
+                futures.add(pool.submit(tasks.get(i)));
+            }
+
+            results.add(tasks.get(0).call());
+
+            for (final Future<V> future : futures) {
+                results.add(future.get());
+            }
+        }
+        catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+        catch (final RuntimeException ex) {
+            throw ex;
+        }
+        catch (final Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        finally {
+            for (final Future<V> future : futures) {
+                future.cancel(false);
+            }
+        }
+
+        return results;
+    }
+
+    private static <T> void merge(final T[] from, final T[] to, final int start, final int middle, final int end,
+                                  final Comparator<? super T> comparator) {
+        int left = start;
+        int right = middle;
+
+        for (int i = start; i < end; i++) {
+            if (right >= end || (left < middle && comparator.compare(from[left], from[right]) <= 0)) {
+                to[i] = from[left];
+                left += 1;
+            }
+            else {
+                to[i] = from[right];
+                right += 1;
+            }
+        }
+    }
+
+    /**
+     * @return the comparator, or natural ordering if it is null.
+     */
+    private static <T> Comparator<? super T> orderOf(final Comparator<? super T> comparator) {
+        if (comparator == null) {
+            return NATURAL_ORDER;
+        }
+
+        return comparator;
+    }
+
+    private static boolean shouldSplit(final List<?> list) {
+        return PARALLELISM > 1 && list.size() >= Math.max(threshold, 2) && IS_WORKER.get() == null;
+    }
+
+    /**
+     * Splits a length into contiguous ranges, a few per pool thread.
+     */
+    private static List<int[]> split(final int length) {
+        final int chunks = Math.min(length, PARALLELISM * CHUNKS_PER_THREAD);
+        final List<int[]> ranges = new ArrayList<>(chunks);
+        int start = 0;
+
+        for (int i = 0; i < chunks; i++) {
+            final int end = (int) ((long) length * (i + 1) / chunks);
+
+            ranges.add(new int[]{start, end});
+            start = end;
+        }
+
+        return ranges;
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * PersistentList
+ * <p>
+ * An immutable list that shares structure with the lists it was derived from. Items are kept in a 32-way trie with a
+ * separate tail, so {@link #plus(Object)} and {@link #with(int, Object)} copy at most a few small arrays and leave
+ * the original list untouched. Because a list never changes, handing one to another thread is an O(1) snapshot and
+ * readers never need to lock.
+ * </p>
+ * <p>
+ * Appending and replacing are O(log<sub>32</sub> n). Inserting or removing anywhere else, and sorting, build a new
+ * list in O(n). The {@link List} mutators throw {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @param <T> the type of the items.
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public final class PersistentList<T> extends AbstractList<T> implements RandomAccess {
+    private final static int BITS = 5;
+    private final static int WIDTH = 1 << BITS;
+    private final static int MASK = WIDTH - 1;
+    private final static Object[] EMPTY_NODE = new Object[WIDTH];
+    private final static PersistentList<Object> EMPTY = new PersistentList<>(0, BITS, EMPTY_NODE, new Object[0]);
+    private final Object[] root;
+    private final int shift;
+    private final int size;
+    private final Object[] tail;
+
+    private PersistentList(final int size, final int shift, final Object[] root, final Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * @param <T> the type of the items.
+     *
+     * @return the empty list.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    /**
+     * Creates a list containing the given items. If the collection is already a {@link PersistentList} it is
+     * returned as is.
+     *
+     * @param items the items the list should contain, in order.
+     * @param <T>   the type of the items.
+     *
+     * @return a list containing the items.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> of(final Collection<? extends T> items) {
+        if (items instanceof PersistentList) {
+            return (PersistentList<T>) items;
+        }
+
+        return fromArray(items.toArray());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return (T) arrayFor(index)[index & MASK];
+    }
+
+    /**
+     * Returns a list with the item inserted at the given index. Inserting at the end is the same as {@link
+     * #plus(Object)}; anywhere else the list is rebuilt.
+     *
+     * @param index the index at which the item is inserted.
+     * @param item  the item to insert.
+     *
+     * @return the new list.
+     */
+    public PersistentList<T> insert(final int index, final T item) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        if (index == size) {
+            return plus(item);
+        }
+
+        final Object[] items = new Object[size + 1];
+
+        copyTo(items, 0, index, 0);
+        items[index] = item;
+        copyTo(items, index, size, index + 1);
+
+        return fromArray(items);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private Object[] array;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+
+                if ((index & MASK) == 0 || array == null) {
+                    array = arrayFor(index);
+                }
+
+                final T item = (T) array[index & MASK];
+
+                index += 1;
+
+                return item;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Returns a list without the item at the given index. The list is rebuilt.
+     *
+     * @param index the index of the item to remove.
+     *
+     * @return the new list.
+     */
+    public PersistentList<T> minus(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        final Object[] items = new Object[size - 1];
+
+        copyTo(items, 0, index, 0);
+        copyTo(items, index + 1, size, index);
+
+        return fromArray(items);
+    }
+
+    /**
+     * Returns a list without the first occurrence of the given item.
+     *
+     * @param item the item to remove.
+     *
+     * @return the new list, or this list if it does not contain the item.
+     */
+    public PersistentList<T> minus(final Object item) {
+        final int index = indexOf(item);
+
+        return index < 0 ? this : minus(index);
+    }
+
+    /**
+     * Returns a list with the item appended.
+     *
+     * @param item the item to append.
+     *
+     * @return the new list.
+     */
+    public PersistentList<T> plus(final T item) {
+        if (size - tailOffset() < WIDTH) {
+            final Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+
+            newTail[tail.length] = item;
+
+            return new PersistentList<>(size + 1, shift, root, newTail);
+        }
+
+        final Object[] newRoot;
+        int newShift = shift;
+
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        }
+        else {
+            newRoot = pushTail(shift, root, tail);
+        }
+
+        return new PersistentList<>(size + 1, newShift, newRoot, new Object[]{item});
+    }
+
+    /**
+     * Returns a list with the items appended.
+     *
+     * @param items the items to append, in order.
+     *
+     * @return the new list.
+     */
+    public PersistentList<T> plusAll(final Collection<? extends T> items) {
+        if (size == 0) {
+            return of(items);
+        }
+
+        PersistentList<T> list = this;
+
+        for (final T item : items) {
+            list = list.plus(item);
+        }
+
+        return list;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param comparator the comparator used to order the items.
+     *
+     * @return a new list containing the items of this list in sorted order.
+     */
+    @SuppressWarnings("unchecked")
+    public PersistentList<T> sorted(final Comparator<? super T> comparator) {
+        final Object[] items = toArray();
+
+        Arrays.sort(items, (Comparator<Object>) comparator);
+
+        return fromArray(items);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object[] toArray() {
+        final Object[] items = new Object[size];
+
+        copyTo(items, 0, size, 0);
+
+        return items;
+    }
+
+    /**
+     * Returns a list with the item at the given index replaced.
+     *
+     * @param index the index of the item to replace.
+     * @param item  the new item.
+     *
+     * @return the new list.
+     */
+    public PersistentList<T> with(final int index, final T item) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        if (index >= tailOffset()) {
+            final Object[] newTail = tail.clone();
+
+            newTail[index & MASK] = item;
+
+            return new PersistentList<>(size, shift, root, newTail);
+        }
+
+        return new PersistentList<>(size, shift, assoc(shift, root, index, item), tail);
+    }
+
+    private Object[] arrayFor(final int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+
+        Object[] node = root;
+
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+
+        return node;
+    }
+
+    /**
+     * Copies the items in [from, to) into the array, one leaf at a time.
+     */
+    private void copyTo(final Object[] target, final int from, final int to, final int offset) {
+        int index = from;
+
+        while (index < to) {
+            final Object[] array = arrayFor(index);
+            final int start = index & MASK;
+            final int count = Math.min(array.length - start, to - index);
+
+            System.arraycopy(array, start, target, offset + index - from, count);
+            index += count;
+        }
+    }
+
+    private Object[] pushTail(final int level, final Object[] parent, final Object[] tailNode) {
+        final int index = ((size - 1) >>> level) & MASK;
+        final Object[] node = parent.clone();
+
+        if (level == BITS) {
+            node[index] = tailNode;
+        }
+        else {
+            final Object[] child = (Object[]) parent[index];
+
+            node[index] = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+
+        return node;
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private static Object[] assoc(final int level, final Object[] node, final int index, final Object item) {
+        final Object[] copy = node.clone();
+
+        if (level == 0) {
+            copy[index & MASK] = item;
+        }
+        else {
+            final int child = (index >>> level) & MASK;
+
+            copy[child] = assoc(level - BITS, (Object[]) node[child], index, item);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Builds a list bottom-up from an array in O(n).
+     */
+    private static <T> PersistentList<T> fromArray(final Object[] items) {
+        final int size = items.length;
+
+        if (size == 0) {
+            return empty();
+        }
+
+        final int tailOffset = size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+        final Object[] tail = Arrays.copyOfRange(items, tailOffset, size);
+        List<Object[]> nodes = new ArrayList<>(tailOffset >>> BITS);
+        int shift = BITS;
+
+        for (int i = 0; i < tailOffset; i += WIDTH) {
+            nodes.add(Arrays.copyOfRange(items, i, i + WIDTH));
+        }
+
+        while (nodes.size() > WIDTH) {
+            final List<Object[]> parents = new ArrayList<>((nodes.size() + MASK) >>> BITS);
+
+            for (int i = 0; i < nodes.size(); i += WIDTH) {
+                final Object[] parent = new Object[WIDTH];
+
+                for (int j = i; j < Math.min(i + WIDTH, nodes.size()); j++) {
+                    parent[j - i] = nodes.get(j);
+                }
+
+                parents.add(parent);
+            }
+
+            nodes = parents;
+            shift += BITS;
+        }
+
+        final Object[] root = new Object[WIDTH];
+
+        for (int i = 0; i < nodes.size(); i++) {
+            root[i] = nodes.get(i);
+        }
+
+        return new PersistentList<>(size, shift, root, tail);
+    }
+
+    private static Object[] newPath(final int level, final Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+
+        final Object[] path = new Object[WIDTH];
+
+        path[0] = newPath(level - BITS, node);
+
+        return path;
+    }
+}
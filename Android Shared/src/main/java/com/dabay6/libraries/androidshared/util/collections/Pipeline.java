@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Pipeline
+ * <p>
+ * A lazy chain of filter, map and limit stages over a collection, created with {@link
+ * com.dabay6.libraries.androidshared.util.CollectionUtils#from(Collection)}. Nothing runs until a terminal method such
+ * as {@link #toList()} is called; the stages are then fused and the source is walked once, without intermediate
+ * lists. A limit stops the walk as soon as enough items have been produced.
+ * </p>
+ * <p>
+ * A pipeline is a builder: every stage method returns the same instance, and it should be used for a single chain.
+ * </p>
+ *
+ * @param <T> the type of the items produced by the pipeline.
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+@SuppressWarnings("unused")
+public final class Pipeline<T> {
+    private final static int DEFAULT_CAPACITY = 10;
+    private final Collection<?> source;
+    private final List<Object> stages = new ArrayList<>(4);
+    private boolean hasFilter;
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * @param source the items to process.
+     */
+    public Pipeline(final Collection<T> source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source must not be null.");
+        }
+
+        this.source = source;
+    }
+
+    /**
+     * @return the number of items the pipeline produces.
+     */
+    public int count() {
+        if (!hasFilter) {
+            return Math.min(source.size(), limit);
+        }
+
+        final Counter<T> counter = new Counter<>();
+
+        run(counter);
+
+        return counter.count;
+    }
+
+    /**
+     * Keeps only the items accepted by the predicate. A null predicate keeps every item.
+     *
+     * @param predicate the predicate to apply.
+     *
+     * @return this pipeline.
+     */
+    public Pipeline<T> filter(final Predicate<? super T> predicate) {
+        if (predicate != null) {
+            stages.add(predicate);
+            hasFilter = true;
+        }
+
+        return this;
+    }
+
+    /**
+     * @return the first item the pipeline produces, or null if it produces none.
+     */
+    public T first() {
+        final List<T> first = new ArrayList<>(1);
+
+        limit(1).run(new Collector<>(first));
+
+        return first.isEmpty() ? null : first.get(0);
+    }
+
+    /**
+     * Adds the items the pipeline produces to the given collection.
+     *
+     * @param target the collection the items are added to.
+     * @param <C>    the type of the collection.
+     *
+     * @return the target collection.
+     */
+    public <C extends Collection<? super T>> C into(final C target) {
+        if (target instanceof ArrayList && !hasFilter) {
+            ((ArrayList<?>) target).ensureCapacity(target.size() + Math.min(source.size(), limit));
+        }
+
+        run(new Collector<>(target));
+
+        return target;
+    }
+
+    /**
+     * Stops the pipeline once the given number of items has been produced. Limits larger than the source are
+     * ignored.
+     *
+     * @param maxSize the maximum number of items to produce.
+     *
+     * @return this pipeline.
+     */
+    public Pipeline<T> limit(final int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Limit must not be negative.");
+        }
+
+        limit = Math.min(limit, maxSize);
+
+        return this;
+    }
+
+    /**
+     * Transforms every item with the given function.
+     *
+     * @param function the function to apply.
+     * @param <R>      the type of the transformed items.
+     *
+     * @return this pipeline, producing the transformed items.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Pipeline<R> map(final Function<? super T, ? extends R> function) {
+        if (function == null) {
+            throw new IllegalArgumentException("Function must not be null.");
+        }
+
+        stages.add(function);
+
+        return (Pipeline<R>) this;
+    }
+
+    /**
+     * @return a newly-created list of the items the pipeline produces. When the pipeline does not filter, the list is
+     * created with its exact final size.
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<T> toList() {
+        if (stages.isEmpty() && limit >= source.size()) {
+            return new ArrayList<>((Collection<T>) source);
+        }
+
+        final int capacity = hasFilter ? Math.min(DEFAULT_CAPACITY, source.size()) : Math.min(source.size(), limit);
+
+        return into(new ArrayList<T>(capacity));
+    }
+
+    /**
+     * @param comparator the comparator used to sort the items.
+     *
+     * @return a newly-created list of the items the pipeline produces, sorted with the comparator.
+     */
+    public ArrayList<T> toSortedList(final Comparator<? super T> comparator) {
+        final ArrayList<T> list = toList();
+
+        Collections.sort(list, comparator);
+
+        return list;
+    }
+
+    private void run(final Sink<T> sink) {
+        final int count = stages.size();
+        final Object[] chain = stages.toArray();
+        int produced = 0;
+
+        if (limit == 0) {
+            return;
+        }
+
+        if (source instanceof RandomAccess && source instanceof List) {
+            final List<?> list = (List<?>) source;
+            final int size = list.size();
+
+            for (int i = 0; i < size; i++) {
+                if (push(chain, count, list.get(i), sink)) {
+                    produced += 1;
+                    if (produced == limit) {
+                        return;
+                    }
+                }
+            }
+        }
+        else {
+            final Iterator<?> iterator = source.iterator();
+
+            while (iterator.hasNext()) {
+                if (push(chain, count, iterator.next(), sink)) {
+                    produced += 1;
+                    if (produced == limit) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs an item through every stage.
+     *
+     * @return true if the item reached the sink.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> boolean push(final Object[] chain, final int count, Object item, final Sink<T> sink) {
+        for (int i = 0; i < count; i++) {
+            final Object stage = chain[i];
+
+            if (stage instanceof Predicate) {
+                if (!((Predicate<Object>) stage).apply(item)) {
+                    return false;
+                }
+            }
+            else {
+                item = ((Function<Object, Object>) stage).apply(item);
+            }
+        }
+
+        sink.accept((T) item);
+
+        return true;
+    }
+
+    /**
+     * Receives the items produced by a pipeline.
+     */
+    private interface Sink<T> {
+        void accept(T item);
+    }
+
+    private static class Collector<T> implements Sink<T> {
+        private final Collection<? super T> target;
+
+        Collector(final Collection<? super T> target) {
+            this.target = target;
+        }
+
+        @Override
+        public void accept(final T item) {
+            target.add(item);
+        }
+    }
+
+    private static class Counter<T> implements Sink<T> {
+        int count;
+
+        @Override
+        public void accept(final T item) {
+            count += 1;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import com.dabay6.libraries.androidshared.util.collections.PersistentList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * DetailsItemIndexBenchmark
+ * <p>
+ * Times building a {@link DetailsItemIndex} and answering prefix lookups with it against the linear scan the
+ * adapters did before the index. Each task runs a number of warm-up rounds and then reports the median of the
+ * measured rounds. It is not a unit test; run its {@link #main(String[])} from the test class path.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public final class DetailsItemIndexBenchmark {
+    private final static int ITEMS = 20000;
+    private final static int LOOKUPS = 200;
+    private final static int ROUNDS = 15;
+    private final static int WARM_UP_ROUNDS = 10;
+    private final static String[] WORDS = {"account", "address", "alpha", "beta", "billing", "city", "country",
+                                           "delta", "email", "gamma", "home", "mobile", "note", "office", "phone",
+                                           "postal", "street", "work"};
+    private static long sink;
+
+    private DetailsItemIndexBenchmark() {
+    }
+
+    public static void main(final String[] args) {
+        final Random random = new Random(42);
+        final List<DetailsItem> list = new ArrayList<>(ITEMS);
+        final String[] prefixes = new String[LOOKUPS];
+
+        for (int i = 0; i < ITEMS; i++) {
+            list.add(new DetailsItem(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)],
+                                     Integer.toString(random.nextInt(1000000), 36)));
+        }
+        for (int i = 0; i < LOOKUPS; i++) {
+            final String word = WORDS[random.nextInt(WORDS.length)];
+
+            prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+
+        final PersistentList<DetailsItem> items = PersistentList.of(list);
+        final DetailsItemIndex index = new DetailsItemIndex(items);
+
+        report("build index", measure(new Task() {
+            @Override
+            long run() {
+                return new DetailsItemIndex(items).count("a");
+            }
+        }));
+
+        final double indexed = measure(new Task() {
+            @Override
+            long run() {
+                long found = 0;
+
+                for (final String prefix : prefixes) {
+                    found += index.find(prefix).size();
+                }
+
+                return found;
+            }
+        });
+        final double scanned = measure(new Task() {
+            @Override
+            long run() {
+                long found = 0;
+
+                for (final String prefix : prefixes) {
+                    final List<DetailsItem> matches = new ArrayList<>();
+
+                    for (final DetailsItem item : items) {
+                        if (item.getSearchKey().matches(prefix)) {
+                            matches.add(item);
+                        }
+                    }
+
+                    found += matches.size();
+                }
+
+                return found;
+            }
+        });
+
+        report(LOOKUPS + " lookups, index", indexed);
+        report(LOOKUPS + " lookups, linear scan", scanned);
+        System.out.println("checksum " + sink);
+    }
+
+    /**
+     * @return The median time of a run, in milliseconds.
+     */
+    private static double measure(final Task task) {
+        final long[] times = new long[ROUNDS];
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            sink += task.run();
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            final long start = System.nanoTime();
+
+            sink += task.run();
+            times[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(times);
+
+        return times[ROUNDS / 2] / 1e6;
+    }
+
+    private static void report(final String name, final double time) {
+        System.out.println(String.format(Locale.US, "%-30s %10.3f ms", name, time));
+    }
+
+    private static abstract class Task {
+        /**
+         * @return A value derived from the work, so it cannot be optimized away.
+         */
+        abstract long run();
+    }
+}
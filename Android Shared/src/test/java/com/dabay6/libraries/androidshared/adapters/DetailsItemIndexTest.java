@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import com.dabay6.libraries.androidshared.util.collections.PersistentList;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * DetailsItemIndexTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class DetailsItemIndexTest {
+    private final static DetailsItemIndex.Cancellation CANCELLED = new DetailsItemIndex.Cancellation() {
+        @Override
+        public boolean isCancelled() {
+            return true;
+        }
+    };
+
+    @Test
+    public void cancelledBuildsAndLookupsStop() {
+        final PersistentList<DetailsItem> items = newItems(new Random(3), 2000);
+        final DetailsItemIndex index = new DetailsItemIndex(items);
+
+        assertNull(index.find("", CANCELLED));
+        assertNull(index.find("a b", CANCELLED));
+
+        try {
+            new DetailsItemIndex(items, CANCELLED);
+            fail();
+        }
+        catch (final CancellationException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void changedItemsMakeTheIndexStale() {
+        final PersistentList<DetailsItem> items = newItems(new Random(5), 100);
+        final DetailsItemIndex index = new DetailsItemIndex(items);
+
+        assertTrue(index.isCurrent(items));
+        assertFalse(index.isCurrent(PersistentList.of(new ArrayList<>(items))));
+
+        items.get(50).setLabel("changed");
+
+        assertFalse(index.isCurrent(items));
+    }
+
+    @Test
+    public void findMatchesLinearScan() {
+        final Random random = new Random(42);
+
+        for (int round = 0; round < 20; round++) {
+            final PersistentList<DetailsItem> items = newItems(random, random.nextInt(3000));
+            final DetailsItemIndex index = new DetailsItemIndex(items);
+
+            for (int i = 0; i < 200; i++) {
+                final String prefix = newPrefix(random);
+                final List<DetailsItem> expected = new ArrayList<>();
+                int words = 0;
+
+                for (final DetailsItem item : items) {
+                    if (matches(item, prefix)) {
+                        expected.add(item);
+                    }
+                    words += countWords(item, prefix);
+                }
+
+                assertEquals(prefix, expected, index.find(prefix));
+
+                if (prefix.indexOf(' ') < 0) {
+                    assertEquals(prefix, words, index.count(prefix));
+                }
+            }
+        }
+    }
+
+    private static int countWords(final DetailsItem item, final String prefix) {
+        int count = 0;
+
+        for (final String word : textOf(item).split(" ", -1)) {
+            if (word.startsWith(prefix)) {
+                count += 1;
+            }
+        }
+
+        return count;
+    }
+
+    private static boolean matches(final DetailsItem item, final String prefix) {
+        final String text = textOf(item);
+
+        return text.startsWith(prefix) || (prefix.indexOf(' ') < 0 && countWords(item, prefix) > 0);
+    }
+
+    private static PersistentList<DetailsItem> newItems(final Random random, final int count) {
+        final List<DetailsItem> items = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            items.add(new DetailsItem(random.nextInt(10) == 0 ? null : newWords(random),
+                                      random.nextInt(3) == 0 ? null : newWords(random)));
+        }
+
+        return PersistentList.of(items);
+    }
+
+    private static String newPrefix(final Random random) {
+        switch (random.nextInt(10)) {
+            case 0:
+                return "";
+            case 1:
+                return newWords(random).toLowerCase(Locale.US);
+            default:
+                return newWord(random).substring(0, 1 + random.nextInt(2)).toLowerCase(Locale.US);
+        }
+    }
+
+    private static String newWord(final Random random) {
+        final StringBuilder builder = new StringBuilder();
+
+        for (int length = 2 + random.nextInt(5); length > 0; length--) {
+            final char letter = (char) ('a' + random.nextInt(4));
+
+            builder.append(random.nextInt(8) == 0 ? Character.toUpperCase(letter) : letter);
+        }
+
+        return builder.toString();
+    }
+
+    private static String newWords(final Random random) {
+        final StringBuilder builder = new StringBuilder(newWord(random));
+
+        for (int words = random.nextInt(3); words > 0; words--) {
+            builder.append(' ').append(newWord(random));
+        }
+
+        return builder.toString();
+    }
+
+    private static String textOf(final DetailsItem item) {
+        final String label = item.getLabel();
+        final String data = item.getData();
+        final String text;
+
+        if (label == null) {
+            text = data == null ? "" : data;
+        }
+        else {
+            text = data == null ? label : label + " " + data;
+        }
+
+        return text.toLowerCase(Locale.US);
+    }
+}
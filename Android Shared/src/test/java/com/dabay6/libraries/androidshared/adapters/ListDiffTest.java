@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.adapters;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ListDiffTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class ListDiffTest {
+    private final static ItemDiffCallback<Item> CALLBACK = new ItemDiffCallback<Item>() {
+        @Override
+        public boolean areContentsTheSame(final Item oldItem, final Item newItem) {
+            return oldItem.contents == newItem.contents;
+        }
+
+        @Override
+        public Object getItemKey(final Item item) {
+            return item.key;
+        }
+    };
+
+    @Test
+    public void equalListsHaveNoChanges() {
+        final List<Item> items = newItems(new Random(1), 300, 1000);
+
+        assertTrue(ListDiff.calculate(items, new ArrayList<>(items), CALLBACK).isEmpty());
+        assertTrue(ListDiff.calculate(Collections.<Item>emptyList(), Collections.<Item>emptyList(), CALLBACK).isEmpty());
+    }
+
+    @Test
+    public void largeDifferencesReportTheDataSetChanged() {
+        final Random random = new Random(2);
+        final List<Item> oldItems = newItems(random, 3000, Integer.MAX_VALUE);
+        final List<Item> newItems = newItems(random, 3000, Integer.MAX_VALUE);
+        final ListDiff diff = ListDiff.calculate(oldItems, newItems, CALLBACK);
+        final Recorder recorder = dispatch(diff, oldItems);
+
+        assertTrue(diff.isDataSetChanged());
+        assertTrue(recorder.isDataSetChanged);
+    }
+
+    @Test
+    public void randomChangesTurnTheOldListIntoTheNewOne() {
+        final Random random = new Random(42);
+
+        for (int round = 0; round < 2000; round++) {
+            final int keys = 1 + random.nextInt(round % 2 == 0 ? 10 : 400);
+            final List<Item> oldItems = newItems(random, random.nextInt(120), keys);
+            final List<Item> newItems = edit(random, oldItems, keys);
+            final ListDiff diff = ListDiff.calculate(oldItems, newItems, CALLBACK);
+            final Recorder recorder = dispatch(diff, oldItems);
+            final List<Item> slots = recorder.slots;
+
+            assertFalse(diff.isDataSetChanged());
+            assertEquals(newItems.size(), slots.size());
+
+            int kept = 0;
+
+            for (int i = 0; i < slots.size(); i++) {
+                final Item slot = slots.get(i);
+                final Item item = newItems.get(i);
+
+                if (slot != null) {
+                    assertEquals(item.key, slot.key);
+                    assertTrue(slot.contents == item.contents || recorder.changed.get(i));
+                    kept += 1;
+                }
+            }
+
+            // every item whose key survives keeps its view, so only the new keys are inserted
+            assertEquals(countCommon(oldItems, newItems), kept);
+        }
+    }
+
+    private static int countCommon(final List<Item> oldItems, final List<Item> newItems) {
+        final Map<Integer, Integer> counts = new HashMap<>();
+        int common = 0;
+
+        for (final Item item : oldItems) {
+            final Integer count = counts.get(item.key);
+
+            counts.put(item.key, count == null ? 1 : count + 1);
+        }
+        for (final Item item : newItems) {
+            final Integer count = counts.get(item.key);
+
+            if (count != null && count > 0) {
+                counts.put(item.key, count - 1);
+                common += 1;
+            }
+        }
+
+        return common;
+    }
+
+    private static Recorder dispatch(final ListDiff diff, final List<Item> oldItems) {
+        final Recorder recorder = new Recorder(oldItems);
+        final RecyclerView.Adapter<RecyclerView.ViewHolder> adapter = new RecyclerView.Adapter<RecyclerView.ViewHolder>() {
+            @Override
+            public int getItemCount() {
+                return recorder.slots.size();
+            }
+
+            @Override
+            public void onBindViewHolder(final RecyclerView.ViewHolder holder, final int position) {
+            }
+
+            @Override
+            public RecyclerView.ViewHolder onCreateViewHolder(final ViewGroup parent, final int viewType) {
+                return null;
+            }
+        };
+
+        adapter.registerAdapterDataObserver(recorder);
+        diff.dispatchTo(adapter);
+
+        return recorder;
+    }
+
+    private static List<Item> edit(final Random random, final List<Item> items, final int keys) {
+        final List<Item> edited = new ArrayList<>(items);
+
+        for (int edits = random.nextInt(12); edits > 0; edits--) {
+            final int size = edited.size();
+
+            switch (random.nextInt(5)) {
+                case 0:
+                    edited.add(random.nextInt(size + 1), new Item(random.nextInt(keys), 0));
+                    break;
+                case 1:
+                    if (size > 0) {
+                        edited.remove(random.nextInt(size));
+                    }
+                    break;
+                case 2:
+                    if (size > 0) {
+                        edited.add(random.nextInt(size), edited.remove(random.nextInt(size)));
+                    }
+                    break;
+                case 3:
+                    if (size > 0) {
+                        final int index = random.nextInt(size);
+
+                        edited.set(index, new Item(edited.get(index).key, edited.get(index).contents + 1));
+                    }
+                    break;
+                default:
+                    if (size > 1) {
+                        final int from = random.nextInt(size - 1);
+
+                        Collections.reverse(edited.subList(from, from + 1 + random.nextInt(Math.min(6, size - from))));
+                    }
+                    break;
+            }
+        }
+
+        return edited;
+    }
+
+    private static List<Item> newItems(final Random random, final int count, final int keys) {
+        final List<Item> items = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(random.nextInt(keys), 0));
+        }
+
+        return items;
+    }
+
+    private final static class Item {
+        final int contents;
+        final Integer key;
+
+        Item(final int key, final int contents) {
+            this.contents = contents;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Replays the notifications on the old items, leaving a null slot for each inserted item.
+     */
+    private final static class Recorder extends RecyclerView.AdapterDataObserver {
+        final BitSet changed = new BitSet();
+        final List<Item> slots;
+        boolean isDataSetChanged;
+
+        Recorder(final List<Item> items) {
+            slots = new ArrayList<>(items);
+        }
+
+        @Override
+        public void onChanged() {
+            isDataSetChanged = true;
+        }
+
+        @Override
+        public void onItemRangeChanged(final int positionStart, final int itemCount) {
+            assertTrue(positionStart >= 0 && positionStart + itemCount <= slots.size());
+            changed.set(positionStart, positionStart + itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(final int positionStart, final int itemCount) {
+            assertTrue(positionStart >= 0 && positionStart <= slots.size());
+            slots.addAll(positionStart, Collections.<Item>nCopies(itemCount, null));
+        }
+
+        @Override
+        public void onItemRangeMoved(final int fromPosition, final int toPosition, final int itemCount) {
+            assertEquals(1, itemCount);
+            slots.add(toPosition, slots.remove(fromPosition));
+        }
+
+        @Override
+        public void onItemRangeRemoved(final int positionStart, final int itemCount) {
+            assertTrue(positionStart >= 0 && positionStart + itemCount <= slots.size());
+            slots.subList(positionStart, positionStart + itemCount).clear();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper;
+
+import android.content.SharedPreferences;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * PreferenceHelperTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class PreferenceHelperTest {
+    private final static String KEY = "key";
+
+    @Test
+    public void batchAppliedDuringWriteBehindIsWrittenLast() throws InterruptedException {
+        final FakePreferences preferences = new FakePreferences();
+        final PreferenceHelper helper = new PreferenceHelper(preferences);
+
+        // hold the write-behind thread just before it writes the older value
+        preferences.blockWriter();
+        helper.save(KEY, "old");
+        assertTrue(preferences.writerBlocked.await(5, TimeUnit.SECONDS));
+
+        final Thread batch = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                helper.edit().putString(KEY, "new").apply();
+            }
+        });
+
+        batch.start();
+        batch.join(200);
+        preferences.writerReleased.countDown();
+        batch.join(5000);
+
+        assertEquals("new", preferences.getString(KEY, null));
+        assertEquals("new", helper.getString(KEY, null));
+    }
+
+    @Test
+    public void batchCommitWritesQueuedValuesFirst() {
+        final FakePreferences preferences = new FakePreferences();
+        final PreferenceHelper helper = new PreferenceHelper(preferences);
+
+        helper.save(KEY, "queued");
+
+        assertTrue(helper.edit().putString("other", "committed").commit());
+        assertEquals("queued", preferences.getString(KEY, null));
+        assertEquals("committed", preferences.getString("other", null));
+    }
+
+    @Test
+    public void batchClearDoesNotKeepQueuedValues() throws InterruptedException {
+        final FakePreferences preferences = new FakePreferences();
+        final PreferenceHelper helper = new PreferenceHelper(preferences);
+
+        preferences.blockWriter();
+        helper.save(KEY, "old");
+        assertTrue(preferences.writerBlocked.await(5, TimeUnit.SECONDS));
+        preferences.writerReleased.countDown();
+
+        helper.save("other", 1);
+        helper.edit().clear().putInt("kept", 2).apply();
+
+        assertEquals(-1, preferences.getInt("other", -1));
+        assertEquals(2, preferences.getInt("kept", -1));
+        assertEquals(2, helper.getInt("kept", -1));
+    }
+
+    /**
+     * An in-memory {@link SharedPreferences} whose editor can hold the write-behind thread inside {@link
+     * SharedPreferences.Editor#apply()}.
+     */
+    private static class FakePreferences implements SharedPreferences {
+        private final List<OnSharedPreferenceChangeListener> listeners = new ArrayList<>();
+        private final Map<String, Object> values = new HashMap<>();
+        private volatile boolean isWriterBlocked;
+        private final CountDownLatch writerBlocked = new CountDownLatch(1);
+        private final CountDownLatch writerReleased = new CountDownLatch(1);
+
+        @Override
+        public boolean contains(final String key) {
+            synchronized (values) {
+                return values.containsKey(key);
+            }
+        }
+
+        @Override
+        public Editor edit() {
+            return new FakeEditor();
+        }
+
+        @Override
+        public Map<String, ?> getAll() {
+            synchronized (values) {
+                return new HashMap<>(values);
+            }
+        }
+
+        @Override
+        public boolean getBoolean(final String key, final boolean defValue) {
+            final Object value = get(key);
+
+            return value == null ? defValue : (Boolean) value;
+        }
+
+        @Override
+        public float getFloat(final String key, final float defValue) {
+            final Object value = get(key);
+
+            return value == null ? defValue : (Float) value;
+        }
+
+        @Override
+        public int getInt(final String key, final int defValue) {
+            final Object value = get(key);
+
+            return value == null ? defValue : (Integer) value;
+        }
+
+        @Override
+        public long getLong(final String key, final long defValue) {
+            final Object value = get(key);
+
+            return value == null ? defValue : (Long) value;
+        }
+
+        @Override
+        public String getString(final String key, final String defValue) {
+            final Object value = get(key);
+
+            return value == null ? defValue : (String) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<String> getStringSet(final String key, final Set<String> defValues) {
+            final Object value = get(key);
+
+            return value == null ? defValues : (Set<String>) value;
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(final OnSharedPreferenceChangeListener listener) {
+            synchronized (listeners) {
+                listeners.add(listener);
+            }
+        }
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(final OnSharedPreferenceChangeListener listener) {
+            synchronized (listeners) {
+                listeners.remove(listener);
+            }
+        }
+
+        void blockWriter() {
+            isWriterBlocked = true;
+        }
+
+        private Object get(final String key) {
+            synchronized (values) {
+                return values.get(key);
+            }
+        }
+
+        private void write(final boolean clear, final Map<String, Object> changes) {
+            if (isWriterBlocked && Thread.currentThread().getName().equals("PreferenceHelper-writer")) {
+                isWriterBlocked = false;
+                writerBlocked.countDown();
+
+                try {
+                    writerReleased.await(5, TimeUnit.SECONDS);
+                }
+                catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            synchronized (values) {
+                if (clear) {
+                    values.clear();
+                }
+
+                for (final Map.Entry<String, Object> change : changes.entrySet()) {
+                    if (change.getValue() == null) {
+                        values.remove(change.getKey());
+                    }
+                    else {
+                        values.put(change.getKey(), change.getValue());
+                    }
+                }
+            }
+
+            final List<OnSharedPreferenceChangeListener> current;
+
+            synchronized (listeners) {
+                current = new ArrayList<>(listeners);
+            }
+
+            for (final String key : changes.keySet()) {
+                for (final OnSharedPreferenceChangeListener listener : current) {
+                    listener.onSharedPreferenceChanged(this, key);
+                }
+            }
+        }
+
+        private class FakeEditor implements Editor {
+            private final Map<String, Object> changes = new HashMap<>();
+            private boolean clear;
+
+            @Override
+            public void apply() {
+                commit();
+            }
+
+            @Override
+            public Editor clear() {
+                synchronized (this) {
+                    clear = true;
+                }
+
+                return this;
+            }
+
+            @Override
+            public boolean commit() {
+                final Map<String, Object> applied;
+                final boolean isCleared;
+
+                synchronized (this) {
+                    applied = new HashMap<>(changes);
+                    isCleared = clear;
+                    changes.clear();
+                    clear = false;
+                }
+
+                write(isCleared, applied);
+
+                return true;
+            }
+
+            @Override
+            public Editor putBoolean(final String key, final boolean value) {
+                return put(key, value);
+            }
+
+            @Override
+            public Editor putFloat(final String key, final float value) {
+                return put(key, value);
+            }
+
+            @Override
+            public Editor putInt(final String key, final int value) {
+                return put(key, value);
+            }
+
+            @Override
+            public Editor putLong(final String key, final long value) {
+                return put(key, value);
+            }
+
+            @Override
+            public Editor putString(final String key, final String value) {
+                return put(key, value);
+            }
+
+            @Override
+            public Editor putStringSet(final String key, final Set<String> values) {
+                return put(key, values);
+            }
+
+            @Override
+            public Editor remove(final String key) {
+                return put(key, null);
+            }
+
+            private synchronized Editor put(final String key, final Object value) {
+                changes.put(key, value);
+
+                return this;
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.preferences;
+
+import android.content.SharedPreferences;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * MappedPreferencesTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class MappedPreferencesTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void clearAndRemoveSurviveReopening() throws IOException {
+        final File file = new File(folder.newFolder(), "prefs.kv");
+        final MappedPreferences preferences = new MappedPreferences(file);
+
+        preferences.edit().putInt("a", 1).putInt("b", 2).commit();
+        preferences.edit().clear().putInt("c", 3).commit();
+        preferences.edit().remove("c").putString("d", "four").commit();
+
+        final Map<String, Object> expected = new HashMap<>();
+
+        expected.put("d", "four");
+
+        assertEquals(expected, preferences.getAll());
+        assertEquals(expected, new MappedPreferences(copyOf(file)).getAll());
+    }
+
+    @Test
+    public void compactionKeepsTheFileSmallAndTheValues() throws IOException, InterruptedException {
+        final File file = new File(folder.newFolder(), "prefs.kv");
+        final MappedPreferences preferences = new MappedPreferences(file);
+        final StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < 5000; i++) {
+            text.setLength(0);
+            text.append("value ").append(i);
+
+            // the length changes often, so most writes append a record and leave the previous one behind
+            preferences.edit().putString("key" + (i % 10), text.toString()).putLong("count", i).apply();
+        }
+
+        final long deadline = System.currentTimeMillis() + 5000;
+
+        while (file.length() > 64 * 1024 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertTrue("file is " + file.length() + " bytes", file.length() <= 64 * 1024);
+        assertEquals(4999L, preferences.getLong("count", -1));
+        assertEquals("value 4999", preferences.getString("key9", null));
+
+        final MappedPreferences reopened = new MappedPreferences(copyOf(file));
+
+        assertEquals(preferences.getAll(), reopened.getAll());
+    }
+
+    @Test
+    public void corruptFilesAreRejected() throws IOException {
+        final File directory = folder.newFolder();
+        final File file = new File(directory, "prefs.kv");
+
+        new MappedPreferences(file).edit().putString("key", "value").putInt("number", 7).commit();
+
+        final byte[] data = readAll(file);
+        final int dataEnd = (data[4] & 0xFF) << 24 | (data[5] & 0xFF) << 16 | (data[6] & 0xFF) << 8 | data[7] & 0xFF;
+
+        // wrong magic
+        assertRejected(directory, with(data, 0, (byte) 'X'));
+
+        // end of data past the end of the file
+        assertRejected(directory, with(data, 4, (byte) 0x7F));
+
+        // unknown record type
+        assertRejected(directory, with(data, 8, (byte) 99));
+
+        // the last record cut short
+        final byte[] truncated = Arrays.copyOf(data, dataEnd - 2);
+
+        truncated[4] = 0;
+        truncated[5] = 0;
+        truncated[6] = (byte) (truncated.length >> 8);
+        truncated[7] = (byte) truncated.length;
+        assertRejected(directory, truncated);
+    }
+
+    @Test
+    public void oversizedKeysAreRejected() throws IOException {
+        final MappedPreferences preferences = new MappedPreferences(new File(folder.newFolder(), "prefs.kv"));
+        final char[] key = new char[70000];
+
+        Arrays.fill(key, 'k');
+
+        try {
+            preferences.edit().putInt(new String(key), 1);
+            fail("Accepted a key longer than 65535 bytes.");
+        }
+        catch (final IllegalArgumentException ex) {
+            // expected
+        }
+
+        // a key just under the limit is still stored
+        preferences.edit().putInt(new String(key, 0, 65535), 2).commit();
+
+        assertEquals(2, preferences.getInt(new String(key, 0, 65535), -1));
+    }
+
+    @Test
+    public void valuesSurviveReopening() throws IOException {
+        final File file = new File(folder.newFolder(), "prefs.kv");
+        final MappedPreferences preferences = new MappedPreferences(file);
+        final Map<String, Object> expected = new HashMap<>();
+
+        final SharedPreferences.Editor editor = preferences.edit();
+        final Set<String> set = new HashSet<>(Arrays.asList("a", "b", "\u00e9"));
+
+        editor.putBoolean("boolean", true);
+        editor.putFloat("float", 1.5f);
+        editor.putInt("int", -3);
+        editor.putLong("long", Long.MAX_VALUE);
+        editor.putString("string", "caf\u00e9");
+        editor.putStringSet("set", set);
+        editor.commit();
+
+        // rewriting a value of the same type and length updates it in place
+        preferences.edit().putInt("int", 4).putString("string", "cafe!").commit();
+
+        expected.put("boolean", true);
+        expected.put("float", 1.5f);
+        expected.put("int", 4);
+        expected.put("long", Long.MAX_VALUE);
+        expected.put("string", "cafe!");
+        expected.put("set", set);
+
+        for (final Map.Entry<String, Object> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), preferences.getAll().get(entry.getKey()));
+        }
+
+        final Map<String, ?> reopened = new MappedPreferences(copyOf(file)).getAll();
+
+        assertEquals(preferences.getAll(), reopened);
+        assertFalse(reopened.isEmpty());
+    }
+
+    private void assertRejected(final File directory, final byte[] data) throws IOException {
+        final File file = File.createTempFile("corrupt", ".kv", directory);
+
+        write(file, data);
+
+        try {
+            new MappedPreferences(file);
+            fail("Opened a corrupt file.");
+        }
+        catch (final IOException ex) {
+            // expected
+        }
+    }
+
+    /**
+     * A file may only be mapped once, so reopening is checked against a copy.
+     */
+    private File copyOf(final File file) throws IOException {
+        final File copy = File.createTempFile("copy", ".kv", folder.newFolder());
+
+        write(copy, readAll(file));
+
+        return copy;
+    }
+
+    private static byte[] readAll(final File file) throws IOException {
+        final RandomAccessFile input = new RandomAccessFile(file, "r");
+
+        try {
+            final byte[] data = new byte[(int) input.length()];
+
+            input.readFully(data);
+
+            return data;
+        }
+        finally {
+            input.close();
+        }
+    }
+
+    private static byte[] with(final byte[] data, final int offset, final byte value) {
+        final byte[] changed = data.clone();
+
+        changed[offset] = value;
+
+        return changed;
+    }
+
+    private static void write(final File file, final byte[] data) throws IOException {
+        final RandomAccessFile output = new RandomAccessFile(file, "rw");
+
+        try {
+            output.setLength(0);
+            output.write(data);
+        }
+        finally {
+            output.close();
+        }
+    }
+}
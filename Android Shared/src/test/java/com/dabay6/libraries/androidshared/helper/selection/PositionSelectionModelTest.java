@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.selection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * PositionSelectionModelTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class PositionSelectionModelTest {
+    @Test
+    public void restoreSkipsValuesThatAreNotPositions() {
+        final PositionSelectionModel model = new PositionSelectionModel();
+
+        model.restore(new long[]{-1, 3, 1L << 32, (long) Integer.MAX_VALUE + 1, Long.MIN_VALUE, 7});
+
+        assertArrayEquals(new long[]{3, 7}, model.save());
+    }
+
+    @Test
+    public void restoreRoundTrips() {
+        final PositionSelectionModel model = new PositionSelectionModel();
+
+        model.restore(new long[]{0, 2, 64, 65});
+
+        assertArrayEquals(new long[]{0, 2, 64, 65}, model.save());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.helper.selection;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * SelectionStateTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class SelectionStateTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void decodeRejectsCorruptData() {
+        final byte[] data = SelectionState.encode(new long[]{1, 2, 3, 10, 20, 21});
+
+        // every truncation, and a count larger than the runs it is followed by
+        for (int length = 0; length < data.length; length++) {
+            assertRejected(Arrays.copyOf(data, length));
+        }
+
+        assertRejected(new byte[]{1, 0x7F, 0, 1});
+        assertRejected(new byte[]{1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+        assertRejected(new byte[]{1, 2, 0, 0, 0, 2});
+        assertRejected(new byte[]{2, 0});
+    }
+
+    @Test
+    public void encodeKeepsContiguousSelectionsSmall() {
+        final long[] values = new long[50000];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i + 1;
+        }
+
+        final byte[] data = SelectionState.encode(values);
+
+        assertTrue(data.length < 16);
+        assertArrayEquals(values, SelectionState.decode(data));
+    }
+
+    @Test
+    public void encodeRoundTrips() {
+        final Random random = new Random(42);
+
+        for (int test = 0; test < 1000; test++) {
+            final long[] values = new long[random.nextInt(200)];
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = test % 2 == 0 ? random.nextInt(500) - 100 : random.nextLong();
+            }
+
+            assertArrayEquals(distinctSorted(values), SelectionState.decode(SelectionState.encode(values)));
+        }
+
+        assertArrayEquals(new long[]{Long.MIN_VALUE, Long.MAX_VALUE},
+                          SelectionState.decode(SelectionState.encode(new long[]{Long.MAX_VALUE, Long.MIN_VALUE})));
+    }
+
+    @Test
+    public void writeRemovesFilesOlderThanADay() throws IOException {
+        final File directory = folder.newFolder();
+        final File old = SelectionState.write(directory, SelectionState.encode(new long[]{1}));
+        final File recent = SelectionState.write(directory, SelectionState.encode(new long[]{2}));
+
+        assertTrue(old.setLastModified(System.currentTimeMillis() - 2 * 24 * 60 * 60 * 1000L));
+
+        SelectionState.write(directory, SelectionState.encode(new long[]{3}));
+
+        assertFalse(old.exists());
+        assertTrue(recent.exists());
+    }
+
+    @Test
+    public void writeRoundTripsAndCanBeReadAgain() throws IOException {
+        final File directory = folder.newFolder();
+        final long[] values = new long[SelectionState.SPILL_THRESHOLD];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 3L;
+        }
+
+        final File file = SelectionState.write(directory, SelectionState.encode(values));
+
+        assertEquals(1, directory.listFiles().length);
+        assertTrue(file.getName().endsWith(".bin"));
+        assertArrayEquals(values, SelectionState.read(file));
+
+        // the same saved state can be restored again, for example by a second fragment
+        assertArrayEquals(values, SelectionState.read(file));
+    }
+
+    private static void assertRejected(final byte[] data) {
+        try {
+            SelectionState.decode(data);
+            fail("Decoded corrupt data: " + Arrays.toString(data));
+        }
+        catch (final IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    private static long[] distinctSorted(final long[] values) {
+        final long[] sorted = values.clone();
+        int count = 0;
+
+        Arrays.sort(sorted);
+
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+
+        return Arrays.copyOf(sorted, count);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BinaryLogFileSinkTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class BinaryLogFileSinkTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+    private BinaryLogFileSink sink;
+
+    @After
+    public void tearDown() {
+        if (sink != null) {
+            Logger.removeBinarySink(sink);
+            sink.close();
+        }
+
+        Logger.setIsLoggingEnabled(false);
+    }
+
+    @Test
+    public void errorsAreWrittenThroughAndATruncatedRecordIsSkipped() throws IOException {
+        final File file = new File(folder.newFolder(), "events.bin");
+
+        sink = new BinaryLogFileSink(file);
+        Logger.addBinarySink(sink);
+        Logger.setIsLoggingEnabled(true);
+
+        Logger.event(LogLevels.INFO, "tag", "first").put("n", 1).log();
+
+        // still buffered
+        assertEquals(0, file.length());
+
+        Logger.event(LogLevels.ERROR, "tag", "second").put("n", 2).log();
+
+        final byte[] data = readAll(file);
+
+        assertTrue(data.length > BinaryLogFormat.MAGIC.length + 1);
+
+        final String[] complete = decode(data);
+
+        assertEquals(2, complete.length);
+        assertTrue(complete[0], complete[0].endsWith("I/tag: first n=1"));
+        assertTrue(complete[1], complete[1].endsWith("E/tag: second n=2"));
+
+        final String[] truncated = decode(Arrays.copyOf(data, data.length - 3));
+
+        assertEquals(1, truncated.length);
+        assertEquals(complete[0], truncated[0]);
+    }
+
+    private static String[] decode(final byte[] data) throws IOException {
+        final StringBuilder output = new StringBuilder();
+
+        new BinaryLogDecoder(false).decode(new ByteArrayInputStream(data), output);
+
+        return output.toString().split("\n");
+    }
+
+    private static byte[] readAll(final File file) throws IOException {
+        final RandomAccessFile input = new RandomAccessFile(file, "r");
+
+        try {
+            final byte[] data = new byte[(int) input.length()];
+
+            input.readFully(data);
+
+            return data;
+        }
+        finally {
+            input.close();
+        }
+    }
+}
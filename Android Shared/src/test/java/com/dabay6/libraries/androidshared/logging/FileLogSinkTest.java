@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import android.test.mock.MockContext;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FileLogSinkTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class FileLogSinkTest {
+    private final static long MAX_FILE_SIZE = 1024;
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void filesRotateBeforeTheyGrowPastTheMaximumSize() throws IOException {
+        final File directory = folder.newFolder();
+        final FileLogSink sink = newSink(directory);
+
+        for (int i = 0; i < 200; i++) {
+            sink.write(LogLevels.INFO, "tag", "message " + i, null);
+        }
+
+        sink.close(5000);
+
+        for (int i = 0; i < 3; i++) {
+            final File file = new File(directory, i == 0 ? "test.log" : "test." + i + ".log");
+
+            assertTrue(file.getName(), file.exists());
+            assertTrue(file.getName() + " " + file.length(), file.length() <= MAX_FILE_SIZE);
+        }
+
+        assertTrue(readAll(sink.getLogFile()).contains("message 199"));
+        assertEquals(0, sink.getDroppedCount());
+    }
+
+    @Test
+    public void writingResumesAfterTheFileCouldNotBeOpened() throws IOException, InterruptedException {
+        final File directory = new File(folder.getRoot(), "logs");
+
+        // a plain file in place of the directory makes opening the log file fail
+        assertTrue(directory.createNewFile());
+
+        final FileLogSink sink = newSink(directory);
+
+        sink.write(LogLevels.INFO, "tag", "lost", null);
+        Thread.sleep(200);
+
+        assertTrue(directory.delete());
+        Thread.sleep(1200);
+
+        sink.write(LogLevels.INFO, "tag", "kept", null);
+        sink.close(5000);
+
+        assertTrue(readAll(sink.getLogFile()).contains("kept"));
+    }
+
+    private static FileLogSink newSink(final File directory) {
+        return new FileLogSink.Builder(new MockContext()).setDirectory(directory)
+                                                         .setMaxFileSize(MAX_FILE_SIZE)
+                                                         .setMaxFiles(3)
+                                                         .setName("test")
+                                                         .build();
+    }
+
+    private static String readAll(final File file) throws IOException {
+        final RandomAccessFile input = new RandomAccessFile(file, "r");
+
+        try {
+            final byte[] data = new byte[(int) input.length()];
+
+            input.readFully(data);
+
+            return new String(data, "UTF-8");
+        }
+        finally {
+            input.close();
+        }
+    }
+}
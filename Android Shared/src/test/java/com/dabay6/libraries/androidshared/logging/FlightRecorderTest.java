@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FlightRecorderTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class FlightRecorderTest {
+    private final static int WRITERS = 4;
+
+    @After
+    public void tearDown() {
+        Logger.setFlightRecorder(null);
+    }
+
+    @Test
+    public void concurrentWritersNeverTearEvents() throws InterruptedException, IOException {
+        // with two slots every writer keeps landing on a slot another writer is filling
+        final FlightRecorder recorder = new FlightRecorder(2);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch started = new CountDownLatch(WRITERS);
+        final Thread[] writers = new Thread[WRITERS];
+
+        for (int i = 0; i < WRITERS; i++) {
+            final int id = i;
+
+            writers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final String tag = "w" + id;
+
+                    started.countDown();
+
+                    while (running.get()) {
+                        recorder.record(LogLevels.INFO, tag, tag + " {} {}", null, FlightRecorder.SHAPE_LONG_LONG,
+                                        null, null, null, id, id);
+                    }
+                }
+            });
+            writers[i].start();
+        }
+
+        started.await();
+
+        try {
+            for (int dump = 0; dump < 2000; dump++) {
+                final StringWriter writer = new StringWriter();
+
+                recorder.dump(writer);
+
+                for (final String line : writer.toString().split("\n")) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+
+                    final String event = line.substring(line.indexOf('/') + 1);
+                    final String id = event.substring(1, event.indexOf(':'));
+
+                    assertEquals(line, "w" + id + ": w" + id + " " + id + " " + id, event);
+                }
+            }
+        }
+        finally {
+            running.set(false);
+
+            for (final Thread writer : writers) {
+                writer.join();
+            }
+        }
+    }
+
+    @Test
+    public void formatCallWithDroppedArgumentsKeepsTheFormatString() throws IOException {
+        final FlightRecorder recorder = new FlightRecorder(16);
+        final StringWriter writer = new StringWriter();
+
+        Logger.setFlightRecorder(recorder);
+        Logger.info("tag", "%d %d %d %d", 1, 2, 3, 4);
+        recorder.dump(writer);
+
+        final String[] lines = writer.toString().split("\n");
+
+        // formatting must not log a warning into the recorder being dumped
+        assertEquals(1, lines.length);
+        assertTrue(lines[0], lines[0].endsWith("I/tag: %d %d %d %d [1, 2, 3, ?]"));
+    }
+
+    @Test
+    public void formatCallIsExpandedWhenDumped() throws IOException {
+        final FlightRecorder recorder = new FlightRecorder(16);
+        final StringWriter writer = new StringWriter();
+
+        Logger.setFlightRecorder(recorder);
+        Logger.info("tag", "%s=%d", "count", 3);
+        recorder.dump(writer);
+
+        assertTrue(writer.toString(), writer.toString().endsWith("I/tag: count=3\n"));
+    }
+}
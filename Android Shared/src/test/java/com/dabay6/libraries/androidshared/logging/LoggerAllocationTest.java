@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.logging;
+
+import com.dabay6.libraries.androidshared.enums.LogLevels;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LoggerAllocationTest
+ * <p>
+ * Measures the bytes allocated by the calling thread across many calls below the log level, with and without a
+ * {@link FlightRecorder} installed. The allowance absorbs the measurement itself; a single boxed argument or array per
+ * call would exceed it by orders of magnitude.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class LoggerAllocationTest {
+    private final static int ALLOWANCE_BYTES = 1024;
+    private final static int ITERATIONS = 100000;
+    private final static String TAG = Logger.makeTag(LoggerAllocationTest.class);
+    private com.sun.management.ThreadMXBean threads;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+
+        threads.setThreadAllocatedMemoryEnabled(true);
+        Logger.setIsLoggingEnabled(true);
+        Logger.setLogLevel(LogLevels.ERROR);
+    }
+
+    @After
+    public void tearDown() {
+        Logger.setFlightRecorder(null);
+        Logger.setIsLoggingEnabled(false);
+        Logger.setLogLevel(LogLevels.VERBOSE);
+    }
+
+    @Test
+    public void disabledCallDoesNotAllocate() {
+        Logger.setFlightRecorder(null);
+
+        assertNoAllocation();
+    }
+
+    @Test
+    public void disabledCallWithRecorderDoesNotAllocate() {
+        Logger.setFlightRecorder(new FlightRecorder(FlightRecorder.DEFAULT_CAPACITY));
+
+        assertNoAllocation();
+    }
+
+    private void assertNoAllocation() {
+        final Object value = "value";
+
+        // warm up, so that class loading and compilation are not measured
+        for (int i = 0; i < ITERATIONS; i++) {
+            logDisabled(i, value);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            logDisabled(i, value);
+        }
+
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated + " bytes allocated by " + ITERATIONS + " disabled calls", allocated < ALLOWANCE_BYTES);
+    }
+
+    private static void logDisabled(final int i, final Object value) {
+        Logger.debug(TAG, "message");
+        Logger.log(LogLevels.DEBUG, TAG, "value {}", value);
+        Logger.log(LogLevels.DEBUG, TAG, "count {}", i);
+        Logger.log(LogLevels.DEBUG, TAG, "ratio {}", i / 2.0);
+        Logger.log(LogLevels.DEBUG, TAG, "{} of {}", i, (long) ITERATIONS);
+        Logger.log(LogLevels.INFO, TAG, "{} is {}", value, i);
+    }
+}
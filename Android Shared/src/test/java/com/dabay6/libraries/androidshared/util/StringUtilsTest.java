@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * StringUtilsTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class StringUtilsTest {
+    @Test
+    public void equalsIgnoresCase() {
+        assertTrue(StringUtils.equals("Value", "vALUE"));
+        assertTrue(StringUtils.equals(new StringBuilder("Value"), "vALUE"));
+        assertFalse(StringUtils.equals(new StringBuilder("Value"), "Values"));
+    }
+
+    @Test
+    public void equalsIsFalseForNull() {
+        assertFalse(StringUtils.equals((String) null, (String) null));
+        assertFalse(StringUtils.equals(null, "value"));
+        assertFalse(StringUtils.equals("value", null));
+        assertFalse(StringUtils.equals((CharSequence) null, (CharSequence) null));
+        assertFalse(StringUtils.equals(new StringBuilder("value"), null));
+        assertFalse(StringUtils.equals(null, new StringBuilder("value")));
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import com.dabay6.libraries.androidshared.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * CollectionsBenchmark
+ * <p>
+ * Times the collections in this package against the JDK code they replaced. Each task runs a number of warm-up
+ * rounds and then reports the median of the measured rounds. Run it from the test class path with
+ * {@code java com.dabay6.libraries.androidshared.util.collections.CollectionsBenchmark}; it is not a unit test.
+ * </p>
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public final class CollectionsBenchmark {
+    private final static Comparator<Integer> DESCENDING = Collections.reverseOrder();
+    private final static int ROUNDS = 15;
+    private final static int SIZE = 200000;
+    private final static int WARM_UP_ROUNDS = 10;
+    private static long sink;
+
+    private CollectionsBenchmark() {
+    }
+
+    public static void main(final String[] args) {
+        final Random random = new Random(42);
+        final long[] values = new long[SIZE];
+        final List<Integer> integers = new ArrayList<>(SIZE);
+
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = random.nextLong() >>> 24;
+            integers.add(random.nextInt());
+        }
+
+        compare("long set", new Task() {
+            @Override
+            long run() {
+                final LongHashSet set = new LongHashSet();
+                long found = 0;
+
+                for (final long value : values) {
+                    set.add(value);
+                }
+                for (final long value : values) {
+                    found += set.contains(value) ? 1 : 0;
+                    found += set.contains(value + 1) ? 1 : 0;
+                }
+                for (int i = 0; i < values.length; i += 2) {
+                    set.remove(values[i]);
+                }
+
+                return found + set.size();
+            }
+        }, new Task() {
+            @Override
+            long run() {
+                final Set<Long> set = new HashSet<>();
+                long found = 0;
+
+                for (final long value : values) {
+                    set.add(value);
+                }
+                for (final long value : values) {
+                    found += set.contains(value) ? 1 : 0;
+                    found += set.contains(value + 1) ? 1 : 0;
+                }
+                for (int i = 0; i < values.length; i += 2) {
+                    set.remove(values[i]);
+                }
+
+                return found + set.size();
+            }
+        });
+
+        compare("long map", new Task() {
+            @Override
+            long run() {
+                final LongObjectHashMap<Integer> map = new LongObjectHashMap<>();
+                long found = 0;
+
+                for (int i = 0; i < values.length; i++) {
+                    map.put(values[i], integers.get(i));
+                }
+                for (final long value : values) {
+                    found += map.get(value) == null ? 0 : 1;
+                }
+                for (int i = 0; i < values.length; i += 2) {
+                    map.remove(values[i]);
+                }
+
+                return found + map.size();
+            }
+        }, new Task() {
+            @Override
+            long run() {
+                final Map<Long, Integer> map = new HashMap<>();
+                long found = 0;
+
+                for (int i = 0; i < values.length; i++) {
+                    map.put(values[i], integers.get(i));
+                }
+                for (final long value : values) {
+                    found += map.get(value) == null ? 0 : 1;
+                }
+                for (int i = 0; i < values.length; i += 2) {
+                    map.remove(values[i]);
+                }
+
+                return found + map.size();
+            }
+        });
+
+        compare("long list", new Task() {
+            @Override
+            long run() {
+                final LongArrayList list = new LongArrayList();
+                long sum = 0;
+
+                for (final long value : values) {
+                    list.add(value);
+                }
+
+                list.sort();
+
+                for (int i = 0; i < list.size(); i++) {
+                    sum += list.get(i);
+                }
+
+                return sum;
+            }
+        }, new Task() {
+            @Override
+            long run() {
+                final List<Long> list = new ArrayList<>();
+                long sum = 0;
+
+                for (final long value : values) {
+                    list.add(value);
+                }
+
+                Collections.sort(list);
+
+                for (int i = 0; i < list.size(); i++) {
+                    sum += list.get(i);
+                }
+
+                return sum;
+            }
+        });
+
+        final Predicate<Integer> isEven = new Predicate<Integer>() {
+            @Override
+            public boolean apply(final Integer item) {
+                return (item & 1) == 0;
+            }
+        };
+        final Function<Integer, Integer> triple = new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer item) {
+                return item * 3;
+            }
+        };
+
+        compare("pipeline filter, map, limit", new Task() {
+            @Override
+            long run() {
+                return CollectionUtils.from(integers).filter(isEven).map(triple).limit(SIZE / 4).toList().size();
+            }
+        }, new Task() {
+            @Override
+            long run() {
+                // one intermediate list per step, as the code did before the pipeline
+                final List<Integer> filtered = new ArrayList<>();
+                final List<Integer> mapped = new ArrayList<>();
+
+                for (final Integer item : integers) {
+                    if (isEven.apply(item)) {
+                        filtered.add(item);
+                    }
+                }
+                for (final Integer item : filtered) {
+                    mapped.add(triple.apply(item));
+                }
+
+                return new ArrayList<>(mapped.subList(0, Math.min(SIZE / 4, mapped.size()))).size();
+            }
+        });
+
+        compare("parallel sort", new Task() {
+            @Override
+            long run() {
+                final List<Integer> list = new ArrayList<>(integers);
+
+                Parallel.sort(list, DESCENDING);
+
+                return list.get(0);
+            }
+        }, new Task() {
+            @Override
+            long run() {
+                final List<Integer> list = new ArrayList<>(integers);
+
+                Collections.sort(list, DESCENDING);
+
+                return list.get(0);
+            }
+        });
+
+        compare("parallel map", new Task() {
+            @Override
+            long run() {
+                return Parallel.map(integers, triple).size();
+            }
+        }, new Task() {
+            @Override
+            long run() {
+                final List<Integer> mapped = new ArrayList<>(integers.size());
+
+                for (final Integer item : integers) {
+                    mapped.add(triple.apply(item));
+                }
+
+                return mapped.size();
+            }
+        });
+
+        final List<Integer> items = integers.subList(0, 20000);
+        final int[] indexes = new int[500];
+
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = random.nextInt(items.size());
+        }
+
+        compare("persistent list edits", new Task() {
+            @Override
+            long run() {
+                PersistentList<Integer> list = PersistentList.of(items);
+
+                for (final int index : indexes) {
+                    list = list.with(index, index).plus(index);
+                }
+
+                return list.size();
+            }
+        }, new Task() {
+            @Override
+            long run() {
+                // a fresh copy per edit, as the adapters did before the persistent list
+                List<Integer> list = new ArrayList<>(items);
+
+                for (final int index : indexes) {
+                    list = new ArrayList<>(list);
+                    list.set(index, index);
+                    list.add(index);
+                }
+
+                return list.size();
+            }
+        });
+
+        System.out.println("checksum " + sink);
+    }
+
+    private static void compare(final String name, final Task candidate, final Task baseline) {
+        final double candidateTime = measure(candidate);
+        final double baselineTime = measure(baseline);
+
+        System.out.println(String.format(Locale.US, "%-30s %10.3f ms %10.3f ms  x%.2f", name, candidateTime,
+                                         baselineTime, baselineTime / candidateTime));
+    }
+
+    /**
+     * @return The median time of a run, in milliseconds.
+     */
+    private static double measure(final Task task) {
+        final long[] times = new long[ROUNDS];
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            sink += task.run();
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            final long start = System.nanoTime();
+
+            sink += task.run();
+            times[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(times);
+
+        return times[ROUNDS / 2] / 1e6;
+    }
+
+    private static abstract class Task {
+        /**
+         * @return A value derived from the work, so it cannot be optimized away.
+         */
+        abstract long run();
+    }
+}
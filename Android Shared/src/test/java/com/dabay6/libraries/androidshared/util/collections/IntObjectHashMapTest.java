@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * IntObjectHashMapTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class IntObjectHashMapTest {
+    @Test
+    public void matchesHashMap() {
+        final Random random = new Random(42);
+
+        for (int round = 0; round < 24; round++) {
+            // small ranges keep the table full of long probe chains, so removals shift many entries back
+            final int range = 4 << round % 10;
+            final IntObjectHashMap<String> map = new IntObjectHashMap<>(random.nextInt(4));
+            final Map<Integer, String> expected = new HashMap<>();
+
+            for (int i = 0; i < 20000; i++) {
+                final int key = key(random, range);
+
+                switch (random.nextInt(5)) {
+                    case 0:
+                    case 1: {
+                        final String value = random.nextInt(50) == 0 ? null : "v" + i;
+
+                        assertEquals(expected.put(key, value), map.put(key, value));
+                        break;
+                    }
+                    case 2:
+                    case 3:
+                        assertEquals(expected.remove(key), map.remove(key));
+                        break;
+                    default:
+                        if (random.nextInt(1000) == 0) {
+                            map.clear();
+                            expected.clear();
+                        }
+                        break;
+                }
+
+                assertEquals(expected.size(), map.size());
+
+                if (i % 1000 == 0) {
+                    assertSameEntries(expected, map, range);
+                }
+            }
+
+            assertSameEntries(expected, map, range);
+        }
+    }
+
+    private static void assertSameEntries(final Map<Integer, String> expected,
+                                          final IntObjectHashMap<String> map, final int range) {
+        for (int key = -range; key <= range; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.get(key << 20), map.get(key << 20));
+        }
+
+        final int[] keys = map.keys();
+        final List<String> values = map.values();
+        final Map<Integer, String> actual = new HashMap<>();
+
+        assertEquals(keys.length, values.size());
+
+        for (int i = 0; i < keys.length; i++) {
+            actual.put(keys[i], values.get(i));
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(expected.isEmpty(), map.isEmpty());
+    }
+
+    /**
+     * Returns a key near zero, including zero itself, or one that differs only in its higher bits.
+     */
+    private static int key(final Random random, final int range) {
+        final int key = random.nextInt(2 * range + 1) - range;
+
+        return random.nextInt(4) == 0 ? key << 20 : key;
+    }
+}
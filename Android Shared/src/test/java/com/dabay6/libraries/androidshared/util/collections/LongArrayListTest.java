@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * LongArrayListTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class LongArrayListTest {
+    @Test
+    public void matchesArrayList() {
+        final Random random = new Random(42);
+        final LongArrayList list = new LongArrayList(0);
+        final List<Long> expected = new ArrayList<>();
+
+        for (int i = 0; i < 50000; i++) {
+            final long value = random.nextInt(100) - 50;
+            final int size = expected.size();
+
+            switch (random.nextInt(9)) {
+                case 0:
+                case 1:
+                    list.add(value);
+                    expected.add(value);
+                    break;
+                case 2: {
+                    final int index = random.nextInt(size + 1);
+
+                    list.add(index, value);
+                    expected.add(index, value);
+                    break;
+                }
+                case 3:
+                    if (size > 0) {
+                        final int index = random.nextInt(size);
+
+                        assertEquals((long) expected.remove(index), list.removeAt(index));
+                    }
+                    break;
+                case 4:
+                    if (size > 0) {
+                        final int index = random.nextInt(size);
+
+                        assertEquals((long) expected.set(index, value), list.set(index, value));
+                    }
+                    break;
+                case 5:
+                    assertEquals(expected.indexOf(value), list.indexOf(value));
+                    assertEquals(expected.contains(value), list.contains(value));
+                    break;
+                case 6: {
+                    final long[] values = new long[random.nextInt(5)];
+
+                    for (int j = 0; j < values.length; j++) {
+                        values[j] = random.nextInt(100);
+                        expected.add(values[j]);
+                    }
+                    list.addAll(values);
+                    break;
+                }
+                case 7:
+                    if (random.nextInt(100) == 0) {
+                        list.sort();
+                        Collections.sort(expected);
+                    }
+                    else if (random.nextInt(100) == 0) {
+                        list.trimToSize();
+                    }
+                    break;
+                default:
+                    if (random.nextInt(2000) == 0) {
+                        list.clear();
+                        expected.clear();
+                    }
+                    break;
+            }
+
+            assertEquals(expected.size(), list.size());
+        }
+
+        final long[] values = list.toArray();
+
+        assertEquals(expected.size(), values.length);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals((long) expected.get(i), values[i]);
+            assertEquals((long) expected.get(i), list.get(i));
+        }
+
+        final LongArrayList copy = new LongArrayList();
+
+        copy.addAll(values);
+
+        assertEquals(list, copy);
+        assertEquals(list.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    public void outOfRangeIndexesAreRejected() {
+        final LongArrayList list = new LongArrayList();
+
+        list.add(1);
+
+        try {
+            list.get(1);
+            fail("Read past the end of the list.");
+        }
+        catch (final IndexOutOfBoundsException ex) {
+            // expected
+        }
+
+        try {
+            list.add(2, 3);
+            fail("Inserted past the end of the list.");
+        }
+        catch (final IndexOutOfBoundsException ex) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LongHashSetTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class LongHashSetTest {
+    @Test
+    public void equalSetsAreEqualWhateverTheInsertionOrder() {
+        final Random random = new Random(7);
+        final long[] values = new long[1000];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong() % 5000;
+        }
+
+        final LongHashSet first = new LongHashSet();
+        final LongHashSet second = new LongHashSet(values.length);
+
+        first.addAll(values);
+
+        for (int i = values.length - 1; i >= 0; i--) {
+            second.add(values[i]);
+        }
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+
+        second.remove(values[0]);
+
+        assertFalse(first.equals(second));
+    }
+
+    @Test
+    public void matchesHashSet() {
+        final Random random = new Random(42);
+
+        for (int round = 0; round < 24; round++) {
+            // small ranges keep the table full of long probe chains, so removals shift many entries back
+            final int range = 4 << round % 10;
+            final LongHashSet set = new LongHashSet(random.nextInt(4));
+            final Set<Long> expected = new HashSet<>();
+
+            for (int i = 0; i < 20000; i++) {
+                final long value = key(random, range);
+
+                switch (random.nextInt(5)) {
+                    case 0:
+                    case 1:
+                        assertEquals(expected.add(value), set.add(value));
+                        break;
+                    case 2:
+                    case 3:
+                        assertEquals(expected.remove(value), set.remove(value));
+                        break;
+                    default:
+                        if (random.nextInt(1000) == 0) {
+                            set.clear();
+                            expected.clear();
+                        }
+                        break;
+                }
+
+                assertEquals(expected.size(), set.size());
+
+                if (i % 1000 == 0) {
+                    assertSameValues(expected, set, range);
+                }
+            }
+
+            assertSameValues(expected, set, range);
+        }
+    }
+
+    private static void assertSameValues(final Set<Long> expected, final LongHashSet set, final int range) {
+        for (long value = -range; value <= range; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+            assertEquals(expected.contains(value << 32), set.contains(value << 32));
+        }
+
+        final List<Long> sorted = new ArrayList<>(expected);
+        final long[] actual = set.toArray();
+        final List<Long> iterated = new ArrayList<>();
+
+        Collections.sort(sorted);
+        Arrays.sort(actual);
+
+        for (final LongIterator iterator = set.iterator(); iterator.hasNext(); ) {
+            iterated.add(iterator.next());
+        }
+
+        Collections.sort(iterated);
+
+        assertEquals(sorted.size(), actual.length);
+        for (int i = 0; i < actual.length; i++) {
+            assertEquals((long) sorted.get(i), actual[i]);
+        }
+        assertEquals(sorted, iterated);
+        assertTrue(set.isEmpty() == expected.isEmpty());
+    }
+
+    /**
+     * Returns a value near zero, including zero itself, or one that differs only in its high bits.
+     */
+    static long key(final Random random, final int range) {
+        final long value = random.nextInt(2 * range + 1) - range;
+
+        return random.nextInt(4) == 0 ? value << 32 : value;
+    }
+}
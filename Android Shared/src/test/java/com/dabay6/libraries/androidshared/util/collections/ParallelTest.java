@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * ParallelTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class ParallelTest {
+    private final static Comparator<long[]> BY_KEY = new Comparator<long[]>() {
+        @Override
+        public int compare(final long[] lhs, final long[] rhs) {
+            return lhs[0] < rhs[0] ? -1 : (lhs[0] == rhs[0] ? 0 : 1);
+        }
+    };
+    private final static Predicate<Integer> IS_EVEN = new Predicate<Integer>() {
+        @Override
+        public boolean apply(final Integer item) {
+            return item % 2 == 0;
+        }
+    };
+
+    @Before
+    public void setUp() {
+        // split every list so the chunked code paths run on machines with more than one processor
+        Parallel.setThreshold(2);
+    }
+
+    @After
+    public void tearDown() {
+        Parallel.setThreshold(Parallel.DEFAULT_THRESHOLD);
+    }
+
+    @Test
+    public void filterAndMapKeepTheOrder() {
+        final Random random = new Random(42);
+
+        for (int round = 0; round < 50; round++) {
+            final List<Integer> items = randomIntegers(random, random.nextInt(5000));
+            final List<Integer> even = new ArrayList<>();
+            final List<String> text = new ArrayList<>();
+
+            for (final Integer item : items) {
+                if (IS_EVEN.apply(item)) {
+                    even.add(item);
+                }
+                text.add(Integer.toString(item));
+            }
+
+            assertEquals(even, Parallel.filter(items, IS_EVEN));
+            assertEquals(text, Parallel.map(items, new Function<Integer, String>() {
+                @Override
+                public String apply(final Integer item) {
+                    return Integer.toString(item);
+                }
+            }));
+        }
+    }
+
+    @Test
+    public void nestedCallsComplete() {
+        final List<Integer> items = randomIntegers(new Random(7), 64);
+        final List<Integer> counts = Parallel.map(items, new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer item) {
+                // runs on a pool thread, so this call must not wait for the pool
+                return Parallel.filter(items, IS_EVEN).size();
+            }
+        });
+
+        for (final Integer count : counts) {
+            assertEquals(counts.get(0), count);
+        }
+    }
+
+    @Test
+    public void sortIsStableAndMatchesCollectionsSort() {
+        final Random random = new Random(42);
+
+        for (int round = 0; round < 50; round++) {
+            final int size = random.nextInt(5000);
+            final List<long[]> items = new ArrayList<>(size);
+
+            for (int i = 0; i < size; i++) {
+                // few distinct keys, so equal keys have to keep their original order
+                items.add(new long[]{random.nextInt(50), i});
+            }
+
+            final List<long[]> expected = new ArrayList<>(items);
+
+            Collections.sort(expected, BY_KEY);
+            Parallel.sort(items, BY_KEY);
+
+            for (int i = 0; i < size; i++) {
+                assertSame(expected.get(i), items.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void sortWithoutComparatorUsesNaturalOrder() {
+        final List<Integer> items = randomIntegers(new Random(3), 3000);
+        final List<Integer> expected = new ArrayList<>(items);
+
+        Collections.sort(expected);
+        Parallel.sort(items, null);
+
+        assertEquals(expected, items);
+    }
+
+    private static List<Integer> randomIntegers(final Random random, final int size) {
+        final List<Integer> items = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            items.add(random.nextInt(1000));
+        }
+
+        return items;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * PersistentListTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class PersistentListTest {
+    @Test
+    public void appendingAcrossTrieLevelsKeepsEveryVersion() {
+        final List<PersistentList<Integer>> versions = new ArrayList<>();
+        PersistentList<Integer> list = PersistentList.empty();
+
+        // 32 fill the tail, 32 * 32 + 32 fill a root of leaves, 32 * 32 * 32 + 32 need a third level
+        for (int i = 0; i < 70000; i++) {
+            list = list.plus(i);
+
+            if (isBoundary(list.size())) {
+                versions.add(list);
+            }
+        }
+
+        for (final PersistentList<Integer> version : versions) {
+            assertSequence(version, version.size());
+        }
+
+        // replacing an item in a shared leaf leaves the other versions untouched
+        final PersistentList<Integer> changed = list.with(1000, -1);
+
+        assertEquals(-1, (int) changed.get(1000));
+        assertSequence(list, list.size());
+    }
+
+    @Test
+    public void ofMatchesAppending() {
+        for (int size = 0; size < 1200; size += 1 + size / 8) {
+            final List<Integer> expected = new ArrayList<>(size);
+            PersistentList<Integer> appended = PersistentList.empty();
+
+            for (int i = 0; i < size; i++) {
+                expected.add(i);
+                appended = appended.plus(i);
+            }
+
+            assertEquals(expected, PersistentList.of(expected));
+            assertEquals(expected, appended);
+            assertEquals(appended, PersistentList.of(expected).plusAll(Collections.<Integer>emptyList()));
+        }
+    }
+
+    @Test
+    public void randomChangesMatchArrayListAndKeepOldVersions() {
+        final Random random = new Random(42);
+        final List<PersistentList<Integer>> versions = new ArrayList<>();
+        final List<List<Integer>> copies = new ArrayList<>();
+        PersistentList<Integer> list = PersistentList.empty();
+        final List<Integer> expected = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            final int size = expected.size();
+            final Integer value = random.nextInt(1000);
+
+            switch (random.nextInt(8)) {
+                case 0:
+                case 1:
+                case 2:
+                    list = list.plus(value);
+                    expected.add(value);
+                    break;
+                case 3: {
+                    final int index = random.nextInt(size + 1);
+
+                    list = list.insert(index, value);
+                    expected.add(index, value);
+                    break;
+                }
+                case 4:
+                    if (size > 0) {
+                        final int index = random.nextInt(size);
+
+                        list = list.minus(index);
+                        expected.remove(index);
+                    }
+                    break;
+                case 5:
+                    if (size > 0) {
+                        final int index = random.nextInt(size);
+
+                        list = list.with(index, value);
+                        expected.set(index, value);
+                    }
+                    break;
+                case 6: {
+                    final List<Integer> more = new ArrayList<>();
+
+                    for (int j = random.nextInt(70); j > 0; j--) {
+                        more.add(random.nextInt(1000));
+                    }
+
+                    list = list.plusAll(more);
+                    expected.addAll(more);
+                    break;
+                }
+                default:
+                    if (random.nextInt(50) == 0) {
+                        list = list.sorted(null);
+                        Collections.sort(expected);
+                    }
+                    else {
+                        list = list.minus(value);
+                        expected.remove(value);
+                    }
+                    break;
+            }
+
+            assertEquals(expected.size(), list.size());
+
+            if (i % 250 == 0) {
+                versions.add(list);
+                copies.add(new ArrayList<>(expected));
+            }
+        }
+
+        assertEquals(expected, list);
+        assertEquals(expected, new ArrayList<>(list));
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(copies.get(i), versions.get(i));
+        }
+    }
+
+    private static void assertSequence(final PersistentList<Integer> list, final int size) {
+        final Iterator<Integer> iterator = list.iterator();
+        final Object[] array = list.toArray();
+
+        assertEquals(size, list.size());
+        assertEquals(size, array.length);
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, (int) list.get(i));
+            assertEquals(i, (int) iterator.next());
+            assertEquals(i, array[i]);
+        }
+
+        assertFalse(iterator.hasNext());
+    }
+
+    private static boolean isBoundary(final int size) {
+        final int[] boundaries = {32, 64, 1024 + 32, 32768 + 32};
+
+        for (final int boundary : boundaries) {
+            if (Math.abs(size - boundary) <= 1) {
+                return true;
+            }
+        }
+
+        return size % 4999 == 0;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2015 Remel Pugh
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.dabay6.libraries.androidshared.util.collections;
+
+import com.dabay6.libraries.androidshared.util.CollectionUtils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * PipelineTest
+ *
+ * @author Remel Pugh
+ * @version 1.0
+ */
+public class PipelineTest {
+    private final static Comparator<Integer> DESCENDING = Collections.reverseOrder();
+
+    @Test
+    public void limitStopsTheWalk() {
+        final int[] calls = new int[1];
+        final List<Integer> result = CollectionUtils.from(Arrays.asList(1, 2, 3, 4, 5, 6)).map(
+                new Function<Integer, Integer>() {
+                    @Override
+                    public Integer apply(final Integer item) {
+                        calls[0] += 1;
+
+                        return item * 10;
+                    }
+                }).limit(3).toList();
+
+        assertEquals(Arrays.asList(10, 20, 30), result);
+        assertEquals(3, calls[0]);
+    }
+
+    @Test
+    public void matchesStepByStepEvaluation() {
+        final Random random = new Random(42);
+
+        for (int round = 0; round < 2000; round++) {
+            final List<Integer> source = random.nextBoolean() ? new ArrayList<Integer>() : new LinkedList<Integer>();
+            final int size = random.nextInt(40);
+
+            for (int i = 0; i < size; i++) {
+                source.add(random.nextInt(100));
+            }
+
+            final Pipeline<Integer> pipeline = CollectionUtils.from(source);
+            List<Integer> expected = new ArrayList<>(source);
+            int limit = Integer.MAX_VALUE;
+            final int stages = random.nextInt(5);
+
+            for (int i = 0; i < stages; i++) {
+                switch (random.nextInt(3)) {
+                    case 0: {
+                        final Predicate<Integer> predicate = multipleOf(2 + random.nextInt(3));
+
+                        pipeline.filter(predicate);
+                        expected = filter(expected, predicate);
+                        break;
+                    }
+                    case 1: {
+                        final Function<Integer, Integer> function = linear(1 + random.nextInt(3), random.nextInt(5));
+
+                        pipeline.map(function);
+                        expected = map(expected, function);
+                        break;
+                    }
+                    default: {
+                        final int maxSize = random.nextInt(size + 2);
+
+                        pipeline.limit(maxSize);
+                        limit = Math.min(limit, maxSize);
+                        break;
+                    }
+                }
+            }
+
+            // a limit caps what the whole pipeline produces, wherever it appears in the chain
+            expected = expected.subList(0, Math.min(expected.size(), limit));
+
+            switch (random.nextInt(5)) {
+                case 0:
+                    assertEquals(expected, pipeline.toList());
+                    break;
+                case 1:
+                    assertEquals(expected.size(), pipeline.count());
+                    break;
+                case 2:
+                    assertEquals(expected.isEmpty() ? null : expected.get(0), pipeline.first());
+                    break;
+                case 3: {
+                    final Collection<Integer> target = new ArrayList<>(Arrays.asList(-1, -2));
+                    final List<Integer> combined = new ArrayList<>(target);
+
+                    combined.addAll(expected);
+
+                    assertEquals(combined, pipeline.into(target));
+                    break;
+                }
+                default: {
+                    final List<Integer> sorted = new ArrayList<>(expected);
+
+                    Collections.sort(sorted, DESCENDING);
+
+                    assertEquals(sorted, pipeline.toSortedList(DESCENDING));
+                    break;
+                }
+            }
+        }
+    }
+
+    private static List<Integer> filter(final List<Integer> items, final Predicate<Integer> predicate) {
+        final List<Integer> result = new ArrayList<>();
+
+        for (final Integer item : items) {
+            if (predicate.apply(item)) {
+                result.add(item);
+            }
+        }
+
+        return result;
+    }
+
+    private static Function<Integer, Integer> linear(final int factor, final int offset) {
+        return new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer item) {
+                return item * factor + offset;
+            }
+        };
+    }
+
+    private static List<Integer> map(final List<Integer> items, final Function<Integer, Integer> function) {
+        final List<Integer> result = new ArrayList<>();
+
+        for (final Integer item : items) {
+            result.add(function.apply(item));
+        }
+
+        return result;
+    }
+
+    private static Predicate<Integer> multipleOf(final int divisor) {
+        return new Predicate<Integer>() {
+            @Override
+            public boolean apply(final Integer item) {
+                return item % divisor == 0;
+            }
+        };
+    }
+}